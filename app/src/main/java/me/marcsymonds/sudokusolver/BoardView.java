@@ -0,0 +1,161 @@
+package me.marcsymonds.sudokusolver;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.view.MotionEvent;
+import android.view.View;
+
+/**
+ * Draws the whole board in a single view, in place of a TextView for each cell.
+ * <p>
+ * The board is drawn in one onDraw() straight from the cells and their model, so however many
+ * cells change, the view is only invalidated, measured and drawn once per frame. The paints and
+ * the positions of the cells are worked out when the size of the view changes rather than when
+ * the board is drawn, and nothing is allocated while drawing.
+ * <p>
+ * While the board is being edited, touching a cell selects it; the cell is worked out from the
+ * position of the touch.
+ */
+class BoardView extends View {
+    // Sizes of the frame and dividers, in dp.
+    private static final int FRAME_DP = 4;
+    private static final int THIN_DIVIDER_DP = 1;
+    private static final int THICK_DIVIDER_DP = 2;
+
+    // Size of the text, as a fraction of the size of a cell.
+    private static final float TEXT_SCALE = 0.6f;
+
+    private final SudokuBoard mBoard;
+    private final Paint mFillPaint = new Paint();
+    private final Paint mTextPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+
+    // Position of the left of each column and the top of each row, and the size of a cell.
+    private final float[] mCellLeft = new float[9];
+    private final float[] mCellTop = new float[9];
+    private float mCellWidth = 0;
+    private float mCellHeight = 0;
+    private float mFrame = 0;
+
+    // Distance from the middle of a cell to the baseline of its text.
+    private float mTextOffset = 0;
+
+    BoardView(Context context, SudokuBoard board) {
+        super(context);
+
+        mBoard = board;
+
+        mFillPaint.setStyle(Paint.Style.FILL);
+        mTextPaint.setTextAlign(Paint.Align.CENTER);
+
+        setClickable(true);
+
+        // Take the focus so that the d-pad keys go to the board rather than moving between the
+        // buttons; the activity handles them.
+        setFocusable(true);
+        setFocusableInTouchMode(true);
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+
+        int thin = mBoard.dp2px(THIN_DIVIDER_DP);
+        int thick = mBoard.dp2px(THICK_DIVIDER_DP);
+
+        mFrame = mBoard.dp2px(FRAME_DP);
+        mCellWidth = layoutCells(mCellLeft, w, thin, thick);
+        mCellHeight = layoutCells(mCellTop, h, thin, thick);
+
+        mTextPaint.setTextSize(Math.min(mCellWidth, mCellHeight) * TEXT_SCALE);
+        mTextOffset = -(mTextPaint.ascent() + mTextPaint.descent()) / 2;
+    }
+
+    /**
+     * Works out the positions of the cells along one side of the board.
+     *
+     * @param starts array to set the start of each cell in.
+     * @param size   the size of the side of the board.
+     * @param thin   size of the dividers between cells.
+     * @param thick  size of the dividers between blocks.
+     * @return the size of each cell.
+     */
+    private float layoutCells(float[] starts, int size, int thin, int thick) {
+        float cellSize = (size - (2 * mFrame) - (6 * thin) - (2 * thick)) / 9f;
+        float pos = mFrame;
+
+        for (int i = 0; i < 9; i++) {
+            starts[i] = pos;
+            pos += cellSize + ((i == 2 || i == 5) ? thick : thin);
+        }
+
+        return cellSize;
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        CellPalette palette = mBoard.getPalette();
+        SudokuCell cell;
+        float left, top;
+
+        super.onDraw(canvas);
+
+        // The frame and dividers are what shows between the cells.
+        canvas.drawColor(palette.boardFrame);
+
+        mFillPaint.setColor(palette.boardDivider);
+        canvas.drawRect(mFrame, mFrame, getWidth() - mFrame, getHeight() - mFrame, mFillPaint);
+
+        for (int y = 0; y < 9; y++) {
+            top = mCellTop[y];
+
+            for (int x = 0; x < 9; x++) {
+                left = mCellLeft[x];
+                cell = mBoard.getCell(x, y);
+
+                mFillPaint.setColor(cell.getBackgroundColour(palette));
+                canvas.drawRect(left, top, left + mCellWidth, top + mCellHeight, mFillPaint);
+
+                mTextPaint.setColor(cell.getForegroundColour(palette));
+                canvas.drawText(cell.getText(), left + (mCellWidth / 2), top + (mCellHeight / 2) + mTextOffset, mTextPaint);
+            }
+        }
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        if (!mBoard.isEditing()) {
+            return super.onTouchEvent(event);
+        }
+
+        if (event.getActionMasked() == MotionEvent.ACTION_UP) {
+            mBoard.setSelectedCell(cellAt(event.getX(), event.getY()));
+            performClick();
+        }
+
+        return true;
+    }
+
+    @Override
+    public boolean performClick() {
+        return super.performClick();
+    }
+
+    /**
+     * Finds the cell at a point on the view. A point on a divider or the frame finds the nearest
+     * cell.
+     *
+     * @param x position across the view.
+     * @param y position down the view.
+     * @return the cell.
+     */
+    SudokuCell cellAt(float x, float y) {
+        return mBoard.getCell(indexAt(x, getWidth()), indexAt(y, getHeight()));
+    }
+
+    private int indexAt(float pos, int size) {
+        int index = (int) ((pos - mFrame) * 9 / (size - (2 * mFrame)));
+
+        return (index < 0) ? 0 : ((index > 8) ? 8 : index);
+    }
+}
@@ -0,0 +1,68 @@
+package me.marcsymonds.sudokusolver;
+
+import android.content.Context;
+import android.graphics.Color;
+import android.support.v4.content.ContextCompat;
+
+/**
+ * The colours and text used to draw the board and its cells.
+ * <p>
+ * The colours are looked up from the resources when the palette is loaded, rather than each time
+ * a cell is drawn, and the text for each number is kept, so drawing a cell doesn't allocate
+ * anything. The palette should be loaded again if the configuration changes.
+ */
+class CellPalette {
+    /**
+     * Text shown for each number; index 0 is an empty cell
+     */
+    private static final String[] NUMBER_TEXT = {" ", "1", "2", "3", "4", "5", "6", "7", "8", "9"};
+
+    int boardFrame;
+    int boardDivider;
+
+    int cellInvisible;
+    int cellNormal;
+    int cellCalculated;
+    int cellEdit;
+    int cellError;
+
+    int numberInvisible;
+    int numberNormal;
+    int numberCalculated;
+    int numberError;
+
+    CellPalette(Context context) {
+        load(context);
+    }
+
+    /**
+     * Looks up the colours from the resources.
+     *
+     * @param context context to get the resources from.
+     */
+    void load(Context context) {
+        boardFrame = ContextCompat.getColor(context, R.color.boardFrame);
+        boardDivider = ContextCompat.getColor(context, R.color.boardDivider);
+
+        cellInvisible = ContextCompat.getColor(context, R.color.cellInvisible);
+        cellNormal = ContextCompat.getColor(context, R.color.cellNormal);
+        cellCalculated = ContextCompat.getColor(context, R.color.cellCalculated);
+        cellEdit = ContextCompat.getColor(context, R.color.cellEdit);
+        cellError = ContextCompat.getColor(context, R.color.cellError);
+
+        numberInvisible = Color.BLACK;
+        numberNormal = ContextCompat.getColor(context, R.color.numberNormal);
+        numberCalculated = ContextCompat.getColor(context, R.color.numberCalculated);
+        numberError = ContextCompat.getColor(context, R.color.numberError);
+    }
+
+    /**
+     * Get the text to show for a number.
+     *
+     * @param number the number (1-9), or 0 for nothing.
+     * @return the text.
+     */
+    static String textOf(int number) {
+        return NUMBER_TEXT[number];
+    }
+}
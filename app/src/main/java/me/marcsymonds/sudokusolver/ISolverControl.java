@@ -1,5 +1,7 @@
 package me.marcsymonds.sudokusolver;
 
+import me.marcsymonds.sudokusolver.core.SolverState;
+
 /**
  *
  */
@@ -3,11 +3,14 @@ package me.marcsymonds.sudokusolver;
 import android.app.AlertDialog;
 import android.content.DialogInterface;
 import android.content.SharedPreferences;
+import android.content.res.Configuration;
 import android.os.Bundle;
 import android.support.v4.content.ContextCompat;
 import android.support.v7.app.AppCompatActivity;
 import android.support.v7.widget.Toolbar;
+import android.util.Base64;
 import android.util.Log;
+import android.view.KeyEvent;
 import android.view.Menu;
 import android.view.MenuItem;
 import android.view.View;
@@ -19,13 +22,24 @@ import android.widget.ViewSwitcher;
 import java.util.ArrayList;
 import java.util.Random;
 
+import me.marcsymonds.sudokusolver.core.SavedDataReader;
+import me.marcsymonds.sudokusolver.core.SnapshotReader;
+import me.marcsymonds.sudokusolver.core.SolverEngineType;
+import me.marcsymonds.sudokusolver.core.SolverState;
+
 public class MainActivity extends AppCompatActivity implements ISolverControl {
     final private static String TAG = MainActivity.class.getSimpleName();
 
+    final private String SAVE_BOARD_SNAPSHOT = "BoardSnapshot";
+    final private String SAVE_EDIT_BOARD_SNAPSHOT = "EditBoardSnapshot";
+    final private String SAVE_SOLVER_SNAPSHOT = "SolverSnapshot";
+    final private String SAVE_SOLVER_RUN_STATE = "SolverRunState";
+    final private String SAVE_SOLVER_ENGINE = "SolverEngine";
+
+    // Data saved as strings, before snapshots were used; only read so that it can be converted.
     final private String SAVE_BOARD_DATA = "BoardData";
     final private String SAVE_EDIT_BOARD_DATA = "EditBoardData";
-    final private String SAVE_SOLVER_RUN_STATE = "SolverRunState";
-    final private String SAVE_SOLVER_DATA = "SolverData";
+    final private String SAVE_SOLVER_DATA = "SolverEngineData";
     final private String SAVE_SOLVED_CELL_LIST = "SolvedCells";
 
     private SudokuBoard mSudokuBoard = null;
@@ -33,10 +47,11 @@ public class MainActivity extends AppCompatActivity implements ISolverControl {
     private Solver mBoardSolver = null;
     private ArrayList<SudokuCell> mSolvedCellList = null;
 
-    private String mBoardSaveData = null;
-    private String mEditSaveData = null;
-    private String mSolverSaveData = null;
+    private byte[] mBoardSaveData = null;
+    private byte[] mEditSaveData = null;
+    private byte[] mSolverSaveData = null;
     private SolverState mSolverRunState = SolverState.NOT_RUNNING;
+    private SolverEngineType mSolverEngineType = SolverEngineType.BACKTRACKING;
     private String mSolvedCellListData = null;
 
     MainActivity() {
@@ -74,15 +89,15 @@ public class MainActivity extends AppCompatActivity implements ISolverControl {
 
         Log.d(TAG, "onStart");
         Log.d(TAG, String.format("- Has Board Data: %s",
-                (mBoardSaveData == null ? "NO" : mBoardSaveData)
+                (mBoardSaveData == null ? "NO" : mBoardSaveData.length + " bytes")
         ));
 
         Log.d(TAG, String.format("- Has Edit Data: %s",
-                (mEditSaveData == null ? "NO" : mEditSaveData)
+                (mEditSaveData == null ? "NO" : mEditSaveData.length + " bytes")
         ));
 
         Log.d(TAG, String.format("- Has Solver Data: %s",
-                (mSolverSaveData == null ? "NO" : mSolverSaveData)
+                (mSolverSaveData == null ? "NO" : mSolverSaveData.length + " bytes")
         ));
 
         Log.d(TAG, String.format("- Has Solved Cell List: %s",
@@ -113,25 +128,21 @@ public class MainActivity extends AppCompatActivity implements ISolverControl {
         SharedPreferences prefs = getPreferences(MODE_PRIVATE);
 
         // Get the data that was saved prior to the app being destroyed.
-        mBoardSaveData = prefs.getString(SAVE_BOARD_DATA, null);
-        if (mBoardSaveData != null) {
-            Log.d(TAG, String.format("Restoring: %s=%s", SAVE_BOARD_DATA, mBoardSaveData));
-        } else
-            Log.d(TAG, String.format("No %s", SAVE_BOARD_DATA));
+        mBoardSaveData = getSnapshot(prefs, SAVE_BOARD_SNAPSHOT);
 
         // Get the data that was saved prior to starting an edit - if we were editing the board.
-        mEditSaveData = prefs.getString(SAVE_EDIT_BOARD_DATA, null);
-        if (mEditSaveData != null) {
-            Log.d(TAG, String.format("Restoring: %s=%s", SAVE_EDIT_BOARD_DATA, mEditSaveData));
-        } else
-            Log.d(TAG, String.format("No %s", SAVE_EDIT_BOARD_DATA));
+        mEditSaveData = getSnapshot(prefs, SAVE_EDIT_BOARD_SNAPSHOT);
 
         // Get the saved data for the solver.
-        mSolverSaveData = prefs.getString(SAVE_SOLVER_DATA, null);
-        if (mSolverSaveData != null) {
-            Log.d(TAG, String.format("Restoring: %s=%s", SAVE_SOLVER_DATA, mSolverSaveData));
-        } else
-            Log.d(TAG, String.format("No %s", SAVE_SOLVER_DATA));
+        mSolverSaveData = getSnapshot(prefs, SAVE_SOLVER_SNAPSHOT);
+
+        // Data saved by an older version of the app, as strings. The edit data was never
+        // restored, so it is dropped.
+        String legacyBoardData = (mBoardSaveData == null) ? prefs.getString(SAVE_BOARD_DATA, null) : null;
+        String legacySolverData = (mSolverSaveData == null) ? prefs.getString(SAVE_SOLVER_DATA, null) : null;
+
+        mSolverEngineType = SolverEngineType.fromInteger(prefs.getInt(SAVE_SOLVER_ENGINE, SolverEngineType.BACKTRACKING.toInteger()));
+        Log.d(TAG, String.format("Restoring: %s=%s", SAVE_SOLVER_ENGINE, mSolverEngineType.toString()));
 
         mSolverRunState = SolverState.fromInteger(prefs.getInt(SAVE_SOLVER_RUN_STATE, SolverState.NOT_RUNNING.toInteger()));
         Log.d(TAG, String.format("Restoring: %s=%d (%s)", SAVE_SOLVER_RUN_STATE, mSolverRunState.toInteger(), mSolverRunState.toString()));
@@ -143,12 +154,26 @@ public class MainActivity extends AppCompatActivity implements ISolverControl {
 
         // Restore the state of the application.
 
-        if (mBoardSaveData != null) {
+        if (mBoardSaveData != null || legacyBoardData != null) {
             Log.d(TAG, "Begin Update");
             mSudokuBoard.beginUpdate();
 
             // Restore the data to the board and cells.
-            mSudokuBoard.restoreSavedData(mBoardSaveData);
+            try {
+                if (mBoardSaveData != null) {
+                    mSudokuBoard.restoreSnapshot(mBoardSaveData);
+                } else {
+                    Log.d(TAG, "Converting board data to a snapshot");
+                    mSudokuBoard.restoreSavedData(legacyBoardData, true);
+                    mBoardSaveData = mSudokuBoard.getSnapshot();
+                }
+            } catch (RuntimeException e) {
+                Log.e(TAG, "Could not restore the board", e);
+                mSudokuBoard.clearBoard();
+                mBoardSaveData = null;
+                mSolverSaveData = null;
+                legacySolverData = null;
+            }
 
             Log.d(TAG, "End Update");
             mSudokuBoard.endUpdate(true); // Redraws the board.
@@ -158,12 +183,23 @@ public class MainActivity extends AppCompatActivity implements ISolverControl {
 
         // Restore the solver.
 
-        if (mSolverSaveData != null) {
-            Log.d(TAG, String.format("Restoring solver data: %s, %s", mSolverRunState.toString(), mSolverSaveData));
+        if (mSolverSaveData != null || legacySolverData != null) {
+            Log.d(TAG, String.format("Restoring solver data: %s", mSolverRunState.toString()));
 
-            mBoardSolver = new Solver(this, mSudokuBoard, new SavedDataReader(mSolverSaveData));
+            try {
+                if (mSolverSaveData != null) {
+                    mBoardSolver = new Solver(this, mSudokuBoard, new SnapshotReader(mSolverSaveData));
+                } else {
+                    mBoardSolver = new Solver(this, mSudokuBoard, new SavedDataReader(legacySolverData));
+                }
+            } catch (RuntimeException e) {
+                Log.e(TAG, "Could not restore the solver", e);
+                mBoardSolver = null;
+            }
             mSolverSaveData = null;
+        }
 
+        if (mBoardSolver != null) {
             // If the solver was paused mid-solving, then restart it.
             if (!mBoardSolver.isCompleted()) {
                 Log.d(TAG, "Restarting solver");
@@ -171,7 +207,11 @@ public class MainActivity extends AppCompatActivity implements ISolverControl {
             }
         }
 
-        if (mSolverRunState == SolverState.PAUSED) {
+        if (mSolverRunState == SolverState.PAUSED && mBoardSolver == null) {
+            // The solver was paused, but its data couldn't be restored, so start solving again.
+            Log.d(TAG, "No solver data; restarting solver");
+            solverStart(false);
+        } else if (mSolverRunState == SolverState.PAUSED) {
             solverProgressIndicator(true, SolverProgressTextIndication.SOLVING);
         } else if (mSolverRunState == SolverState.FINISHED_SUCCESS) {
             solverProgressIndicator(false, SolverProgressTextIndication.SOLVED);
@@ -204,6 +244,8 @@ public class MainActivity extends AppCompatActivity implements ISolverControl {
     protected void onPause() {
         super.onPause();
 
+        Solver.Checkpoint checkpoint = null;
+
         Log.d(TAG, "onPause");
 
         // Application is pausing, so need to pause the Solver.
@@ -217,12 +259,14 @@ public class MainActivity extends AppCompatActivity implements ISolverControl {
         } else {
             Log.d(TAG, "Stopping solver");
             mBoardSolver.pause();
-            mBoardSolver.waitForCompletion();
 
-            Log.d(TAG, "Getting solver state...");
-            mSolverRunState = mBoardSolver.getRunState();
-            mSolverSaveData = mBoardSolver.getSaveData();
-            Log.d(TAG, String.format("Got solver saved data: %s, %s", mSolverRunState.toString(), mSolverSaveData));
+            // Don't wait for the solver to stop; save its latest checkpoint instead. The board is
+            // saved with the model from the same checkpoint, so the two match when restored.
+            checkpoint = mBoardSolver.getCheckpoint();
+            mSolverRunState = checkpoint.isCompleted() ? checkpoint.getRunState() : SolverState.PAUSED;
+            mSolverSaveData = checkpoint.getSnapshot();
+            Log.d(TAG, String.format("Got solver checkpoint: %s, %s", mSolverRunState.toString(),
+                    (mSolverSaveData == null ? "not started" : mSolverSaveData.length + " bytes")));
             mBoardSolver = null;
         }
 
@@ -232,22 +276,30 @@ public class MainActivity extends AppCompatActivity implements ISolverControl {
         SharedPreferences.Editor prefsEditor = prefs.edit();
 
         // Save the current state of the board.
-        String boardData = mSudokuBoard.getSaveData();
-        Log.d(TAG, String.format("Saving: %s=%s", SAVE_BOARD_DATA, boardData));
-        prefsEditor.putString(SAVE_BOARD_DATA, boardData);
+        if (checkpoint != null) {
+            putSnapshot(prefsEditor, SAVE_BOARD_SNAPSHOT, mSudokuBoard.getSnapshot(checkpoint.getModel()));
+        } else {
+            putSnapshot(prefsEditor, SAVE_BOARD_SNAPSHOT, mSudokuBoard.getSnapshot());
+        }
 
         // Save the state of the board before editing started.
-        Log.d(TAG, String.format("Saving: %s=%s", SAVE_EDIT_BOARD_DATA, (mEditSaveData == null ? "NULL" : mEditSaveData)));
-        prefsEditor.putString(SAVE_EDIT_BOARD_DATA, mEditSaveData);
+        putSnapshot(prefsEditor, SAVE_EDIT_BOARD_SNAPSHOT, mEditSaveData);
 
         // Save the state of the solver.
-        Log.d(TAG, String.format("Saving: %s=%s", SAVE_SOLVER_DATA, (mSolverSaveData == null ? "NULL" : mSolverSaveData)));
-        prefsEditor.putString(SAVE_SOLVER_DATA, mSolverSaveData);
+        putSnapshot(prefsEditor, SAVE_SOLVER_SNAPSHOT, mSolverSaveData);
+
+        // Anything saved by an older version has now been converted.
+        prefsEditor.remove(SAVE_BOARD_DATA);
+        prefsEditor.remove(SAVE_EDIT_BOARD_DATA);
+        prefsEditor.remove(SAVE_SOLVER_DATA);
 
         // Save the run state of the solver.
         Log.d(TAG, String.format("Saving: %s=%d (%s)", SAVE_SOLVER_RUN_STATE, mSolverRunState.toInteger(), mSolverRunState.toString()));
         prefsEditor.putInt(SAVE_SOLVER_RUN_STATE, mSolverRunState.toInteger());
 
+        // Save the engine chosen to solve the board.
+        prefsEditor.putInt(SAVE_SOLVER_ENGINE, mSolverEngineType.toInteger());
+
         // If the board had been solved, then save a list of the solved cells that still need to be
         // shown.
         if (mSolvedCellList != null && mSolvedCellList.size() > 0) {
@@ -265,6 +317,43 @@ public class MainActivity extends AppCompatActivity implements ISolverControl {
         prefsEditor.commit(); //.apply();
     }
 
+    /**
+     * Get a snapshot that was saved in the preferences.
+     *
+     * @return the snapshot, or null if there isn't one.
+     */
+    private byte[] getSnapshot(SharedPreferences prefs, String key) {
+        String data = prefs.getString(key, null);
+
+        if (data == null) {
+            Log.d(TAG, String.format("No %s", key));
+            return null;
+        }
+
+        Log.d(TAG, String.format("Restoring: %s (%d characters)", key, data.length()));
+
+        try {
+            return Base64.decode(data, Base64.NO_WRAP);
+        } catch (IllegalArgumentException e) {
+            Log.e(TAG, String.format("%s is not valid", key), e);
+            return null;
+        }
+    }
+
+    /**
+     * Saves a snapshot in the preferences; as Base64, because the preferences can only hold
+     * strings.
+     */
+    private void putSnapshot(SharedPreferences.Editor prefsEditor, String key, byte[] snapshot) {
+        if (snapshot == null) {
+            Log.d(TAG, String.format("Saving: %s=NULL", key));
+            prefsEditor.remove(key);
+        } else {
+            Log.d(TAG, String.format("Saving: %s (%d bytes)", key, snapshot.length));
+            prefsEditor.putString(key, Base64.encodeToString(snapshot, Base64.NO_WRAP));
+        }
+    }
+
     @Override
     protected void onStop() {
         super.onStop();
@@ -279,6 +368,18 @@ public class MainActivity extends AppCompatActivity implements ISolverControl {
         Log.d(TAG, "onDestroy");
     }
 
+    @Override
+    public void onConfigurationChanged(Configuration newConfig) {
+        super.onConfigurationChanged(newConfig);
+
+        Log.d(TAG, "onConfigurationChanged");
+
+        // The colours may depend on the configuration.
+        if (mSudokuBoard != null) {
+            mSudokuBoard.reloadPalette();
+        }
+    }
+
     @Override
     protected void onSaveInstanceState(Bundle outState) {
         super.onSaveInstanceState(outState); // Moved from end of function.
@@ -296,6 +397,18 @@ public class MainActivity extends AppCompatActivity implements ISolverControl {
         return true;
     }
 
+    @Override
+    public boolean onPrepareOptionsMenu(Menu menu) {
+        // Tick the engine that will be used to solve the board.
+        if (mSolverEngineType == SolverEngineType.DANCING_LINKS) {
+            menu.findItem(R.id.action_engine_dancing_links).setChecked(true);
+        } else {
+            menu.findItem(R.id.action_engine_backtracking).setChecked(true);
+        }
+
+        return super.onPrepareOptionsMenu(menu);
+    }
+
     @Override
     public boolean onOptionsItemSelected(MenuItem item) {
         // Handle action bar item clicks here. The action bar will
@@ -303,10 +416,16 @@ public class MainActivity extends AppCompatActivity implements ISolverControl {
         // as you specify a parent activity in AndroidManifest.xml.
         int id = item.getItemId();
 
-        //noinspection SimplifiableIfStatement
-        //if (id == R.id.action_settings) {
-//            return true;
-//        }
+        // The chosen engine is used the next time the solver is started.
+        if (id == R.id.action_engine_backtracking) {
+            mSolverEngineType = SolverEngineType.BACKTRACKING;
+            item.setChecked(true);
+            return true;
+        } else if (id == R.id.action_engine_dancing_links) {
+            mSolverEngineType = SolverEngineType.DANCING_LINKS;
+            item.setChecked(true);
+            return true;
+        }
 
         return super.onOptionsItemSelected(item);
     }
@@ -354,11 +473,17 @@ public class MainActivity extends AppCompatActivity implements ISolverControl {
     /********************************************************************************/
     /* Solver control */
 
-    void solverStart() {
+    /**
+     * Starts solving the board.
+     *
+     * @param checkUniqueness whether to check the puzzle only has one solution, and tell the user
+     *                        if it doesn't, once it has been solved.
+     */
+    void solverStart(boolean checkUniqueness) {
         solverProgressIndicator(true, SolverProgressTextIndication.SOLVING);
 
         mSudokuBoard.prepareBoardForSolving();
-        mBoardSaveData = mSudokuBoard.getSaveData();
+        mBoardSaveData = mSudokuBoard.getSnapshot();
 
         if (mSolvedCellList != null) {
             mSolvedCellList.clear();
@@ -366,7 +491,8 @@ public class MainActivity extends AppCompatActivity implements ISolverControl {
         }
         mSolvedCellListData = null;
 
-        mBoardSolver = new Solver(this, mSudokuBoard);
+        mBoardSolver = new Solver(this, mSudokuBoard, mSolverEngineType);
+        mBoardSolver.setCheckUniqueness(checkUniqueness);
         mBoardSolver.execute(mSudokuBoard);
     }
 
@@ -380,8 +506,7 @@ public class MainActivity extends AppCompatActivity implements ISolverControl {
                 cancelled = mBoardSolver.pause();
             }
 
-            Log.d(TAG, "Stopping solver; Waiting for task to complete");
-            mBoardSolver.waitForCompletion();
+            Log.d(TAG, "Stopping solver");
 
             if (cancelled) {
                 mBoardSolver = null;
@@ -397,6 +522,11 @@ public class MainActivity extends AppCompatActivity implements ISolverControl {
 
     @Override
     public void solverCompleted(Solver solver, SolverState state) {
+        // A solver which was stopped may still finish before it notices; ignore it.
+        if (solver != mBoardSolver) {
+            return;
+        }
+
         if (state == SolverState.FINISHED_SUCCESS) {
             solverProgressIndicator(false, SolverProgressTextIndication.SOLVED);
             mSudokuBoard.redrawBoard();
@@ -406,6 +536,15 @@ public class MainActivity extends AppCompatActivity implements ISolverControl {
             mSolverRunState = state;
 
             setShowButtonsState(true);
+
+            if (solver.hasMultipleSolutions()) {
+                AlertDialog.Builder msg = new AlertDialog.Builder(this);
+                msg
+                        .setTitle("More Than One Solution")
+                        .setMessage("The board has more than one solution; only one of them is shown.")
+                        .setNegativeButton("OK", null)
+                        .show();
+            }
         } else if (state == SolverState.FINISHED_FAILED) {
             solverProgressIndicator(false, SolverProgressTextIndication.COULD_NOT_SOLVE);
             setShowButtonsState(false);
@@ -477,7 +616,7 @@ public class MainActivity extends AppCompatActivity implements ISolverControl {
         mKeyboardSwitcher.showNext();
 
         // Save the current board state, in case the user cancels later.
-        mBoardSaveData = mSudokuBoard.getSaveData();
+        mBoardSaveData = mSudokuBoard.getSnapshot();
         mSudokuBoard.startEdit();
     }
 
@@ -487,14 +626,64 @@ public class MainActivity extends AppCompatActivity implements ISolverControl {
      * @param v the Button that was pressed.
      */
     public void editNumberClick(View v) {
-        int number = Integer.parseInt(v.getTag().toString());
+        enterNumber(Integer.parseInt(v.getTag().toString()));
+    }
 
+    /**
+     * Sets the number in the selected cell and, if the board is still valid, moves on to the
+     * next cell.
+     *
+     * @param number the number to set, or 0 to clear the cell.
+     */
+    private void enterNumber(int number) {
         mSudokuBoard.setSelectedCellNumber(number);
         if (mSudokuBoard.validateBoard()) {
             mSudokuBoard.moveSelectedCellToNext();
         }
     }
 
+    /**
+     * Handles a keyboard or d-pad while editing, so that a whole puzzle can be entered without
+     * touching the screen.
+     * <p>
+     * The arrow keys move the selected cell; TAB moves to the next cell (or the previous with
+     * shift); 1-9 set the number in the cell and move on, as the number buttons do; 0, SPACE and
+     * forward delete clear the cell and move on; backspace moves back and clears that cell.
+     */
+    @Override
+    public boolean onKeyDown(int keyCode, KeyEvent event) {
+        if (mSudokuBoard == null || !mSudokuBoard.isEditing()) {
+            return super.onKeyDown(keyCode, event);
+        }
+
+        if (keyCode == KeyEvent.KEYCODE_DPAD_LEFT) {
+            mSudokuBoard.moveSelectedCell(-1);
+        } else if (keyCode == KeyEvent.KEYCODE_DPAD_RIGHT) {
+            mSudokuBoard.moveSelectedCell(1);
+        } else if (keyCode == KeyEvent.KEYCODE_DPAD_UP) {
+            mSudokuBoard.moveSelectedCellVertically(-1);
+        } else if (keyCode == KeyEvent.KEYCODE_DPAD_DOWN) {
+            mSudokuBoard.moveSelectedCellVertically(1);
+        } else if (keyCode == KeyEvent.KEYCODE_TAB) {
+            mSudokuBoard.moveSelectedCell(event.isShiftPressed() ? -1 : 1);
+        } else if (keyCode >= KeyEvent.KEYCODE_1 && keyCode <= KeyEvent.KEYCODE_9) {
+            enterNumber(keyCode - KeyEvent.KEYCODE_0);
+        } else if (keyCode >= KeyEvent.KEYCODE_NUMPAD_1 && keyCode <= KeyEvent.KEYCODE_NUMPAD_9) {
+            enterNumber(keyCode - KeyEvent.KEYCODE_NUMPAD_0);
+        } else if (keyCode == KeyEvent.KEYCODE_0 || keyCode == KeyEvent.KEYCODE_NUMPAD_0
+                || keyCode == KeyEvent.KEYCODE_SPACE || keyCode == KeyEvent.KEYCODE_FORWARD_DEL) {
+            enterNumber(0);
+        } else if (keyCode == KeyEvent.KEYCODE_DEL) {
+            mSudokuBoard.moveSelectedCell(-1);
+            mSudokuBoard.setSelectedCellNumber(0);
+            mSudokuBoard.validateBoard();
+        } else {
+            return super.onKeyDown(keyCode, event);
+        }
+
+        return true;
+    }
+
     /**
      * Handles the pressing of the "Clear Board" button.
      *
@@ -533,7 +722,7 @@ public class MainActivity extends AppCompatActivity implements ISolverControl {
      */
     public void editCancelClick(View v) {
         mSudokuBoard.endEdit();
-        mSudokuBoard.restoreSavedData(mBoardSaveData, false);
+        mSudokuBoard.restoreSnapshot(mBoardSaveData, false);
         mSudokuBoard.redrawBoard();
 
         ViewSwitcher vs = (ViewSwitcher) findViewById(R.id.vwsKeySwitcher);
@@ -544,7 +733,8 @@ public class MainActivity extends AppCompatActivity implements ISolverControl {
      * Handles the "Accept" edit button.
      * <p>
      * Checks if the edited board is valid, and if not informs the user. Otherwise, stops the
-     * editing of the board, resets the solve parameters and switches back to the main buttons.
+     * editing of the board, warns the user if the board has more than one solution, resets the
+     * solve parameters and switches back to the main buttons.
      *
      * @param v the Button that was pressed.
      */
@@ -560,13 +750,15 @@ public class MainActivity extends AppCompatActivity implements ISolverControl {
         } else {
             mSudokuBoard.endEdit();
 
-            mEditSaveData = mSudokuBoard.getSaveData();
+            mEditSaveData = mSudokuBoard.getSnapshot();
 
             // Switch back to the primary buttons.
             ViewSwitcher vs = (ViewSwitcher) findViewById(R.id.vwsKeySwitcher);
             vs.showPrevious();
 
-            solverStart();
+            // A proper puzzle only has one solution; the solver checks this in the background, and
+            // will still find one of them.
+            solverStart(true);
         }
     }
 }
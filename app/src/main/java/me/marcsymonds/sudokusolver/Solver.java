@@ -4,106 +4,227 @@ import android.os.AsyncTask;
 import android.util.Log;
 
 import java.util.ArrayList;
-import java.util.concurrent.locks.ReentrantLock;
+
+import me.marcsymonds.sudokusolver.core.BacktrackingSolver;
+import me.marcsymonds.sudokusolver.core.BoardDiff;
+import me.marcsymonds.sudokusolver.core.BoardModel;
+import me.marcsymonds.sudokusolver.core.SavedDataReader;
+import me.marcsymonds.sudokusolver.core.SolutionCache;
+import me.marcsymonds.sudokusolver.core.SolverEngine;
+import me.marcsymonds.sudokusolver.core.SolverEngineType;
+import me.marcsymonds.sudokusolver.core.SolverMetrics;
+import me.marcsymonds.sudokusolver.core.SnapshotReader;
+import me.marcsymonds.sudokusolver.core.SnapshotWriter;
+import me.marcsymonds.sudokusolver.core.SolverState;
 
 /**
  * Attempts to solve the Sudoku mBoard.
  * <p>
  * Uses AsyncTask to run the solver on a separate thread to the main UI, allowing the main UI
- * to remain responsive.
+ * to remain responsive. The solving itself is done by one of the solver engines.
+ * <p>
+ * The engine works on its own copy of the board's model, so the background thread never
+ * touches anything the UI thread uses. Between each run of the engine (a point where the
+ * engine's state is consistent), the solver publishes a checkpoint: a copy of the model and a
+ * snapshot of the engine. The board is updated from the latest checkpoint on the UI thread, and
+ * pausing just takes the latest checkpoint rather than waiting for the background thread to stop.
  */
-class Solver extends AsyncTask<SudokuBoard, SudokuCell, Boolean> {
+class Solver extends AsyncTask<SudokuBoard, int[], Boolean> {
+    /**
+     * Number of iterations the solver runs between each check for being cancelled, or for it
+     * being time to show progress
+     */
+    final private static int PROGRESS_ITERATIONS = 500;
+
+    /**
+     * Minimum time between each progress update (30 per second), in nanoseconds
+     */
+    final private static long PROGRESS_INTERVAL_NANOS = 1000000000L / 30;
+
+    /**
+     * Solutions of the puzzles solved while the app is running, shared by every solver
+     */
+    final private static SolutionCache SOLUTION_CACHE = new SolutionCache(256 * 1024);
+
     final private String TAG = Solver.class.getSimpleName();
-    final private ReentrantLock mCompletionLock = new ReentrantLock();
-    private ArrayList<SolveCell> mCellsToSolve = new ArrayList<>();
-    private int mCellsToSolveCount = 0;
-    private int mSolveCellIdx = 0;
+    private SolverEngineType mEngineType;
+    private SolverEngine mEngine;
+    private final SolverMetrics mMetrics = new SolverMetrics();
     private SudokuBoard mBoard = null;
-    private SolverState mRunState = SolverState.NOT_RUNNING;
+    private final BoardModel mWorkModel = new BoardModel();
+    private volatile SolverState mRunState = SolverState.NOT_RUNNING;
     private ISolverControl mController;
-    private boolean mPaused = false;
+    private volatile boolean mPaused = false;
     private boolean mRestored = false;
     private boolean mCompleted = false;
 
+    // The puzzle being solved, for the solution cache; null if the solver was restored.
+    private String mPuzzle = null;
+
+    // Whether to check that the puzzle only has one solution before solving it, and the result.
+    private boolean mCheckUniqueness = false;
+    private boolean mMultipleSolutions = false;
+
+    // The latest checkpoint, and the writer used to create them on the background thread.
+    private volatile Checkpoint mCheckpoint;
+    private final SnapshotWriter mCheckpointWriter = new SnapshotWriter();
+
+    // Works out the cells changed since the last progress update, and when that was.
+    private BoardDiff mProgressDiff;
+    private long mLastProgressTime;
+
+    /**
+     * A consistent copy of the state of the solver, which the UI thread can use while the
+     * solver carries on.
+     */
+    static class Checkpoint {
+        private final BoardModel mModel;
+        private final byte[] mSnapshot;
+        private final SolverState mRunState;
+        private final boolean mCompleted;
+
+        Checkpoint(BoardModel model, byte[] snapshot, SolverState runState, boolean completed) {
+            mModel = model;
+            mSnapshot = snapshot;
+            mRunState = runState;
+            mCompleted = completed;
+        }
+
+        /**
+         * Get the board's model as it was at the checkpoint. This must not be changed.
+         */
+        BoardModel getModel() {
+            return mModel;
+        }
+
+        /**
+         * Get the snapshot of the solver and its engine, which can be restored on to a board
+         * restored with the model from the same checkpoint.
+         *
+         * @return the snapshot, or null if the solver hadn't started.
+         */
+        byte[] getSnapshot() {
+            return mSnapshot;
+        }
+
+        SolverState getRunState() {
+            return mRunState;
+        }
+
+        boolean isCompleted() {
+            return mCompleted;
+        }
+    }
+
     /**
      * Constructor.
      *
      * @param controller the object (MainActivity) that instantiated this object. When the
      *                   background process completes, either the "solveCompleted" or
      *                   "solverCancelled" methods will be called on the mController.
+     * @param engineType the engine to solve the board with.
      */
-    Solver(ISolverControl controller, SudokuBoard board) {
+    Solver(ISolverControl controller, SudokuBoard board, SolverEngineType engineType) {
         mController = controller;
         mBoard = board;
+        mEngineType = engineType;
+        mWorkModel.copyFrom(board.getModel());
+        mPuzzle = mWorkModel.getPuzzleString();
+        mEngine = engineType.createEngine(mWorkModel);
+        mEngine.setMetrics(mMetrics);
+        mProgressDiff = new BoardDiff(mWorkModel);
+
+        // Nothing to restore until the engine has started.
+        mCheckpoint = new Checkpoint(copyWorkModel(), null, mRunState, false);
     }
 
     /**
      * Constructor for use when we want to restore the current state of the solver.
      *
      * @param controller the object (MainActivity) that instantiated this object.
+     * @param reader     SnapshotReader object to restore the state of the solver from. The board
+     *                   must already have been restored from the same checkpoint.
+     */
+    Solver(ISolverControl controller, SudokuBoard board, SnapshotReader reader) {
+        mController = controller;
+        mBoard = board;
+        mWorkModel.copyFrom(board.getModel());
+
+        readSnapshot(reader);
+        mRestored = true;
+        mProgressDiff = new BoardDiff(mWorkModel);
+
+        publishCheckpoint();
+    }
+
+    /**
+     * Constructor for restoring the solver from data saved in the format used before snapshots.
+     *
+     * @param controller the object (MainActivity) that instantiated this object.
      * @param dataReader SavedDataReader object to restore the state of the solver from.
      */
     Solver(ISolverControl controller, SudokuBoard board, SavedDataReader dataReader) {
         mController = controller;
         mBoard = board;
+        mWorkModel.copyFrom(board.getModel());
 
         restoreSavedData(dataReader);
         mRestored = true;
+        mProgressDiff = new BoardDiff(mWorkModel);
+
+        publishCheckpoint();
+    }
+
+    /**
+     * Sets whether to check that the puzzle only has one solution before solving it; see
+     * hasMultipleSolutions(). Must be set before the solver is executed.
+     */
+    void setCheckUniqueness(boolean checkUniqueness) {
+        mCheckUniqueness = checkUniqueness;
+    }
+
+    /**
+     * Get whether the puzzle was found to have more than one solution. Only valid once the
+     * solver has completed, and only checked if setCheckUniqueness() was set.
+     */
+    boolean hasMultipleSolutions() {
+        return mMultipleSolutions;
     }
 
     @Override
     protected Boolean doInBackground(SudokuBoard... boards) {
-        SudokuCell cell = null;
-        SolveCell solveCell;
-        int number = 0;
-        int updCount = 0;
-        boolean gotNext;
-
-        mCompletionLock.lock();
+        SolverState engineState;
+        long now;
+        int[] changes;
+        int solutions = -1;
 
         mRunState = SolverState.RUNNING;
-
-        //mBoard = boards[0];
-
-        // Build a list of cells that need to be calculated. This should make it easier to go
-        // through the cells rather than check for fixed numbers every time.
+        mLastProgressTime = System.nanoTime();
 
         if (!mRestored) {
-            for (SudokuCell scan : mBoard) {
-                if (!scan.isFixed()) {
-                    mCellsToSolve.add(new SolveCell(scan));
-                    scan.getAvailable();
-                }
+            if (mCheckUniqueness) {
+                solutions = countSolutions(2);
+                mMultipleSolutions = (solutions > 1);
             }
 
-            mCellsToSolveCount = mCellsToSolve.size();
-            mSolveCellIdx = 0;
-
-            //Log.d(TAG, String.format("%d cells to calculate", mCellsToSolveCount));
-
-            // Before we start solving, look for any cells that can only contain one number and set
-            // them.
-            lookForSingles(-1);
+            // If this puzzle has been solved before, there's no need to start solving it again.
+            if (solutions == 0) {
+                mRunState = SolverState.FINISHED_FAILED;
+                mCompleted = true;
+                Log.d(TAG, "Finished: puzzle has no solution");
+            } else if (useCachedSolution()) {
+                mRunState = SolverState.FINISHED_SUCCESS;
+                mCompleted = true;
+                Log.d(TAG, "Finished: solution was in the cache");
+            } else {
+                mEngine.start();
+            }
         }
 
-        // Try and solve the board.
+        // Try and solve the board; a few iterations at a time so that we can stop if the task is
+        // cancelled. Progress is shown no more often than PROGRESS_INTERVAL_NANOS, however fast
+        // the engine is, and only the cells which have changed are sent to be redrawn.
         while (mRunState == SolverState.RUNNING) {
-            // Look for the next cell to solve; skip over cells that already have numbers.
-            gotNext = false;
-            do {
-                solveCell = mCellsToSolve.get(mSolveCellIdx);
-                cell = solveCell.cell;
-                if (solveCell.single) {
-                    //Log.d(TAG, String.format("Skipping single [%d,%d]", cell.x, cell.y));
-                    ++mSolveCellIdx;
-                } else if (cell.getCurrentNumber() > 0) {
-                    //Log.d(TAG, String.format("Skipping cell [%d,%d] with number %d", cell.x, cell.y, cell.getCurrentNumber()));
-                    ++mSolveCellIdx;
-                } else {
-                    gotNext = true;
-                }
-            } while (!gotNext && !this.isCancelled() && mSolveCellIdx < mCellsToSolveCount);
-
             if (this.isCancelled()) {
                 // Thread has been stopped or cancelled.
                 if (mPaused) {
@@ -112,99 +233,59 @@ class Solver extends AsyncTask<SudokuBoard, SudokuCell, Boolean> {
                     mRunState = SolverState.CANCELLED;
                     mCompleted = true;
                 }
-            } else if (mSolveCellIdx >= mCellsToSolveCount) {
-                // If gone through all the cells, then must have solved it.
-                mRunState = SolverState.FINISHED_SUCCESS;
-                mCompleted = true;
             } else {
-                //Log.d(TAG, String.format("Looking at {%d,%d}", cell.x, cell.y));
+                engineState = mEngine.run(PROGRESS_ITERATIONS);
 
-                int unsolvable = anyUnsolvables(mSolveCellIdx);
-                if (unsolvable >= 0) {
-                    number = -1;
-                    cell = mCellsToSolve.get(unsolvable).cell;
-                    //Log.d(TAG, String.format("Cell {%d,%d} is not solvable", cell.x, cell.y));
-                } else {
-                    number = mBoard.getNumberToTryInCell(cell);
-                    //Log.d(TAG, String.format("mCellsToSolve[%d] = {%d,%d}; Number to use=%d (%s)", mSolveCellIdx, cell.x, cell.y, number, mBoard.whatNumbers(cell)));
-                }
+                if (engineState == SolverState.RUNNING) {
+                    now = System.nanoTime();
 
-                if (number < 0) {
-                    // No numbers to try for this cell. Means we have to go back and try something else.
+                    if (now - mLastProgressTime >= PROGRESS_INTERVAL_NANOS) {
+                        mLastProgressTime = now;
 
-                    number = cell.getCurrentNumber();
+                        publishCheckpoint();
 
-                    if (number > 0) {
-                        mBoard.unuseNumber(cell, number);
-                        cell.setNumberUsage(number, CellNumberUsage.AVAILABLE);
-                    }
-                    cell.resetUsage();
-                    cell.unsetNumber(false); // Don't draw the cell here because we are not on the UI Thread.
-
-                    unsetSingles(solveCell);
-
-                    //Log.d(TAG, String.format("Unsetting {%d,%d} from %d (%s)", cell.x, cell.y, number, mBoard.whatNumbers(cell)));
-
-                    gotNext = false;
-                    --mSolveCellIdx;
-                    while (!isCancelled() && !gotNext && mSolveCellIdx >= 0) {
-                        solveCell = mCellsToSolve.get(mSolveCellIdx);
-                        if (solveCell.single) {
-                            --mSolveCellIdx;
-                        } else {
-                            cell = solveCell.cell;
-                            number = cell.getCurrentNumber();
-                            mBoard.unuseNumber(cell, number);
-                            cell.setNumberUsage(number, CellNumberUsage.TRIED);
-                            cell.unsetNumber(false);
-                            unsetSingles(solveCell);
-
-                            gotNext = true;
+                        changes = mProgressDiff.capture(mWorkModel);
+                        if (changes.length > 0) {
+                            this.publishProgress(changes);
                         }
                     }
-
-                    if (mSolveCellIdx < 0) {
-                        mRunState = SolverState.FINISHED_FAILED;
-                        mCompleted = true;
-                    }
                 } else {
-                    cell.setNumberUsage(number, CellNumberUsage.USED); // Mark the number as used.
-                    cell.setCalculatedNumber(number, false);
-                    mBoard.useNumber(cell, number, false); // Mark the associated cells as used.
-
-                    //Log.d(TAG, String.format("Trying %d in [%d,%d]", number, cell.x, cell.y));
-
-                    lookForSingles(mSolveCellIdx);
+                    mRunState = engineState;
+                    mCompleted = true;
 
-                    ++mSolveCellIdx;
+                    if (mRunState == SolverState.FINISHED_SUCCESS && mPuzzle != null) {
+                        SOLUTION_CACHE.put(mPuzzle, mWorkModel.getPuzzleString());
+                    }
+                    Log.d(TAG, String.format("Finished: state=%s, %s", mRunState.toString(), mMetrics.toString()));
                 }
             }
-
-            ++updCount;
-            if (updCount > 499) {
-                this.publishProgress(cell);
-                updCount = 0;
-            }
         }
 
-        Log.d(TAG, "Unlocking");
-        mCompletionLock.unlock();
+        publishCheckpoint();
 
         return null;
     }
 
     @Override
-    protected void onProgressUpdate(SudokuCell... values) {
-        super.onProgressUpdate(values);
-
-        //values[0].drawCell();
-        mBoard.redrawBoard();
+    protected void onProgressUpdate(int[]... changes) {
+        super.onProgressUpdate(changes);
+
+        // Progress may still arrive after the solver has been stopped, by which time the board
+        // may be being used for something else.
+        if (!this.isCancelled()) {
+            for (int[] diff : changes) {
+                mBoard.applyChanges(diff);
+            }
+        }
     }
 
     @Override
     protected void onPostExecute(Boolean aBoolean) {
         super.onPostExecute(aBoolean);
 
+        applyCheckpoint();
+        mBoard.redrawBoard();
+
         if (mController != null) {
             mController.solverCompleted(this, mRunState);
         }
@@ -215,16 +296,14 @@ class Solver extends AsyncTask<SudokuBoard, SudokuCell, Boolean> {
         super.onCancelled(aBoolean);
 
         Log.d(TAG, String.format("onCancelled: state=%s", mRunState.toString()));
-        /*if (mController != null) {
-            if (mPaused) {
-                mController.solverStopped();
-            }
-            else {
-                mController.solverCancelled();
-            }
-        }*/
     }
 
+    /**
+     * Asks the solver to stop so that it can be restored later. Returns straight away; the
+     * state to save is the latest checkpoint (see getCheckpoint()).
+     *
+     * @return true if the solver was running.
+     */
     boolean pause() {
         if (mRunState == SolverState.RUNNING) {
             mPaused = true;
@@ -242,203 +321,163 @@ class Solver extends AsyncTask<SudokuBoard, SudokuCell, Boolean> {
         return mCompleted;
     }
 
-    boolean waitForCompletion() {
-        Log.d(TAG, "waiting for completion");
-        mCompletionLock.lock();
-        mCompletionLock.unlock();
-        Log.d(TAG, "task has completed");
-
-        return true;
+    /**
+     * Get the latest consistent state of the solver. May be called from any thread.
+     */
+    Checkpoint getCheckpoint() {
+        return mCheckpoint;
     }
 
     SolverState getRunState() {
         return mRunState;
     }
 
-    private void unsetSingles(SolveCell solveCell) {
-        int s = solveCell.singlesCount;
-        int number;
+    /**
+     * Get the counts of the work done by the engine since this solver was created or restored.
+     */
+    SolverMetrics getMetrics() {
+        return mMetrics;
+    }
 
-        //Log.d(TAG, String.format("Unsetting %d singles for {%d,%d}", s, solveCell.cell.x, solveCell.cell.y));
-
-        while (s > 0) {
-            --s;
-            SolveCell unSolveCell = mCellsToSolve.get(solveCell.singles.get(s));
-            number = unSolveCell.cell.getCurrentNumber();
-            //Log.d(TAG, String.format("Removing single %d from [%d,%d]", number, unSolveCell.cell.x, unSolveCell.cell.y));
-            mBoard.unuseNumber(unSolveCell.cell, number);
-            unSolveCell.cell.setNumberUsage(number, CellNumberUsage.AVAILABLE);
-            unSolveCell.cell.unsetNumber(false);
-            //unSolveCell.skipped = false;
-            unSolveCell.single = false;
+    SolverEngineType getEngineType() {
+        return mEngineType;
+    }
+
+    ArrayList<SudokuCell> getSolvedCellList() {
+        ArrayList<SudokuCell> list = new ArrayList<>();
+
+        for (int cell : mEngine.getSolvedCells()) {
+            list.add(mBoard.getCell(BoardModel.xOf(cell), BoardModel.yOf(cell)));
         }
-        solveCell.singles.clear();
-        solveCell.singlesCount = 0;
+
+        return list;
     }
 
     /**
-     * Looks for cells which could only contain one value based on the current mRunState of the mBoard,
-     * and assigns those cells the number.
+     * Return a snapshot of the state of the solver and its engine, from the latest checkpoint.
+     * The board is saved separately, and must be saved from the same checkpoint.
      *
-     * @param cellListIdx index of the cell in the cell list to start looking for singles. It
-     *                    searches from this position to the end of the cell list.
+     * @return the snapshot, or null if the solver hadn't started.
      */
-    private void lookForSingles(int cellListIdx) {
-        int singleScan;
-        boolean singleRescan;
-        int number;
-        SudokuCell cell;
-        SolveCell source;
-
-        if (cellListIdx >= 0) {
-            source = mCellsToSolve.get(cellListIdx);
-            ++cellListIdx;
-        } else {
-            source = null;
-            cellListIdx = 0;
-        }
+    byte[] getSnapshot() {
+        return mCheckpoint.getSnapshot();
+    }
 
-        do {
-            singleScan = cellListIdx;
-            singleRescan = false;
-
-            while (singleScan < mCellsToSolveCount) {
-                SolveCell scanCell = mCellsToSolve.get(singleScan);
-                if (!scanCell.single) {
-                    cell = scanCell.cell;
-                    number = mBoard.findSingleNumber(cell);
-                    if (number > 0) {
-                        if (source != null) {
-                            source.singles.add(singleScan);
-                            source.singlesCount++;
-
-                            //Log.d(TAG, String.format("Created single for {%d,%d}[%d] at {%d,%d} with %d", source.cell.x, source.cell.y, source.singlesCount, cell.x, cell.y, number));
-                        }
-                        //else
-                        //Log.d(TAG, String.format("Created single {%d,%d} with %d", cell.x, cell.y, number));
+    /**
+     * Copies the board's model from the latest checkpoint to the board. Must be called on the UI
+     * thread.
+     */
+    private void applyCheckpoint() {
+        mBoard.getModel().copyFrom(mCheckpoint.getModel());
+    }
 
-                        scanCell.single = true;
+    /**
+     * Takes a copy of the model and a snapshot of the engine, and makes them the latest
+     * checkpoint. Must only be called when the engine isn't running.
+     */
+    private void publishCheckpoint() {
+        SnapshotWriter writer = mCheckpointWriter;
 
-                        cell.setNumberUsage(number, CellNumberUsage.USED);
-                        cell.setSingleNumber(number, false);
-                        mBoard.useNumber(cell, number, false);
+        writer.reset();
+        writer.writeHeader();
+        writer.writeBits(mEngineType.toInteger(), 2);
+        writer.writeBits(mRunState.toInteger(), 3);
+        writer.writeBool(mPaused);
+        writer.writeBool(mCompleted);
 
-                        singleRescan = true;
-                    }
-                }
-                ++singleScan;
-            }
+        mEngine.writeSnapshot(writer);
 
-            // If a single was found, then go round again in case we created more singles.
-        } while (singleRescan);
+        mCheckpoint = new Checkpoint(copyWorkModel(), writer.toByteArray(), mRunState, mCompleted);
     }
 
     /**
-     * Looks for any cells that cannot be solved; i.e. all of the numbers are used elsewhere
-     * within the same row, column or block.
+     * Looks up the puzzle in the solution cache and, if it is there, sets the numbers from the
+     * solution in the cells that aren't fixed. The board has been prepared for solving, so these
+     * are all blank.
      *
-     * @param cellListIdx index of the first cell to start looking for unsolvables.
-     * @return index of the first unsolvable cell found.
+     * @return true if the solution was found.
      */
-    private int anyUnsolvables(int cellListIdx) {
-        int unsolvable = -1;
-        SolveCell solveCell;
-        SudokuCell cell;
-
-        while (cellListIdx < mCellsToSolveCount) {
-            solveCell = mCellsToSolve.get(cellListIdx);
-            cell = solveCell.cell;
-            if (cell.getCurrentNumber() == 0 && !mBoard.isCellSolvable(cell)) {
-                unsolvable = cellListIdx;
-                break;
-            } else {
-                ++cellListIdx;
+    private boolean useCachedSolution() {
+        String solution;
+        int number;
+
+        if (mPuzzle == null || (solution = SOLUTION_CACHE.get(mPuzzle)) == null) {
+            return false;
+        }
+
+        for (int cell = 0; cell < BoardModel.CELL_COUNT; cell++) {
+            if (!mWorkModel.isFixed(cell)) {
+                number = solution.charAt(cell) - '0';
+                mWorkModel.setCalculatedNumber(cell, number);
+                mWorkModel.useNumber(cell, number, false);
             }
         }
 
-        return unsolvable;
+        return true;
     }
 
-    ArrayList<SudokuCell> getSolvedCellList() {
-        ArrayList<SudokuCell> list = new ArrayList<>();
+    /**
+     * Counts the solutions of the puzzle, on a copy of the board, stopping once the limit has
+     * been reached. The count is done a few iterations at a time so that it stops if the task is
+     * cancelled.
+     *
+     * @param limit the number of solutions to stop at.
+     * @return the number of solutions found, or -1 if the task was cancelled.
+     */
+    private int countSolutions(int limit) {
+        BoardModel copy = copyWorkModel();
+        BacktrackingSolver counter;
+
+        copy.prepareForSolving();
+
+        counter = new BacktrackingSolver(copy);
+        counter.setSolutionLimit(limit);
+        counter.start();
 
-        for (int i = 0; i < mCellsToSolveCount; i++) {
-            list.add(mCellsToSolve.get(i).cell);
+        while (counter.run(PROGRESS_ITERATIONS) == SolverState.RUNNING) {
+            if (this.isCancelled()) {
+                return -1;
+            }
         }
 
-        return list;
+        return counter.getSolutionCount();
     }
 
-    String getSaveData() {
-        StringBuilder data = new StringBuilder();
-
-        data.append(String.format("%02d%02d%d%d%d", mCellsToSolveCount, mSolveCellIdx, mRunState.toInteger(), (mPaused ? 1 : 0), (mCompleted ? 1 : 0)));
+    private BoardModel copyWorkModel() {
+        BoardModel model = new BoardModel();
 
-        for (int i = 0; i < mCellsToSolveCount; i++) {
-            mCellsToSolve.get(i).getSaveData(data);
-        }
-        data.append("#");
+        model.copyFrom(mWorkModel);
 
-        return data.toString();
+        return model;
     }
 
-    private void restoreSavedData(SavedDataReader dataReader) {
-        mCellsToSolveCount = dataReader.readInt(2);
-        mSolveCellIdx = dataReader.readInt(2);
-        mRunState = SolverState.fromInteger(dataReader.readInt());
-        mPaused = dataReader.readBool();
-        mCompleted = dataReader.readBool();
+    private void readSnapshot(SnapshotReader reader) {
+        reader.readHeader();
 
-        Log.d(TAG, String.format("Restore: Cells=%d, Idx=%d, State=%s", mCellsToSolveCount, mSolveCellIdx, mRunState.toString()));
+        mEngineType = SolverEngineType.fromInteger(reader.readBits(2));
+        mEngine = mEngineType.createEngine(mWorkModel);
+        mEngine.setMetrics(mMetrics);
 
-        mCellsToSolve.clear();
-        for (int i = 0; i < mCellsToSolveCount; i++) {
-            mCellsToSolve.add(new SolveCell(dataReader));
-        }
-    }
+        mRunState = SolverState.fromInteger(reader.readBits(3));
+        mPaused = reader.readBool();
+        mCompleted = reader.readBool();
 
-    /**
-     *
-     */
-    private class SolveCell {
-        SudokuCell cell;
-        ArrayList<Integer> singles = new ArrayList<>();
-        int singlesCount;
-        boolean single;
-
-        SolveCell(SudokuCell cell) {
-            this.cell = cell;
-            singles.clear();
-            singlesCount = 0;
-            single = false;
-        }
+        Log.d(TAG, String.format("Restore: Engine=%s, State=%s", mEngineType.toString(), mRunState.toString()));
 
-        SolveCell(SavedDataReader dataReader) {
-            restoreSavedData(dataReader);
-        }
+        mEngine.readSnapshot(reader);
+    }
 
-        void getSaveData(StringBuilder data) {
-            data.append(cell.x);
-            data.append(cell.y);
-            data.append(String.format("%02d", singlesCount));
-            for (int i = 0; i < singlesCount; i++) {
-                data.append(String.format("%02d", singles.get(i)));
-            }
-            data.append(single ? 1 : 0);
-        }
+    private void restoreSavedData(SavedDataReader dataReader) {
+        mEngineType = SolverEngineType.fromInteger(dataReader.readInt());
+        mEngine = mEngineType.createEngine(mWorkModel);
+        mEngine.setMetrics(mMetrics);
 
-        void restoreSavedData(SavedDataReader dataReader) {
-            int x, y;
+        mRunState = SolverState.fromInteger(dataReader.readInt());
+        mPaused = dataReader.readBool();
+        mCompleted = dataReader.readBool();
 
-            x = dataReader.readInt();
-            y = dataReader.readInt();
-            this.cell = mBoard.getCell(x, y);
+        Log.d(TAG, String.format("Restore: Engine=%s, State=%s", mEngineType.toString(), mRunState.toString()));
 
-            singlesCount = dataReader.readInt(2);
-            for (x = 0; x < singlesCount; x++) {
-                singles.add(dataReader.readInt(2));
-            }
-            single = dataReader.readBool();
-        }
+        mEngine.restoreSavedData(dataReader);
     }
 }
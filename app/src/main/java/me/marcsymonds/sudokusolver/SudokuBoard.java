@@ -8,6 +8,7 @@ import android.util.DisplayMetrics;
 import android.util.TypedValue;
 import android.view.Gravity;
 import android.view.View;
+import android.view.ViewGroup;
 import android.widget.LinearLayout;
 import android.widget.TableLayout;
 import android.widget.TableRow;
@@ -15,6 +16,13 @@ import android.widget.TextView;
 
 import java.util.Iterator;
 
+import me.marcsymonds.sudokusolver.core.BoardDiff;
+import me.marcsymonds.sudokusolver.core.BoardModel;
+import me.marcsymonds.sudokusolver.core.CellState;
+import me.marcsymonds.sudokusolver.core.SavedDataReader;
+import me.marcsymonds.sudokusolver.core.SnapshotReader;
+import me.marcsymonds.sudokusolver.core.SnapshotWriter;
+
 /**
  * Created by Marc on 09/12/2016.
  */
@@ -27,14 +35,9 @@ class SudokuBoard implements Iterable<SudokuCell>, TextView.OnClickListener {
     private float displayDensity;
 
     private TableLayout mBoardTable = null;
+    private BoardView mBoardView = null;
     private SudokuCell[][] mCells = new SudokuCell[9][9];
-
-    private CellNumberUsage[][][] mBlockUsage = new CellNumberUsage[3][3][9];
-    private CellNumberUsage[][] mHorizontalUsage = new CellNumberUsage[9][9];
-    private CellNumberUsage[][] mVerticalUsage = new CellNumberUsage[9][9];
-    private int mHorizontalAvailable[] = new int[9];
-    private int mVerticalAvailable[] = new int[9];
-    private int mBlockAvailable[][] = new int[3][3];
+    private BoardModel mModel = new BoardModel();
 
     private SudokuCell mSelectedCell = null;
     private boolean mEditing = false;
@@ -42,6 +45,12 @@ class SudokuBoard implements Iterable<SudokuCell>, TextView.OnClickListener {
 
     private int mPreventUpdate = 0;
 
+    // Colours and text for drawing the cells.
+    private CellPalette mPalette;
+
+    // Reused for every snapshot of the board.
+    private final SnapshotWriter mSnapshotWriter = new SnapshotWriter();
+
     SudokuBoard(Context c) {
         Configuration config;
         int x, y;
@@ -54,6 +63,8 @@ class SudokuBoard implements Iterable<SudokuCell>, TextView.OnClickListener {
         ((Activity) context).getWindowManager().getDefaultDisplay().getMetrics(dm); //context.getResources().getDisplayMetrics();
         displayDensity = dm.density;
 
+        mPalette = new CellPalette(context);
+
         // 70% of the smallest dimension - width or height.
         maxSize = ((config.screenWidthDp < config.screenHeightDp) ? config.screenWidthDp : config.screenHeightDp) * 0.7f;
 
@@ -66,17 +77,39 @@ class SudokuBoard implements Iterable<SudokuCell>, TextView.OnClickListener {
 
         mBoardTable = (TableLayout) ((Activity) context).findViewById(R.id.SudokuBoardTable);
         LinearLayout.LayoutParams boardLayout = new LinearLayout.LayoutParams(dp2px(boardSize), dp2px(boardSize));
-        mBoardTable.setLayoutParams(boardLayout);
 
-        for (x = 0; x < 9; x++) {
-            for (y = 0; y < 9; y++) {
-                mCells[x][y] = new SudokuCell(this, new TextView(context), x, y);
+        // Either draw the whole board in one view, or have a TextView for each cell in the table.
+        if (context.getResources().getBoolean(R.bool.useBoardView)) {
+            mBoardView = new BoardView(context, this);
+
+            for (x = 0; x < 9; x++) {
+                for (y = 0; y < 9; y++) {
+                    mCells[x][y] = new SudokuCell(this, null, x, y);
+                }
             }
-        }
 
-        clearBoard();
-        resetUsage();
-        buildBoardTableView(numSize);
+            // Put the view in place of the table.
+            ViewGroup parent = (ViewGroup) mBoardTable.getParent();
+            int position = parent.indexOfChild(mBoardTable);
+            parent.removeView(mBoardTable);
+            parent.addView(mBoardView, position, boardLayout);
+            mBoardTable = null;
+
+            clearBoard();
+            resetUsage();
+        } else {
+            mBoardTable.setLayoutParams(boardLayout);
+
+            for (x = 0; x < 9; x++) {
+                for (y = 0; y < 9; y++) {
+                    mCells[x][y] = new SudokuCell(this, new TextView(context), x, y);
+                }
+            }
+
+            clearBoard();
+            resetUsage();
+            buildBoardTableView(numSize);
+        }
     }
 
     void clearBoard() {
@@ -88,25 +121,44 @@ class SudokuBoard implements Iterable<SudokuCell>, TextView.OnClickListener {
     }
 
     void resetUsage() {
-        int x, y, n;
+        mModel.resetUsage();
+    }
 
-        for (x = 0; x < 9; x++) {
-            for (n = 0; n < 9; n++) {
-                mVerticalUsage[x][n] = CellNumberUsage.AVAILABLE;
-                mHorizontalUsage[x][n] = CellNumberUsage.AVAILABLE;
-            }
-            mVerticalAvailable[x] = 9;
-            mHorizontalAvailable[x] = 9;
+    CellPalette getPalette() {
+        return mPalette;
+    }
+
+    /**
+     * Asks the BoardView, if the board is drawn by one, to draw the board again. However many
+     * times this is called, the board is only drawn once in the next frame.
+     */
+    void invalidateBoardView() {
+        if (mBoardView != null) {
+            mBoardView.invalidate();
         }
+    }
 
-        for (y = 0; y < 3; y++) {
-            for (x = 0; x < 3; x++) {
-                for (n = 0; n < 9; n++) {
-                    mBlockUsage[x][y][n] = CellNumberUsage.AVAILABLE;
-                }
-                mBlockAvailable[x][y] = 9;
-            }
+    /**
+     * Looks up the colours for drawing the cells again, and redraws the board with them.
+     */
+    void reloadPalette() {
+        mPalette.load(context);
+
+        for (SudokuCell cell : this) {
+            cell.invalidate();
         }
+
+        redrawBoard();
+    }
+
+    /**
+     * Returns the model holding the numbers and number usage of the board, which is what the
+     * solver works on.
+     *
+     * @return the board model.
+     */
+    BoardModel getModel() {
+        return mModel;
     }
 
     private void buildBoardTableView(int cellSize) {
@@ -242,8 +294,29 @@ class SudokuBoard implements Iterable<SudokuCell>, TextView.OnClickListener {
     }
 
     void redrawBoard() {
-        for (SudokuCell cell : this) {
-            cell.drawCell();
+        int x, y;
+
+        for (y = 0; y < 9; y++) {
+            for (x = 0; x < 9; x++) {
+                mCells[x][y].drawCell();
+            }
+        }
+    }
+
+    /**
+     * Sets the numbers of the cells which have been changed by the solver, and redraws just
+     * those cells.
+     *
+     * @param diff the changed cells; see BoardDiff.
+     */
+    void applyChanges(int[] diff) {
+        int cell;
+
+        BoardDiff.apply(diff, mModel);
+
+        for (int change : diff) {
+            cell = BoardDiff.cellOf(change);
+            mCells[BoardModel.xOf(cell)][BoardModel.yOf(cell)].drawCell();
         }
     }
 
@@ -378,9 +451,11 @@ class SudokuBoard implements Iterable<SudokuCell>, TextView.OnClickListener {
 
             resetUsage();
 
-            // Set onClick listeners for each cell.
+            // Set onClick listeners for each cell. A BoardView handles touches itself.
             for (SudokuCell cell : this) {
-                cell.getTextView().setOnClickListener(this);
+                if (mBoardView == null) {
+                    cell.getTextView().setOnClickListener(this);
+                }
 
                 if (!cell.isHardFixed()) {
                     cell.unsetNumber(true);
@@ -391,6 +466,10 @@ class SudokuBoard implements Iterable<SudokuCell>, TextView.OnClickListener {
                 }
             }
 
+            if (mBoardView != null) {
+                mBoardView.requestFocus();
+            }
+
             // Select the last selected, or 0,0 if no last selected.
             unsetSelectedCell();
 
@@ -411,8 +490,10 @@ class SudokuBoard implements Iterable<SudokuCell>, TextView.OnClickListener {
             unsetSelectedCell();
 
             // Remove onClick listeners for each cell.
-            for (SudokuCell cell : this) {
-                cell.getTextView().setOnClickListener(null);
+            if (mBoardView == null) {
+                for (SudokuCell cell : this) {
+                    cell.getTextView().setOnClickListener(null);
+                }
             }
 
             mEditing = false;
@@ -470,18 +551,43 @@ class SudokuBoard implements Iterable<SudokuCell>, TextView.OnClickListener {
      * end of the board.
      */
     void moveSelectedCellToNext() {
+        moveSelectedCell(1);
+    }
+
+    /**
+     * Moves the selected cell forwards or backwards in reading order; i.e. along the row,
+     * wrapping on to the next or previous row, and at the ends of the board. If no cell is
+     * selected, the first cell is selected.
+     *
+     * @param cells number of cells to move; negative to move backwards.
+     */
+    void moveSelectedCell(int cells) {
+        int index = 0;
+
+        if (mSelectedCell != null) {
+            index = (mSelectedCell.getIndex() + cells) % BoardModel.CELL_COUNT;
+            if (index < 0) {
+                index += BoardModel.CELL_COUNT;
+            }
+        }
+
+        setSelectedCell(mCells[BoardModel.xOf(index)][BoardModel.yOf(index)]);
+    }
+
+    /**
+     * Moves the selected cell up or down its column, wrapping at the top and bottom of the
+     * board. If no cell is selected, the first cell is selected.
+     *
+     * @param rows number of rows to move; negative to move up.
+     */
+    void moveSelectedCellVertically(int rows) {
         int x = 0, y = 0;
 
         if (mSelectedCell != null) {
-            x = mSelectedCell.x + 1;
-            y = mSelectedCell.y;
-
-            if (x > 8) {
-                x = 0;
-                ++y;
-                if (y > 8) {
-                    y = 0;
-                }
+            x = mSelectedCell.x;
+            y = (mSelectedCell.y + rows) % 9;
+            if (y < 0) {
+                y += 9;
             }
         }
 
@@ -489,73 +595,88 @@ class SudokuBoard implements Iterable<SudokuCell>, TextView.OnClickListener {
     }
 
     /**
-     * Return data representing the current state of the board. This can be restored later to set
+     * Return a snapshot of the current state of the board. This can be restored later to set
      * the board back to the saved state.
      *
-     * @return String containing the save data for all of the cells and save data for the table.
+     * @return the snapshot of the board's model, the cells and the board.
+     */
+    byte[] getSnapshot() {
+        return getSnapshot(mModel);
+    }
+
+    /**
+     * Return a snapshot of the board, using another model in place of the board's own; for
+     * example the model from a solver's checkpoint, which may be ahead of what is shown.
+     *
+     * @param model the model to save with the cells and the board.
+     * @return the snapshot.
      */
-    String getSaveData() {
-        int x, y, n;
-        StringBuilder data = new StringBuilder();
+    byte[] getSnapshot(BoardModel model) {
+        SnapshotWriter writer = mSnapshotWriter;
+
+        writer.reset();
+        writer.writeHeader();
+
+        model.writeSnapshot(writer);
 
-        // Get the save data for each cell.
         for (SudokuCell cell : this) {
-            data.append(cell.getSaveData());
-            data.append("#");
+            cell.writeSnapshot(writer);
         }
 
-        // Get the save data for the board.
-        data.append(String.format("%d%d%03d",
-                mEditing ? 1 : 0,
-                mHasErrors ? 1 : 0,
-                mPreventUpdate));
+        writer.writeBool(mEditing);
+        writer.writeBool(mHasErrors);
+        writer.writeBits(mPreventUpdate, 10);
 
-        // Currently selected cell.
-        if (mSelectedCell == null) {
-            data.append("xx");
-        } else {
-            data.append(mSelectedCell.x);
-            data.append(mSelectedCell.y);//String.format("%d%d", mSelectedCell.x, mSelectedCell.y));
-        }
+        // Currently selected cell; CELL_COUNT if there isn't one.
+        writer.writeBits((mSelectedCell == null) ? BoardModel.CELL_COUNT : mSelectedCell.getIndex(), 7);
 
-        // Get the save data for the number availability.
-        data.append("#");
-
-        for (x = 0; x < 9; x++) {
-            data.append(mHorizontalAvailable[x]);
-            data.append(mVerticalAvailable[x]);
-            //data.append(String.format("%d%d", mHorizontalAvailable[x], mVerticalAvailable[x]));
-            for (n = 0; n < 9; n++) {
-                data.append(mHorizontalUsage[x][n].toInteger());
-                data.append(mVerticalUsage[x][n].toInteger());
-                //data.append(String.format("%d%d", mHorizontalUsage[x][n], mVerticalUsage[x][n]));
-            }
-        }
+        return writer.toByteArray();
+    }
 
-        for (y = 0; y < 3; y++) {
-            for (x = 0; x < 3; x++) {
-                data.append(mBlockAvailable[x][y]);
-                for (n = 0; n < 9; n++) {
-                    data.append(mBlockUsage[x][y][n].toInteger());
-                }
-            }
+    void restoreSnapshot(byte[] snapshot) {
+        restoreSnapshot(snapshot, true);
+    }
+
+    /**
+     * Restores the table and cells from a snapshot.
+     *
+     * @param snapshot        the snapshot to restore.
+     * @param restoreSelected indicates if the selected cell that was saved should be restored.
+     */
+    void restoreSnapshot(byte[] snapshot, boolean restoreSelected) {
+        int selected;
+        SnapshotReader reader = new SnapshotReader(snapshot);
+
+        reader.readHeader();
+
+        mModel.readSnapshot(reader);
+
+        for (SudokuCell cell : this) {
+            cell.readSnapshot(reader);
         }
 
-        return data.toString();
-    }
+        mEditing = reader.readBool();
+        mHasErrors = reader.readBool();
+        mPreventUpdate = reader.readBits(10);
 
-    void restoreSavedData(String savedData) {
-        restoreSavedData(savedData, true);
+        selected = reader.readBits(7);
+        if (restoreSelected) {
+            if (selected >= BoardModel.CELL_COUNT) {
+                mSelectedCell = null;
+            } else {
+                this.setSelectedCell(mCells[BoardModel.xOf(selected)][BoardModel.yOf(selected)]);
+            }
+        }
     }
 
     /**
-     * Restores the table and cells from a set of saved data.
+     * Restores the table and cells from data saved in the format used before snapshots.
      *
      * @param savedData       the saved data to restore.
      * @param restoreSelected indicates if the selected cell that was saved should be restored.
      */
     void restoreSavedData(String savedData, boolean restoreSelected) {
-        int x, y, n;
+        int x, y;
         SavedDataReader savedDataReader = new SavedDataReader(savedData);
 
         // Restore the cells.
@@ -584,70 +705,21 @@ class SudokuBoard implements Iterable<SudokuCell>, TextView.OnClickListener {
         // Saved data for the number availability.
         savedDataReader.nextSection();
 
-        for (x = 0; x < 9; x++) {
-            mHorizontalAvailable[x] = savedDataReader.readInt();// data.append(mHorizontalAvailable[x]);
-            mVerticalAvailable[x] = savedDataReader.readInt(); // data.append(mVerticalAvailable[x]);
-            for (n = 0; n < 9; n++) {
-                mHorizontalUsage[x][n] = CellNumberUsage.fromInteger(savedDataReader.readInt()); // data.append(mHorizontalUsage[x][n]);
-                mVerticalUsage[x][n] = CellNumberUsage.fromInteger(savedDataReader.readInt()); // data.append(mVerticalUsage[x][n]);
-            }
-        }
-
-        for (y = 0; y < 3; y++) {
-            for (x = 0; x < 3; x++) {
-                mBlockAvailable[x][y] = savedDataReader.readInt();
-                for (n = 0; n < 9; n++) {
-                    mBlockUsage[x][y][n] = CellNumberUsage.fromInteger(savedDataReader.readInt());
-                }
-            }
-        }
+        mModel.restoreUsageSavedData(savedDataReader);
     }
 
     /**
      * Prepares the bold for solving by clearing any previously calculated numbers.
      */
     void prepareBoardForSolving() {
-        resetUsage();
+        mModel.prepareForSolving();
 
-        // Clear all previously calculated (i.e. not Fixed) numbers, and reset the
-        // "possible numbers" for the cell.
+        // The numbers of the cells that were not fixed have been cleared, so hide them.
         for (SudokuCell cell : this) {
             if (!cell.isFixed()) {
-                cell.resetPossibleNumbers();
-                cell.unsetNumber(false);
+                cell.hide();
             }
         }
-
-        // Now "use" the fixed numbers so that we know which numbers are available for other cells.
-        // Needs to be done separately from the above so that the cells to calculate are set up
-        // before removing the list of fixed values from the available values.
-        for (SudokuCell cell : this) {
-            if (cell.isFixed()) {
-                useNumber(cell, cell.getCurrentNumber(), true);
-            }
-        }
-    }
-
-    /**
-     * Determines an available number that can be tried in the specified cell.
-     *
-     * @param cell the cell to get the number for.
-     * @return the number to try (1 to 9) or -1 if no numbers are available.
-     */
-    int getNumberToTryInCell(SudokuCell cell) {
-        int n, m;
-
-        for (n = 0, m = 1; n < 9; n++, m++) {
-            if (cell.getUsage(m) == CellNumberUsage.AVAILABLE) {
-                if (mHorizontalUsage[cell.y][n] == CellNumberUsage.AVAILABLE && mVerticalUsage[cell.x][n] == CellNumberUsage.AVAILABLE) {
-                    if (mBlockUsage[cell.cellBlock.x][cell.cellBlock.y][n] == CellNumberUsage.AVAILABLE) {
-                        return m;
-                    }
-                }
-            }
-        }
-
-        return -1;
     }
 
     /**
@@ -658,142 +730,15 @@ class SudokuBoard implements Iterable<SudokuCell>, TextView.OnClickListener {
      * @return boolean indicating if the cell is solvable.
      */
     boolean isCellSolvable(SudokuCell cell) {
-        /*if (cell.x == 4 && cell.y == 8){
-            String h = "", v = "", b = "";
-
-            for (int n = 0; n < 9; n++) {
-                h = h + String.valueOf(mHorizontalUsage[cell.y][n].toInteger());
-                v = v + String.valueOf(mVerticalUsage[cell.x][n].toInteger());
-                b = b + String.valueOf(mBlockUsage[cell.cellBlock.x][cell.cellBlock.y][n].toInteger());
-            }
-
-            Log.d(TAG, String.format("4,8=H(%s), V(%s), B(%s)", h, v, b));
-        }*/
-
-        for (int n = 0; n < 9; n++) {
-            if (mHorizontalUsage[cell.y][n] == CellNumberUsage.AVAILABLE) {
-                if (mVerticalUsage[cell.x][n] == CellNumberUsage.AVAILABLE) {
-                    if (mBlockUsage[cell.cellBlock.x][cell.cellBlock.y][n] == CellNumberUsage.AVAILABLE) {
-                        return true;
-                    }
-                }
-            }
-        }
-
-        return false;
+        return mModel.isCellSolvable(cell.getIndex());
     }
 
     void useNumber(SudokuCell cell, int number, boolean fixed) {
-        CellNumberUsage usage = (fixed ? CellNumberUsage.FIXED : CellNumberUsage.USED);
-        int x = cell.x;
-        int y = cell.y;
-
-        number = number - 1;
-
-        if (mHorizontalUsage[y][number] == CellNumberUsage.AVAILABLE) {
-            mHorizontalUsage[y][number] = usage;
-            mHorizontalAvailable[y]--;
-        }
-
-        if (mVerticalUsage[x][number] == CellNumberUsage.AVAILABLE) {
-            mVerticalUsage[x][number] = usage;
-            mVerticalAvailable[x]--;
-        }
-
-        if (mBlockUsage[cell.cellBlock.x][cell.cellBlock.y][number] == CellNumberUsage.AVAILABLE) {
-            mBlockUsage[cell.cellBlock.x][cell.cellBlock.y][number] = usage;
-            mBlockAvailable[cell.cellBlock.x][cell.cellBlock.y]--;
-        }
-
-        //Log.d(TAG, String.format("Available {%d,%d}: H:%d, V:%d, B:%d", x, y, mHorizontalAvailable[y], mVerticalAvailable[x], mBlockAvailable[cell.cellBlock.y][cell.cellBlock.x]));
+        mModel.useNumber(cell.getIndex(), number, fixed);
     }
 
     void unuseNumber(SudokuCell cell, int number) {
-        int x = cell.x;
-        int y = cell.y;
-
-        number = number - 1;
-
-        if (mHorizontalUsage[y][number] != CellNumberUsage.AVAILABLE) {
-            mHorizontalUsage[y][number] = CellNumberUsage.AVAILABLE;
-            mHorizontalAvailable[y]++;
-        }
-
-        if (mVerticalUsage[x][number] != CellNumberUsage.AVAILABLE) {
-            mVerticalUsage[x][number] = CellNumberUsage.AVAILABLE;
-            mVerticalAvailable[x]++;
-        }
-
-        if (mBlockUsage[cell.cellBlock.x][cell.cellBlock.y][number] != CellNumberUsage.AVAILABLE) {
-            mBlockUsage[cell.cellBlock.x][cell.cellBlock.y][number] = CellNumberUsage.AVAILABLE;
-            mBlockAvailable[cell.cellBlock.x][cell.cellBlock.y]++;
-        }
-    }
-
-    /**
-     * @param cell
-     * @return
-     */
-    int findSingleNumber(SudokuCell cell) {
-        int number = -1;
-        int n;
-        CellBlock block = cell.cellBlock;
-
-        for (n = 0; n < 9; n++) {
-            if (mHorizontalUsage[cell.y][n] == CellNumberUsage.AVAILABLE) {
-                if (number > 0) {
-                    number = -1;
-                    break;
-                }
-
-                number = n + 1;
-            }
-        }
-
-        if (number > 0) {
-            n = number - 1;
-            if (mVerticalUsage[cell.x][n] != CellNumberUsage.AVAILABLE || mBlockUsage[block.x][block.y][n] != CellNumberUsage.AVAILABLE) {
-                number = -1;
-            }
-        } else {
-            for (n = 0; n < 9; n++) {
-                if (mVerticalUsage[cell.x][n] == CellNumberUsage.AVAILABLE) {
-                    if (number > 0) {
-                        number = -1;
-                        break;
-                    }
-
-                    number = n + 1;
-                }
-            }
-
-            if (number > 0) {
-                n = number - 1;
-                if (mHorizontalUsage[cell.y][n] != CellNumberUsage.AVAILABLE || mBlockUsage[block.x][block.y][n] != CellNumberUsage.AVAILABLE) {
-                    number = -1;
-                }
-            } else {
-                for (n = 0; n < 9; n++) {
-                    if (mBlockUsage[block.x][block.y][n] == CellNumberUsage.AVAILABLE) {
-                        if (number > 0) {
-                            number = -1;
-                            break;
-                        }
-
-                        number = n + 1;
-                    }
-                }
-
-                if (number > 0) {
-                    n = number - 1;
-                    if (mHorizontalUsage[cell.y][n] != CellNumberUsage.AVAILABLE || mVerticalUsage[cell.x][n] != CellNumberUsage.AVAILABLE) {
-                        number = -1;
-                    }
-                }
-            }
-        }
-
-        return number;
+        mModel.unuseNumber(cell.getIndex(), number);
     }
 
     /**
@@ -802,7 +747,7 @@ class SudokuBoard implements Iterable<SudokuCell>, TextView.OnClickListener {
      * @param dp density pixels to convert.
      * @return actual pixels.
      */
-    private int dp2px(int dp) {
+    int dp2px(int dp) {
         return (int) (dp * displayDensity + 0.5f);
     }
 
@@ -812,25 +757,17 @@ class SudokuBoard implements Iterable<SudokuCell>, TextView.OnClickListener {
      * Handles the onClick event for each cell.
      * When editing, each cell's onClick event handler is assigned to this function.
      * <p>
-     * When a user clicks a cell, it becomes the currently selected cell.
+     * When a user clicks a cell, it becomes the currently selected cell. Each cell's TextView is
+     * tagged with the cell, so the cell is found straight from the view.
      *
      * @param view the TextView that was clicked.
      */
     @Override
     public void onClick(View view) {
-        SudokuCell found = null;
-        TextView tv = (TextView) view;
-
-        // Need to find which cell the clicked TextView is related to.
-        for (SudokuCell cell : this) {
-            if (tv == cell.getTextView()) {
-                found = cell;
-                break;
-            }
-        }
+        Object tag = view.getTag();
 
-        if (found != null) {
-            setSelectedCell(found);
+        if (tag instanceof SudokuCell) {
+            setSelectedCell((SudokuCell) tag);
         } else {
             unsetSelectedCell();
         }
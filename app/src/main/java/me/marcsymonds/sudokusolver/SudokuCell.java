@@ -1,9 +1,13 @@
 package me.marcsymonds.sudokusolver;
 
-import android.graphics.Color;
-import android.support.v4.content.ContextCompat;
 import android.widget.TextView;
 
+import me.marcsymonds.sudokusolver.core.BoardModel;
+import me.marcsymonds.sudokusolver.core.CellState;
+import me.marcsymonds.sudokusolver.core.SavedDataReader;
+import me.marcsymonds.sudokusolver.core.SnapshotReader;
+import me.marcsymonds.sudokusolver.core.SnapshotWriter;
+
 class SudokuCell {
     private static CellBlock cellBlocks[][] = new CellBlock[3][3];
 
@@ -25,15 +29,20 @@ class SudokuCell {
     CellBlock cellBlock = null;
 
     private SudokuBoard mBoard;
+    private BoardModel mModel;
     private TextView mTextView;
-    private int mCurrentNumber = 0;
-    private CellNumberUsage mUsage[] = new CellNumberUsage[9];
-    private int mAvailable;
-    private CellState mState = CellState.NOT_SET;
+    private int mIndex;
     private boolean mIsError = false;
     private boolean mIsSelected = false;
     private boolean mIsDirty = true;
     private boolean mVisible = false;
+    private int mDrawnNumber = -1;
+    private CellState mDrawnState = null;
+
+    // What was last set on the view.
+    private int mDrawnBackground;
+    private int mDrawnForeground;
+    private String mDrawnText = null;
 
     /**
      * Constructor. This constructor should not be used.
@@ -55,10 +64,16 @@ class SudokuCell {
     public SudokuCell(SudokuBoard board, TextView textView, int x, int y) {
         //super(mBoard.context);
         this.mBoard = board;
+        this.mModel = board.getModel();
         this.mTextView = textView;
+        if (textView != null) {
+            // So that the cell can be found from the view when it is clicked.
+            textView.setTag(this);
+        }
 
         this.x = x;
         this.y = y;
+        this.mIndex = BoardModel.indexOf(x, y);
 
         x = (x >= 6) ? 2 : ((x >= 3) ? 1 : 0);
         y = (y >= 6) ? 2 : ((y >= 3) ? 1 : 0);
@@ -67,49 +82,54 @@ class SudokuCell {
         clear();
     }
 
+    /**
+     * Get the view showing the cell; null if the board is drawn by a BoardView.
+     */
     public TextView getTextView() {
         return mTextView;
     }
 
     /**
-     * Returns a string containing information representing the current state of this cell.
+     * Returns the index of this cell in the board model.
      *
-     * @return string containing data to save.
+     * @return index of the cell (0-80).
      */
-    String getSaveData() {
-        StringBuilder data = new StringBuilder(14);
-
-        data.append(mCurrentNumber);
-        data.append(mIsSelected ? 1 : 0); // We don't use this during restore.
-        data.append(mState.toInteger());
-        data.append(mIsError ? 1 : 0);
-        data.append(mVisible ? 1 : 0);
-        data.append(mAvailable);
-
-        for (int i = 0; i < 9; i++) {
-            data.append(mUsage[i].toInteger());
-        }
+    int getIndex() {
+        return mIndex;
+    }
+
+    /**
+     * Writes the state of this cell's view to a snapshot. The number and state of the cell are
+     * written with the board's model.
+     *
+     * @param writer the writer to write the snapshot with.
+     */
+    void writeSnapshot(SnapshotWriter writer) {
+        writer.writeBool(mIsError);
+        writer.writeBool(mVisible);
+    }
 
-        return data.toString();
+    void readSnapshot(SnapshotReader reader) {
+        mIsSelected = false;
+        mIsError = reader.readBool();
+        mVisible = reader.readBool();
+
+        mIsDirty = true;
     }
 
     /**
-     * Restores this cell to a saved state.
+     * Restores this cell from data saved in the format used before snapshots.
      *
      * @param savedDataReader object used for reading the saved data.
      */
     void restoreSavedData(SavedDataReader savedDataReader) {
-        mCurrentNumber = savedDataReader.readInt();
+        int number = savedDataReader.readInt();
         savedDataReader.readInt();
         mIsSelected = false;
-        mState = CellState.fromInteger(savedDataReader.readInt());
+        mModel.setNumber(mIndex, number, CellState.fromInteger(savedDataReader.readInt()));
         mIsError = savedDataReader.readBool();
         mVisible = savedDataReader.readBool();
-        mAvailable = savedDataReader.readInt();
-
-        for (int i = 0, j = 5; i < 9; i++, j++) {
-            mUsage[i] = CellNumberUsage.fromInteger(savedDataReader.readInt());
-        }
+        mModel.restoreCellUsageSavedData(mIndex, savedDataReader);
 
         mIsDirty = true;
     }
@@ -132,14 +152,7 @@ class SudokuCell {
     }
 
     void setNumber(int newNumber, CellState state, boolean draw, boolean visible) {
-        if (mCurrentNumber != newNumber || state != mState) {
-            if (state == CellState.NOT_SET || newNumber < 1 || newNumber > 9) {
-                mCurrentNumber = 0;
-            } else {
-                mCurrentNumber = newNumber;
-            }
-
-            mState = state;
+        if (mModel.setNumber(mIndex, newNumber, state)) {
             mVisible = visible;
             mIsDirty = true;
 
@@ -149,57 +162,12 @@ class SudokuCell {
         }
     }
 
-    void setCalculatedNumber(int newNumber, boolean draw) {
-        setNumber(newNumber, CellState.CALCULATED, draw, false);
-    }
-
-    void setSingleNumber(int newNumber, boolean draw) {
-        setNumber(newNumber, CellState.SINGLE, draw, false);
-    }
-
     void unsetNumber(boolean draw) {
         setNumber(0, CellState.NOT_SET, draw, false);
     }
 
     int getCurrentNumber() {
-        return mCurrentNumber;
-    }
-
-    void setNumberUsage(int number, CellNumberUsage usage) {
-        --number;
-        if (mUsage[number] != usage) {
-            if (usage == CellNumberUsage.AVAILABLE) {
-                ++mAvailable;
-            } else if (mUsage[number] == CellNumberUsage.AVAILABLE) {
-                --mAvailable;
-            }
-
-            mUsage[number] = usage;
-        }
-    }
-
-    CellNumberUsage getUsage(int number) {
-        return mUsage[number - 1];
-    }
-
-    int getAvailable() {
-        return mAvailable;
-    }
-
-    void resetUsage() {
-        int n;
-
-        mAvailable = 0;
-
-        for (n = 0; n < 9; n++) {
-            if (mUsage[n] == CellNumberUsage.USED || mUsage[n] == CellNumberUsage.TRIED) {
-                mUsage[n] = CellNumberUsage.AVAILABLE;
-            }
-
-            if (mUsage[n] == CellNumberUsage.AVAILABLE) {
-                ++mAvailable;
-            }
-        }
+        return mModel.getNumber(mIndex);
     }
 
     void setSelected(boolean newState) {
@@ -219,87 +187,142 @@ class SudokuCell {
     }
 
     boolean isFixed() {
-        return (mState == CellState.HARD_FIXED);
+        return mModel.isFixed(mIndex);
     }
 
     boolean isHardFixed() {
-        return (mState == CellState.HARD_FIXED);
+        return mModel.isFixed(mIndex);
     }
 
     /**
      * Redraws the cell using based on its current state.
      * <p>
      * The cell is only redrawn if the parent SudokuBoard.isUpdating() method returns false.
+     * <p>
+     * The number in the cell may have been changed in the board model by the solver, so the cell
+     * is also redrawn if the number or state differs from when it was last drawn. The colours and
+     * text come from the board's palette, and each is only set on the view if it is different to
+     * what was set last time, so drawing doesn't allocate anything.
+     * <p>
+     * If the board is drawn by a BoardView, the cell has no view of its own, and the BoardView
+     * is asked to redraw instead.
      */
     void drawCell() {
         int bg, fg;
+        String text;
+        int currentNumber = mModel.getNumber(mIndex);
+        CellState state = mModel.getState(mIndex);
+        CellPalette palette;
+
+        if (!mBoard.isUpdating() && (mIsDirty || currentNumber != mDrawnNumber || state != mDrawnState)) {
+            if (mTextView == null) {
+                mBoard.invalidateBoardView();
+            } else {
+                palette = mBoard.getPalette();
+                bg = getBackgroundColour(palette);
+                fg = getForegroundColour(palette);
+                text = getText();
+
+                // mDrawnText is null if nothing has been set on the view yet.
+                if (mDrawnText == null || bg != mDrawnBackground) {
+                    mTextView.setBackgroundColor(bg);
+                    mDrawnBackground = bg;
+                }
 
-        if (!mBoard.isUpdating() && mIsDirty) {
-            if (mVisible || mIsSelected || mIsError) {
-                if (mIsSelected) {
-                    bg = ContextCompat.getColor(mBoard.context, R.color.cellEdit);
-                } else if (mIsError) {
-                    bg = ContextCompat.getColor(mBoard.context, R.color.cellError);
-                } else if (mState == CellState.SINGLE || mState == CellState.CALCULATED) {
-                    bg = ContextCompat.getColor(mBoard.context, R.color.cellCalculated);
-                } else {
-                    bg = ContextCompat.getColor(mBoard.context, R.color.cellNormal);
+                if (mDrawnText == null || fg != mDrawnForeground) {
+                    mTextView.setTextColor(fg);
+                    mDrawnForeground = fg;
                 }
 
-                if (mIsError) {
-                    fg = ContextCompat.getColor(mBoard.context, R.color.numberError);
-                } else if (mState == CellState.SINGLE || mState == CellState.CALCULATED) {
-                    fg = ContextCompat.getColor(mBoard.context, R.color.numberCalculated);
-                } else {
-                    fg = ContextCompat.getColor(mBoard.context, R.color.numberNormal);
+                if (text != mDrawnText) {
+                    mTextView.setText(text);
+                    mDrawnText = text;
                 }
-            } else {
-                bg = ContextCompat.getColor(mBoard.context, R.color.cellInvisible);
-                fg = Color.BLACK;
             }
 
-            mTextView.setBackgroundColor(bg);
-            mTextView.setTextColor(fg);
+            mDrawnNumber = currentNumber;
+            mDrawnState = state;
+            mIsDirty = false;
+        }
+    }
 
-            if ((mVisible || mIsSelected || mIsError) && mCurrentNumber > 0) {
-                mTextView.setText(String.valueOf(mCurrentNumber));
+    /**
+     * Get the colour to fill the cell with, based on its current state.
+     *
+     * @param palette the colours to choose from.
+     */
+    int getBackgroundColour(CellPalette palette) {
+        CellState state;
+
+        if (mVisible || mIsSelected || mIsError) {
+            state = mModel.getState(mIndex);
+
+            if (mIsSelected) {
+                return palette.cellEdit;
+            } else if (mIsError) {
+                return palette.cellError;
+            } else if (state == CellState.SINGLE || state == CellState.CALCULATED) {
+                return palette.cellCalculated;
             } else {
-                mTextView.setText(" ");
+                return palette.cellNormal;
             }
+        } else {
+            return palette.cellInvisible;
+        }
+    }
 
-            //if (mCurrentNumber > 0) {
-            //Log.d(TAG, String.format("[%d][%d] Selected: %d, Error: %d, Fixed: %d", x, y, mIsSelected?1:0, mIsError?1:0, mIsFixed?1:0));
-            //}
+    /**
+     * Get the colour to draw the number in the cell with, based on its current state.
+     *
+     * @param palette the colours to choose from.
+     */
+    int getForegroundColour(CellPalette palette) {
+        CellState state;
 
-            mIsDirty = false;
+        if (mVisible || mIsSelected || mIsError) {
+            state = mModel.getState(mIndex);
+
+            if (mIsError) {
+                return palette.numberError;
+            } else if (state == CellState.SINGLE || state == CellState.CALCULATED) {
+                return palette.numberCalculated;
+            } else {
+                return palette.numberNormal;
+            }
+        } else {
+            return palette.numberInvisible;
+        }
+    }
+
+    /**
+     * Get the text to show in the cell; blank if the cell has no number or isn't being shown.
+     */
+    String getText() {
+        if (mVisible || mIsSelected || mIsError) {
+            return CellPalette.textOf(mModel.getNumber(mIndex));
+        } else {
+            return CellPalette.textOf(0);
         }
     }
 
+    /**
+     * Makes the next drawCell() set everything on the view again; for example after the
+     * palette has changed.
+     */
+    void invalidate() {
+        mDrawnText = null;
+        mIsDirty = true;
+    }
+
     /**
      * Resets the cell to a blank state.
      */
     void clear() {
-        mState = CellState.NOT_SET;
         mIsError = false;
         mIsSelected = false;
         mVisible = false;
-        mCurrentNumber = 0;
-
-        for (int i = 0; i < 9; i++) {
-            mUsage[i] = CellNumberUsage.AVAILABLE;
-        }
-        mAvailable = 9;
+        mModel.clearCell(mIndex);
 
         mIsDirty = true;
     }
-
-    void resetPossibleNumbers() {
-        mAvailable = 0;
-        for (int i = 0; i < 9; i++) {
-            if (mUsage[i] != CellNumberUsage.FIXED) {
-                mUsage[i] = CellNumberUsage.AVAILABLE;
-                ++mAvailable;
-            }
-        }
-    }
 }
@@ -0,0 +1,92 @@
+package me.marcsymonds.sudokusolver.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import me.marcsymonds.sudokusolver.core.BoardModel;
+
+/**
+ * Benchmarks for the board operations the solver uses for every cell it visits. Each operation
+ * is done for every blank cell of a partly solved board.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardModelBenchmark {
+    private BoardModel mBoard;
+    private int[] mBlankCells;
+    private int[] mNumbers;
+
+    @Setup
+    public void setUp() {
+        int cell, count = 0;
+
+        mBoard = new BoardModel();
+        mBoard.setPuzzle(Puzzles.HARD[0]);
+
+        mBlankCells = new int[BoardModel.CELL_COUNT];
+        for (cell = 0; cell < BoardModel.CELL_COUNT; cell++) {
+            if (mBoard.getNumber(cell) == 0 && mBoard.getCandidates(cell) != 0) {
+                mBlankCells[count++] = cell;
+            }
+        }
+
+        mBlankCells = Arrays.copyOf(mBlankCells, count);
+        mNumbers = new int[count];
+        for (cell = 0; cell < count; cell++) {
+            mNumbers[cell] = BoardModel.lowestNumberOf(mBoard.getCandidates(mBlankCells[cell]));
+        }
+    }
+
+    @Benchmark
+    public int getNumberToTryInCell() {
+        int total = 0;
+
+        for (int cell : mBlankCells) {
+            total += mBoard.getNumberToTryInCell(cell);
+        }
+
+        return total;
+    }
+
+    @Benchmark
+    public int findSingleNumber() {
+        int total = 0;
+
+        for (int cell : mBlankCells) {
+            total += mBoard.findSingleNumber(cell);
+        }
+
+        return total;
+    }
+
+    /**
+     * Uses a number and then makes it available again, so the board is the same afterwards.
+     */
+    @Benchmark
+    public int useAndUnuseNumber() {
+        int cell;
+
+        for (int i = 0; i < mBlankCells.length; i++) {
+            cell = mBlankCells[i];
+            mBoard.useNumber(cell, mNumbers[i], false);
+            mBoard.unuseNumber(cell, mNumbers[i]);
+        }
+
+        return mBoard.getCellWithFewestCandidates();
+    }
+}
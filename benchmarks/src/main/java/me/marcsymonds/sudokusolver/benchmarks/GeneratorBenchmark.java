@@ -0,0 +1,68 @@
+package me.marcsymonds.sudokusolver.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import me.marcsymonds.sudokusolver.core.GeneratedPuzzle;
+import me.marcsymonds.sudokusolver.core.PuzzleDifficulty;
+import me.marcsymonds.sudokusolver.core.PuzzleGenerator;
+import me.marcsymonds.sudokusolver.core.PuzzleSymmetry;
+
+/**
+ * Benchmarks the time taken to generate a puzzle, for each difficulty and symmetry. generate()
+ * keeps trying until it gets the difficulty wanted, as the app does; singleAttempt() makes only
+ * one attempt, so the time taken by the checks can be told apart from the number of attempts.
+ * The generators are seeded so every run generates the same puzzles.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeneratorBenchmark {
+    private static final long SEED = 11;
+
+    @Param({"EASY", "MEDIUM", "HARD"})
+    public String difficulty;
+
+    @Param({"NONE", "ROTATIONAL"})
+    public String symmetry;
+
+    private PuzzleDifficulty mDifficulty;
+    private PuzzleSymmetry mSymmetry;
+    private PuzzleGenerator mGenerator;
+    private PuzzleGenerator mSingleAttemptGenerator;
+
+    @Setup
+    public void setUp() {
+        mDifficulty = PuzzleDifficulty.valueOf(difficulty);
+        mSymmetry = PuzzleSymmetry.valueOf(symmetry);
+
+        mGenerator = new PuzzleGenerator(SEED);
+
+        mSingleAttemptGenerator = new PuzzleGenerator(SEED);
+        mSingleAttemptGenerator.setMaxAttempts(1);
+    }
+
+    @Benchmark
+    public GeneratedPuzzle generate() {
+        return mGenerator.generate(mDifficulty, mSymmetry);
+    }
+
+    @Benchmark
+    public GeneratedPuzzle singleAttempt() {
+        return mSingleAttemptGenerator.generate(mDifficulty, mSymmetry);
+    }
+}
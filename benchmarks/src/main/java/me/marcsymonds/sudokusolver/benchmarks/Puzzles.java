@@ -0,0 +1,56 @@
+package me.marcsymonds.sudokusolver.benchmarks;
+
+/**
+ * The puzzles used by the benchmarks, grouped by how hard they are to solve.
+ */
+final class Puzzles {
+    /**
+     * Puzzles that can be solved without guessing
+     */
+    static final String[] EASY = {
+            "53..7....6..195....98....6.8...6...34..8.3..17...2...6.6....28....419..5....8..79",
+            "..3.2.6..9..3.5..1..18.64....81.29..7.......8..67.82....26.95..8..2.3..9..5.1.3..",
+            "2...8.3...6..7..84.3.5..2.9...1.54.8.........4.27.6...3.1..7.4.72..4..6...4.1...3"
+    };
+
+    /**
+     * Puzzles that need a lot of guessing
+     */
+    static final String[] HARD = {
+            "8..........36......7..9.2...5...7.......457.....1...3...1....68..85...1..9....4..",
+            "1....7.9..3..2...8..96..5....53..9...1..8...26....4...3......1..4......7..7...3..",
+            "..53.....8......2..7..1.5..4....53...1..7...6..32...8..6.5....9..4....3......97.."
+    };
+
+    /**
+     * Puzzles with the fewest possible fixed numbers
+     */
+    static final String[] SEVENTEEN_CLUE = {
+            ".......1.4.........2...........5.4.7..8...3....1.9....3..4..2...5.1........8.6...",
+            ".......12....35......6...7.7.....3.....4..8..1...........12.....8.....4..5....6..",
+            ".......12..36..........7...41..2.......5..3..7.....6..28.....4....3..5...........",
+            ".......12..8.3...........4.12.5..........47...6.......5.7...3.....62.......1.....",
+            "4.....8.5.3..........7......2.....6.....8.4......1.......6.3.7.5..2.....1.4......"
+    };
+
+    private Puzzles() {
+    }
+
+    /**
+     * Get a set of puzzles by name.
+     *
+     * @param name EASY, HARD or SEVENTEEN_CLUE.
+     * @return the puzzles.
+     */
+    static String[] named(String name) {
+        if (name.equals("EASY")) {
+            return EASY;
+        } else if (name.equals("HARD")) {
+            return HARD;
+        } else if (name.equals("SEVENTEEN_CLUE")) {
+            return SEVENTEEN_CLUE;
+        } else {
+            throw new IllegalArgumentException("Unknown puzzle set: " + name);
+        }
+    }
+}
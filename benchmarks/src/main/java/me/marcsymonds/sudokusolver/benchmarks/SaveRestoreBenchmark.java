@@ -0,0 +1,113 @@
+package me.marcsymonds.sudokusolver.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import me.marcsymonds.sudokusolver.core.BacktrackingSolver;
+import me.marcsymonds.sudokusolver.core.BoardModel;
+import me.marcsymonds.sudokusolver.core.SavedDataReader;
+import me.marcsymonds.sudokusolver.core.SnapshotReader;
+import me.marcsymonds.sudokusolver.core.SnapshotWriter;
+
+/**
+ * Benchmarks saving and restoring the state of a solver part way through a hard puzzle, as
+ * happens when the app is paused and resumed; both as the older save data strings and as
+ * binary snapshots.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SaveRestoreBenchmark {
+    private static final int ITERATIONS_BEFORE_SAVE = 50;
+
+    private BoardModel mSavedBoard;
+    private BoardModel mBoard;
+    private BacktrackingSolver mSolver;
+    private String mSavedData;
+    private byte[] mSnapshot;
+    private final SnapshotWriter mSnapshotWriter = new SnapshotWriter();
+    private SnapshotReader mSnapshotReader;
+
+    @Setup
+    public void setUp() {
+        StringBuilder data = new StringBuilder();
+
+        mSavedBoard = new BoardModel();
+        mSavedBoard.setPuzzle(Puzzles.HARD[0]);
+
+        BacktrackingSolver solver = new BacktrackingSolver(mSavedBoard);
+        solver.start();
+        solver.run(ITERATIONS_BEFORE_SAVE);
+        solver.getSaveData(data);
+        mSavedData = data.toString();
+
+        mSnapshotWriter.writeHeader();
+        mSavedBoard.writeSnapshot(mSnapshotWriter);
+        solver.writeSnapshot(mSnapshotWriter);
+        mSnapshot = mSnapshotWriter.toByteArray();
+        mSnapshotReader = new SnapshotReader(mSnapshot);
+
+        mBoard = new BoardModel();
+        mBoard.copyFrom(mSavedBoard);
+        mSolver = new BacktrackingSolver(mBoard);
+        mSolver.restoreSavedData(new SavedDataReader(mSavedData));
+    }
+
+    @Benchmark
+    public int save() {
+        StringBuilder data = new StringBuilder();
+
+        mBoard.getUsageSaveData(data);
+        mSolver.getSaveData(data);
+
+        return data.length();
+    }
+
+    /**
+     * Restores the solver on to a copy of the board as it was when it was saved.
+     */
+    @Benchmark
+    public int restore() {
+        mBoard.copyFrom(mSavedBoard);
+        mSolver.restoreSavedData(new SavedDataReader(mSavedData));
+
+        return mBoard.getCellWithFewestCandidates();
+    }
+
+    @Benchmark
+    public int saveSnapshot() {
+        SnapshotWriter writer = mSnapshotWriter;
+
+        writer.reset();
+        writer.writeHeader();
+        mBoard.writeSnapshot(writer);
+        mSolver.writeSnapshot(writer);
+
+        return writer.getSize();
+    }
+
+    @Benchmark
+    public int restoreSnapshot() {
+        SnapshotReader reader = mSnapshotReader;
+
+        reader.reset(mSnapshot, mSnapshot.length);
+        reader.readHeader();
+        mBoard.readSnapshot(reader);
+        mSolver.readSnapshot(reader);
+
+        return mBoard.getCellWithFewestCandidates();
+    }
+}
@@ -0,0 +1,59 @@
+package me.marcsymonds.sudokusolver.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import me.marcsymonds.sudokusolver.core.BoardModel;
+import me.marcsymonds.sudokusolver.core.SolverEngine;
+import me.marcsymonds.sudokusolver.core.SolverEngineType;
+import me.marcsymonds.sudokusolver.core.SolverState;
+
+/**
+ * Benchmarks the time taken to solve a whole puzzle, for each engine and set of puzzles. Each
+ * call solves the next puzzle in the set, reusing the board and engine in the same way as
+ * BatchSolver does.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SolveBenchmark {
+    @Param({"EASY", "HARD", "SEVENTEEN_CLUE"})
+    public String puzzleSet;
+
+    @Param({"BACKTRACKING", "DANCING_LINKS"})
+    public String engineType;
+
+    private String[] mPuzzles;
+    private BoardModel mBoard;
+    private SolverEngine mEngine;
+    private int mNextPuzzle = 0;
+
+    @Setup
+    public void setUp() {
+        mPuzzles = Puzzles.named(puzzleSet);
+        mBoard = new BoardModel();
+        mEngine = SolverEngineType.valueOf(engineType).createEngine(mBoard);
+    }
+
+    @Benchmark
+    public SolverState solve() {
+        mBoard.setPuzzle(mPuzzles[mNextPuzzle]);
+        mNextPuzzle = (mNextPuzzle + 1) % mPuzzles.length;
+
+        return mEngine.solve();
+    }
+}
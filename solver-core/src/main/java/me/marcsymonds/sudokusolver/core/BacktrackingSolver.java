@@ -0,0 +1,813 @@
+package me.marcsymonds.sudokusolver.core;
+
+import java.util.EnumSet;
+
+/**
+ * Attempts to solve a Sudoku board by trying each available number in each cell in turn, and
+ * going back to try the next number in the previous cell when a cell can't be solved.
+ * <p>
+ * After each guess, the solver works out what it can from the numbers on the board before making
+ * the next guess; cells that can only contain one number are always set, and other stages can be
+ * switched on or off (see {@link PropagationStage}). Most published puzzles can be solved by
+ * these stages without any guessing.
+ * <p>
+ * The solver normally stops at the first solution, but can be asked to carry on looking for more
+ * solutions, up to a limit; which is how a puzzle can be checked to have only one solution.
+ * <p>
+ * Every cell that has a number set while solving, and every number that is ruled out for a cell,
+ * is recorded on a trail. When a number is tried in a cell (a guess), the current length of the
+ * trail is remembered, so going back is just a matter of undoing the changes on the trail back to
+ * that point. Everything is held in arrays
+ * that are allocated once, so nothing is allocated while solving.
+ * <p>
+ * By default the next cell to try is the blank cell with the fewest possible numbers, which keeps
+ * the number of guesses down; the cells can also be tried in order (see {@link CellOrdering}).
+ */
+public class BacktrackingSolver implements SolverEngine {
+    private final BoardModel mBoard;
+
+    // The cells that need to be solved, and the position of each cell in the list.
+    private final int[] mCellsToSolve = new int[BoardModel.CELL_COUNT];
+    private final int[] mPositionOf = new int[BoardModel.CELL_COUNT];
+    private int mCellsToSolveCount = 0;
+    private int mSolveCellIdx = 0;
+
+    // The changes made to the board, in the order they were made. An entry less than CELL_COUNT
+    // is a cell that has had a number set; otherwise it is (number * CELL_COUNT) + cell for a
+    // number that has been eliminated from a cell.
+    private final int[] mTrail = new int[BoardModel.CELL_COUNT * (BoardModel.SIZE + 1)];
+    private int mTrailSize = 0;
+
+    // The length of the trail before each guess; the guessed cell is the first entry after it.
+    private final int[] mGuessMarks = new int[BoardModel.CELL_COUNT];
+    private int mGuessCount = 0;
+
+    // The cell to try the next number in after going back, or -1 to choose the next cell.
+    private int mRetryCell = -1;
+
+    private CellOrdering mCellOrdering = CellOrdering.FEWEST_CANDIDATES;
+    private final EnumSet<PropagationStage> mStages = EnumSet.allOf(PropagationStage.class);
+
+    // Working space for the possible numbers of the cells in a unit.
+    private final int[] mUnitCandidates = new int[BoardModel.SIZE];
+
+    // The number of solutions to look for, and the number found so far.
+    private int mSolutionLimit = 1;
+    private int mSolutionCount = 0;
+
+    // Where to count the work done, or null if it isn't being counted.
+    private SolverMetrics mMetrics = null;
+
+    private SolverState mRunState = SolverState.NOT_RUNNING;
+
+    /**
+     * Constructor.
+     *
+     * @param board the board to solve. The board should have been prepared for solving.
+     */
+    public BacktrackingSolver(BoardModel board) {
+        mBoard = board;
+    }
+
+    @Override
+    public BoardModel getBoard() {
+        return mBoard;
+    }
+
+    public CellOrdering getCellOrdering() {
+        return mCellOrdering;
+    }
+
+    /**
+     * Sets how the next cell to try a number in is chosen. This should be set before the solver
+     * is started.
+     *
+     * @param cellOrdering the ordering to use.
+     */
+    public void setCellOrdering(CellOrdering cellOrdering) {
+        mCellOrdering = cellOrdering;
+    }
+
+    public boolean isStageEnabled(PropagationStage stage) {
+        return mStages.contains(stage);
+    }
+
+    /**
+     * Switches one of the propagation stages on or off. All of the stages are on by default. This
+     * should be set before the solver is started.
+     *
+     * @param stage   the stage.
+     * @param enabled whether the stage should be used.
+     */
+    public void setStageEnabled(PropagationStage stage, boolean enabled) {
+        if (enabled) {
+            mStages.add(stage);
+        } else {
+            mStages.remove(stage);
+        }
+    }
+
+    public int getSolutionLimit() {
+        return mSolutionLimit;
+    }
+
+    /**
+     * Sets the number of solutions to look for before the solver finishes. With a limit of more
+     * than 1, the solver goes back and carries on after each solution it finds. This should be
+     * set before the solver is started.
+     *
+     * @param solutionLimit the number of solutions; 1 (the default) stops at the first solution.
+     */
+    public void setSolutionLimit(int solutionLimit) {
+        mSolutionLimit = Math.max(1, solutionLimit);
+    }
+
+    /**
+     * Get the number of solutions found since the solver was started.
+     *
+     * @return the number of solutions; no more than the solution limit.
+     */
+    public int getSolutionCount() {
+        return mSolutionCount;
+    }
+
+    @Override
+    public void setMetrics(SolverMetrics metrics) {
+        mMetrics = metrics;
+    }
+
+    @Override
+    public SolverMetrics getMetrics() {
+        return mMetrics;
+    }
+
+    /**
+     * Counts the solutions of the board, stopping once the limit has been reached. For example,
+     * with a limit of 2 the result is 0 if the puzzle can't be solved, 1 if it has a single
+     * solution, and 2 if it has more than one.
+     * <p>
+     * If the limit is reached, the board is left with the last solution found on it; otherwise
+     * the board is left with only the numbers that could be worked out without guessing.
+     *
+     * @param limit the number of solutions to stop at.
+     * @return the number of solutions found.
+     */
+    public int countSolutions(int limit) {
+        setSolutionLimit(limit);
+        solve();
+
+        return mSolutionCount;
+    }
+
+    /**
+     * Builds the list of cells that need to be solved and works out what it can from the numbers
+     * already on the board.
+     */
+    @Override
+    public void start() {
+        buildCellsToSolve();
+
+        mSolveCellIdx = 0;
+        mTrailSize = 0;
+        mGuessCount = 0;
+        mRetryCell = -1;
+        mSolutionCount = 0;
+        mRunState = SolverState.RUNNING;
+
+        // Before we start solving, work out as much as we can from the numbers already on the
+        // board.
+        if (!propagate()) {
+            mRunState = SolverState.FINISHED_FAILED;
+        }
+    }
+
+    /**
+     * Starts the solver and runs it until the board is either solved or found to be unsolvable.
+     *
+     * @return FINISHED_SUCCESS or FINISHED_FAILED.
+     */
+    @Override
+    public SolverState solve() {
+        start();
+        return run(0);
+    }
+
+    /**
+     * Runs the solver for a number of iterations.
+     *
+     * @param maxIterations the maximum number of iterations to run, or 0 to run until the solver
+     *                      finishes.
+     * @return RUNNING if the solver has not yet finished, otherwise FINISHED_SUCCESS or
+     * FINISHED_FAILED.
+     */
+    @Override
+    public SolverState run(int maxIterations) {
+        int iterations = 0;
+        long startTime = (mMetrics != null) ? System.nanoTime() : 0;
+
+        while (mRunState == SolverState.RUNNING && (maxIterations <= 0 || iterations < maxIterations)) {
+            step();
+            ++iterations;
+        }
+
+        if (mMetrics != null) {
+            mMetrics.mRunNanos += System.nanoTime() - startTime;
+        }
+
+        return mRunState;
+    }
+
+    @Override
+    public SolverState getRunState() {
+        return mRunState;
+    }
+
+    /**
+     * Either tries the next number in the next cell to be solved, or goes back to the previous
+     * guess if there is nothing left to try.
+     */
+    private void step() {
+        int cell;
+        int number;
+
+        if (mBoard.hasDeadCell()) {
+            // A cell can't be solved, so the last guess was wrong.
+            if (mMetrics != null) {
+                ++mMetrics.mDeadEnds;
+            }
+            backtrack();
+            return;
+        }
+
+        if (mRetryCell >= 0) {
+            // Carry on with the cell we have just gone back to.
+            cell = mRetryCell;
+            mRetryCell = -1;
+        } else {
+            cell = nextCellToSolve();
+            if (cell < 0) {
+                // No blank cells left, so must have solved it.
+                solutionFound();
+                return;
+            }
+        }
+
+        number = mBoard.getNumberToTryInCell(cell);
+
+        if (number < 0) {
+            // No numbers to try for this cell. Means we have to go back and try something else.
+            mBoard.resetCellUsage(cell);
+            if (mMetrics != null) {
+                ++mMetrics.mDeadEnds;
+            }
+            backtrack();
+        } else {
+            mGuessMarks[mGuessCount++] = mTrailSize;
+            setNumber(cell, number, CellState.CALCULATED);
+            if (mMetrics != null) {
+                ++mMetrics.mGuesses;
+            }
+
+            if (!propagate()) {
+                // The guess has left the board in a state that can't be solved.
+                backtrack();
+            }
+        }
+    }
+
+    /**
+     * Counts a solution, and either finishes or goes back to look for the next solution.
+     */
+    private void solutionFound() {
+        if (mMetrics != null) {
+            ++mMetrics.mSolutions;
+        }
+
+        if (++mSolutionCount >= mSolutionLimit) {
+            mRunState = SolverState.FINISHED_SUCCESS;
+        } else {
+            backtrack();
+        }
+    }
+
+    /**
+     * Chooses the next cell to try a number in.
+     *
+     * @return index of the cell, or -1 if there are no blank cells left.
+     */
+    private int nextCellToSolve() {
+        if (mCellOrdering == CellOrdering.FEWEST_CANDIDATES) {
+            return mBoard.getCellWithFewestCandidates();
+        }
+
+        // Look for the next cell to solve; skip over cells that already have numbers.
+        while (mSolveCellIdx < mCellsToSolveCount && mBoard.getNumber(mCellsToSolve[mSolveCellIdx]) > 0) {
+            ++mSolveCellIdx;
+        }
+
+        return (mSolveCellIdx < mCellsToSolveCount) ? mCellsToSolve[mSolveCellIdx] : -1;
+    }
+
+    /**
+     * Removes the last guess, and all of the numbers that were set because of it, and marks the
+     * guessed number as tried so that the next number will be tried in the cell.
+     */
+    private void backtrack() {
+        int mark, cell, number;
+
+        if (mGuessCount == 0) {
+            // Nothing left to try.
+            mRunState = (mSolutionCount > 0) ? SolverState.FINISHED_SUCCESS : SolverState.FINISHED_FAILED;
+            return;
+        }
+
+        if (mMetrics != null) {
+            ++mMetrics.mBacktracks;
+        }
+
+        mark = mGuessMarks[--mGuessCount];
+        cell = mTrail[mark];
+        number = mBoard.getNumber(cell);
+
+        undoTrail(mark);
+
+        mBoard.setNumberUsage(cell, number, CellNumberUsage.TRIED);
+        mSolveCellIdx = mPositionOf[cell];
+        mRetryCell = cell;
+    }
+
+    /**
+     * Sets a number in a cell and records it on the trail.
+     */
+    private void setNumber(int cell, int number, CellState state) {
+        mBoard.setNumberUsage(cell, number, CellNumberUsage.USED); // Mark the number as used.
+        mBoard.setNumber(cell, number, state);
+        mBoard.useNumber(cell, number, false); // Mark the associated cells as used.
+
+        mTrail[mTrailSize++] = cell;
+    }
+
+    /**
+     * Rules out numbers for a cell and records them on the trail.
+     *
+     * @param cell index of the cell.
+     * @param mask mask of the numbers to rule out.
+     * @return true if any of the numbers were still possible for the cell.
+     */
+    private boolean eliminate(int cell, int mask) {
+        int number;
+        boolean changed = false;
+
+        mask &= mBoard.getCandidates(cell);
+
+        while (mask != 0) {
+            number = BoardModel.lowestNumberOf(mask);
+            mask &= mask - 1;
+
+            mBoard.eliminateNumber(cell, number);
+            mTrail[mTrailSize++] = (number * BoardModel.CELL_COUNT) + cell;
+            changed = true;
+
+            if (mMetrics != null) {
+                ++mMetrics.mEliminations;
+            }
+        }
+
+        return changed;
+    }
+
+    /**
+     * Undoes the changes on the trail, back to a point on the trail.
+     *
+     * @param mark the length of the trail to go back to.
+     */
+    private void undoTrail(int mark) {
+        int entry, cell, number;
+
+        while (mTrailSize > mark) {
+            entry = mTrail[--mTrailSize];
+            cell = entry % BoardModel.CELL_COUNT;
+
+            if (entry >= BoardModel.CELL_COUNT) {
+                mBoard.restoreNumber(cell, entry / BoardModel.CELL_COUNT);
+            } else {
+                number = mBoard.getNumber(cell);
+                mBoard.unuseNumber(cell, number);
+                mBoard.setNumberUsage(cell, number, CellNumberUsage.AVAILABLE);
+                mBoard.unsetNumber(cell);
+            }
+        }
+    }
+
+    /**
+     * Works out as much as possible from the current state of the board; setting cells that can
+     * only contain one number, and running each of the enabled stages. Setting a number or
+     * ruling one out may allow more to be worked out, so this carries on until nothing changes.
+     *
+     * @return false if the board can't be solved as it is.
+     */
+    private boolean propagate() {
+        long startTime;
+        boolean solvable;
+
+        if (mMetrics == null) {
+            return runStages();
+        }
+
+        startTime = System.nanoTime();
+        solvable = runStages();
+        mMetrics.mPropagationNanos += System.nanoTime() - startTime;
+
+        if (!solvable) {
+            ++mMetrics.mDeadEnds;
+        }
+
+        return solvable;
+    }
+
+    /**
+     * Does the work of propagate().
+     */
+    private boolean runStages() {
+        int cell, result;
+
+        while (!mBoard.hasDeadCell()) {
+            cell = mBoard.getCellWithCandidateCount(1);
+            if (cell >= 0) {
+                setNumber(cell, BoardModel.lowestNumberOf(mBoard.getCandidates(cell)), CellState.SINGLE);
+                if (mMetrics != null) {
+                    ++mMetrics.mSingles;
+                }
+                continue;
+            }
+
+            if (mStages.contains(PropagationStage.HIDDEN_SINGLES)) {
+                result = setHiddenSingle();
+                if (result < 0) {
+                    return false;
+                } else if (result > 0) {
+                    continue;
+                }
+            }
+
+            if (mStages.contains(PropagationStage.NAKED_PAIRS) && eliminateNakedSubsets(2)) {
+                continue;
+            }
+
+            if (mStages.contains(PropagationStage.NAKED_TRIPLES) && eliminateNakedSubsets(3)) {
+                continue;
+            }
+
+            if (mStages.contains(PropagationStage.POINTING_PAIRS) && eliminatePointingPairs()) {
+                continue;
+            }
+
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Looks for a number that can only go in one cell of a unit, and sets it in that cell.
+     *
+     * @return 1 if a number was set, 0 if there were none to set, or -1 if there is a number that
+     * can't go anywhere in one of the units.
+     */
+    private int setHiddenSingle() {
+        int unit, i, cell, number, candidates, once, twice, placed, hidden;
+        int[] cells;
+
+        for (unit = 0; unit < BoardModel.UNIT_COUNT; unit++) {
+            cells = BoardModel.cellsOf(unit);
+            once = 0;
+            twice = 0;
+            placed = 0;
+
+            for (i = 0; i < cells.length; i++) {
+                number = mBoard.getNumber(cells[i]);
+                if (number > 0) {
+                    placed |= BoardModel.bitOf(number);
+                } else {
+                    candidates = mBoard.getCandidates(cells[i]);
+                    twice |= once & candidates;
+                    once |= candidates;
+                }
+            }
+
+            if ((placed | once) != BoardModel.ALL_NUMBERS) {
+                return -1;
+            }
+
+            hidden = once & ~twice;
+            if (hidden != 0) {
+                number = BoardModel.lowestNumberOf(hidden);
+
+                for (i = 0; i < cells.length; i++) {
+                    cell = cells[i];
+                    if (mBoard.getNumber(cell) == 0 && (mBoard.getCandidates(cell) & hidden & -hidden) != 0) {
+                        setNumber(cell, number, CellState.SINGLE);
+                        if (mMetrics != null) {
+                            ++mMetrics.mHiddenSingles;
+                        }
+                        return 1;
+                    }
+                }
+            }
+        }
+
+        return 0;
+    }
+
+    /**
+     * Looks for 2 or 3 cells in a unit which can only contain the same 2 or 3 numbers between
+     * them, and rules those numbers out for the other cells in the unit.
+     *
+     * @param size the number of cells to look for (2 or 3).
+     * @return true if any numbers were ruled out.
+     */
+    private boolean eliminateNakedSubsets(int size) {
+        int unit, a, b, c, i, count, mask;
+        int[] cells;
+        int[] candidates = mUnitCandidates;
+        boolean changed = false;
+
+        for (unit = 0; unit < BoardModel.UNIT_COUNT; unit++) {
+            cells = BoardModel.cellsOf(unit);
+
+            for (i = 0; i < cells.length; i++) {
+                candidates[i] = 0;
+                if (mBoard.getNumber(cells[i]) == 0) {
+                    count = mBoard.getCandidateCount(cells[i]);
+                    if (count >= 2 && count <= size) {
+                        candidates[i] = mBoard.getCandidates(cells[i]);
+                    }
+                }
+            }
+
+            for (a = 0; a < cells.length; a++) {
+                if (candidates[a] == 0) {
+                    continue;
+                }
+
+                for (b = a + 1; b < cells.length; b++) {
+                    if (candidates[b] == 0) {
+                        continue;
+                    }
+
+                    mask = candidates[a] | candidates[b];
+
+                    if (size == 2) {
+                        if (Integer.bitCount(mask) == 2) {
+                            changed |= eliminateFromUnit(cells, mask, (1 << a) | (1 << b));
+                        }
+                    } else if (Integer.bitCount(mask) <= 3) {
+                        for (c = b + 1; c < cells.length; c++) {
+                            if (candidates[c] != 0 && Integer.bitCount(mask | candidates[c]) == 3) {
+                                changed |= eliminateFromUnit(cells, mask | candidates[c], (1 << a) | (1 << b) | (1 << c));
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        return changed;
+    }
+
+    /**
+     * Rules out numbers for the blank cells of a unit, except for some of the cells.
+     *
+     * @param cells     the cells in the unit.
+     * @param mask      mask of the numbers to rule out.
+     * @param positions mask of the positions in the unit of the cells to leave alone.
+     * @return true if any numbers were ruled out.
+     */
+    private boolean eliminateFromUnit(int[] cells, int mask, int positions) {
+        boolean changed = false;
+
+        for (int i = 0; i < cells.length; i++) {
+            if ((positions & (1 << i)) == 0 && mBoard.getNumber(cells[i]) == 0) {
+                changed |= eliminate(cells[i], mask);
+            }
+        }
+
+        return changed;
+    }
+
+    /**
+     * Looks for numbers which can only go in one row or column of a block, and rules them out for
+     * the cells in that row or column outside of the block.
+     *
+     * @return true if any numbers were ruled out.
+     */
+    private boolean eliminatePointingPairs() {
+        int block, i, cell, bit, rows, columns;
+        int[] cells, line;
+        boolean changed = false;
+
+        for (block = 0; block < BoardModel.SIZE; block++) {
+            cells = BoardModel.cellsOf(BoardModel.blockUnit(block));
+
+            for (bit = 1; bit <= BoardModel.ALL_NUMBERS; bit <<= 1) {
+                rows = 0;
+                columns = 0;
+
+                for (i = 0; i < cells.length; i++) {
+                    cell = cells[i];
+                    if (mBoard.getNumber(cell) == 0 && (mBoard.getCandidates(cell) & bit) != 0) {
+                        rows |= 1 << BoardModel.yOf(cell);
+                        columns |= 1 << BoardModel.xOf(cell);
+                    }
+                }
+
+                if (Integer.bitCount(rows) == 1) {
+                    line = BoardModel.cellsOf(BoardModel.rowUnit(Integer.numberOfTrailingZeros(rows)));
+                } else if (Integer.bitCount(columns) == 1) {
+                    line = BoardModel.cellsOf(BoardModel.columnUnit(Integer.numberOfTrailingZeros(columns)));
+                } else {
+                    continue;
+                }
+
+                for (i = 0; i < line.length; i++) {
+                    cell = line[i];
+                    if (BoardModel.blockOf(cell) != block && mBoard.getNumber(cell) == 0) {
+                        changed |= eliminate(cell, bit);
+                    }
+                }
+            }
+        }
+
+        return changed;
+    }
+
+    /**
+     * Builds the list of cells that need to be solved; i.e. the cells that aren't fixed.
+     */
+    private void buildCellsToSolve() {
+        mCellsToSolveCount = 0;
+        for (int cell = 0; cell < BoardModel.CELL_COUNT; cell++) {
+            if (!mBoard.isFixed(cell)) {
+                mPositionOf[cell] = mCellsToSolveCount;
+                mCellsToSolve[mCellsToSolveCount++] = cell;
+            } else {
+                mPositionOf[cell] = -1;
+            }
+        }
+    }
+
+    /**
+     * Returns the indexes of the cells that were solved; i.e. the cells that weren't fixed.
+     *
+     * @return array of cell indexes.
+     */
+    @Override
+    public int[] getSolvedCells() {
+        int[] cells = new int[mCellsToSolveCount];
+
+        System.arraycopy(mCellsToSolve, 0, cells, 0, mCellsToSolveCount);
+
+        return cells;
+    }
+
+    /**
+     * Appends data representing the state of the solver; the settings, the trail and the guesses
+     * on it.
+     * <p>
+     * The numbers in the cells are not included; they are saved with the board.
+     *
+     * @param data the data to append to.
+     */
+    @Override
+    public void getSaveData(StringBuilder data) {
+        int i;
+
+        int stages = 0;
+
+        for (PropagationStage stage : mStages) {
+            stages |= stage.toMask();
+        }
+
+        data.append(String.format("%d%02d%02d%02d%03d%02d", mCellOrdering.toInteger(), stages, mSolveCellIdx, mRetryCell + 1, mTrailSize, mGuessCount));
+
+        for (i = 0; i < mTrailSize; i++) {
+            data.append(String.format("%03d", mTrail[i]));
+        }
+
+        for (i = 0; i < mGuessCount; i++) {
+            data.append(String.format("%03d", mGuessMarks[i]));
+        }
+    }
+
+    /**
+     * Restores the state of the solver, so that it can carry on from where it was when the data
+     * was saved. The board must already have been restored.
+     *
+     * @param dataReader SavedDataReader object to restore the state of the solver from.
+     */
+    @Override
+    public void restoreSavedData(SavedDataReader dataReader) {
+        int i, stages;
+
+        buildCellsToSolve();
+
+        mCellOrdering = CellOrdering.fromInteger(dataReader.readInt());
+        stages = dataReader.readInt(2);
+        mSolveCellIdx = dataReader.readInt(2);
+        mRetryCell = dataReader.readInt(2) - 1;
+        mTrailSize = dataReader.readInt(3);
+        mGuessCount = dataReader.readInt(2);
+
+        mStages.clear();
+        for (PropagationStage stage : PropagationStage.values()) {
+            if ((stages & stage.toMask()) != 0) {
+                mStages.add(stage);
+            }
+        }
+
+        // The eliminated numbers aren't saved with the board, so they are put back from the
+        // trail.
+        for (i = 0; i < mTrailSize; i++) {
+            mTrail[i] = dataReader.readInt(3);
+            if (mTrail[i] >= BoardModel.CELL_COUNT) {
+                mBoard.eliminateNumber(mTrail[i] % BoardModel.CELL_COUNT, mTrail[i] / BoardModel.CELL_COUNT);
+            }
+        }
+
+        for (i = 0; i < mGuessCount; i++) {
+            mGuessMarks[i] = dataReader.readInt(3);
+        }
+
+        mRunState = SolverState.RUNNING;
+    }
+
+    /**
+     * Writes the state of the solver to a snapshot; the same state as getSaveData(), plus the
+     * solution limit and count.
+     *
+     * @param writer the writer to write the snapshot with.
+     */
+    @Override
+    public void writeSnapshot(SnapshotWriter writer) {
+        int i, stages = 0;
+
+        for (PropagationStage stage : mStages) {
+            stages |= stage.toMask();
+        }
+
+        writer.writeBits(mCellOrdering.toInteger(), 2);
+        writer.writeBits(stages, 4);
+        writer.writeBits(mSolveCellIdx, 7);
+        writer.writeBits(mRetryCell + 1, 7);
+        writer.writeBits(Math.min(mSolutionLimit, 0xFFFF), 16);
+        writer.writeBits(Math.min(mSolutionCount, 0xFFFF), 16);
+        writer.writeBits(mTrailSize, 10);
+        writer.writeBits(mGuessCount, 7);
+
+        for (i = 0; i < mTrailSize; i++) {
+            writer.writeBits(mTrail[i], 10);
+        }
+
+        for (i = 0; i < mGuessCount; i++) {
+            writer.writeBits(mGuessMarks[i], 10);
+        }
+    }
+
+    @Override
+    public void readSnapshot(SnapshotReader reader) {
+        int i, stages;
+
+        buildCellsToSolve();
+
+        mCellOrdering = CellOrdering.fromInteger(reader.readBits(2));
+        stages = reader.readBits(4);
+        mSolveCellIdx = reader.readBits(7);
+        mRetryCell = reader.readBits(7) - 1;
+        mSolutionLimit = Math.max(1, reader.readBits(16));
+        mSolutionCount = reader.readBits(16);
+        mTrailSize = reader.readBits(10);
+        mGuessCount = reader.readBits(7);
+
+        mStages.clear();
+        for (PropagationStage stage : PropagationStage.values()) {
+            if ((stages & stage.toMask()) != 0) {
+                mStages.add(stage);
+            }
+        }
+
+        // The board's snapshot has the eliminated numbers, but they are put back from the trail
+        // anyway in case the board was restored from older save data.
+        for (i = 0; i < mTrailSize; i++) {
+            mTrail[i] = reader.readBits(10);
+            if (mTrail[i] >= BoardModel.CELL_COUNT) {
+                mBoard.eliminateNumber(mTrail[i] % BoardModel.CELL_COUNT, mTrail[i] / BoardModel.CELL_COUNT);
+            }
+        }
+
+        for (i = 0; i < mGuessCount; i++) {
+            mGuessMarks[i] = reader.readBits(10);
+        }
+
+        mRunState = SolverState.RUNNING;
+    }
+}
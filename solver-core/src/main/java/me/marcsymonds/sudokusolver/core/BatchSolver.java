@@ -0,0 +1,253 @@
+package me.marcsymonds.sudokusolver.core;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Solves a number of puzzles, one after another, without any user interface.
+ * <p>
+ * Puzzles are strings of 81 characters, in the same format as BoardModel.setPuzzle(); and
+ * solutions are returned in the same format as BoardModel.getPuzzleString(). The board and the
+ * solver engine are created once and reused for every puzzle, so the only thing allocated for
+ * each puzzle is the solution string.
+ * <p>
+ * The engine's metrics can be kept for each puzzle (see setMetricsEnabled()); they are added up
+ * in the stats, and the metrics for the puzzle just solved can be read from the listener.
+ * <p>
+ * If the solver is given a SolutionCache, each puzzle is looked up in the cache before the
+ * engine is started, and the solution of each puzzle the engine solves is added to it.
+ * <p>
+ * A BatchSolver should only be used by one thread at a time.
+ */
+public class BatchSolver {
+    private final BoardModel mBoard = new BoardModel();
+    private final SolverEngine mEngine;
+    private final BatchStats mStats = new BatchStats();
+    private SolverMetrics mPuzzleMetrics = null;
+    private SolutionCache mSolutionCache = null;
+
+    // The solution of the last puzzle, or null if it wasn't solved.
+    private String mSolution = null;
+
+    /**
+     * Receives the solution of each puzzle as it is solved.
+     */
+    public interface SolutionListener {
+        /**
+         * Called after each puzzle has been attempted.
+         *
+         * @param index    position of the puzzle in the batch, starting from 0.
+         * @param puzzle   the puzzle.
+         * @param solution the solution, or null if the puzzle was invalid or couldn't be solved.
+         */
+        void puzzleSolved(long index, String puzzle, String solution);
+    }
+
+    /**
+     * The solutions of a batch of puzzles, and the stats for the batch.
+     */
+    public static class Result {
+        private final List<String> mSolutions;
+        private final BatchStats mStats;
+
+        Result(List<String> solutions, BatchStats stats) {
+            mSolutions = solutions;
+            mStats = stats;
+        }
+
+        /**
+         * Get the solutions, in the same order as the puzzles. The solution is null for puzzles
+         * that were invalid or couldn't be solved.
+         */
+        public List<String> getSolutions() {
+            return mSolutions;
+        }
+
+        public BatchStats getStats() {
+            return mStats;
+        }
+    }
+
+    /**
+     * Constructor; uses the dancing links engine, which has the most predictable solving time.
+     */
+    public BatchSolver() {
+        this(SolverEngineType.DANCING_LINKS);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param engineType the engine to solve the puzzles with.
+     */
+    public BatchSolver(SolverEngineType engineType) {
+        mEngine = engineType.createEngine(mBoard);
+    }
+
+    /**
+     * Get the stats for all of the puzzles solved since this object was created, or the stats
+     * were reset.
+     *
+     * @return the stats.
+     */
+    public BatchStats getStats() {
+        return mStats;
+    }
+
+    public boolean isMetricsEnabled() {
+        return mPuzzleMetrics != null;
+    }
+
+    /**
+     * Switches keeping the engine's metrics on or off. Metrics are off by default.
+     *
+     * @param enabled whether metrics should be kept.
+     */
+    public void setMetricsEnabled(boolean enabled) {
+        mPuzzleMetrics = enabled ? new SolverMetrics() : null;
+        mEngine.setMetrics(mPuzzleMetrics);
+    }
+
+    /**
+     * Get the metrics for the last puzzle solved; for example, from a SolutionListener to find
+     * which puzzles took the most work.
+     *
+     * @return the metrics, or null if metrics aren't being kept.
+     */
+    public SolverMetrics getPuzzleMetrics() {
+        return mPuzzleMetrics;
+    }
+
+    public SolutionCache getSolutionCache() {
+        return mSolutionCache;
+    }
+
+    /**
+     * Sets the cache to look up puzzles in before solving them, and to add solutions to.
+     *
+     * @param solutionCache the cache, which may be shared with other solvers; or null to not use
+     *                      a cache.
+     */
+    public void setSolutionCache(SolutionCache solutionCache) {
+        mSolutionCache = solutionCache;
+    }
+
+    /**
+     * Solves a single puzzle.
+     *
+     * @param puzzle the puzzle.
+     * @return the solution, or null if the puzzle was invalid or couldn't be solved.
+     */
+    public String solve(String puzzle) {
+        long startTime = System.nanoTime();
+        SolverState result = solvePuzzle(puzzle);
+
+        mStats.recordPuzzle(result);
+        if (mPuzzleMetrics != null) {
+            mStats.recordMetrics(mPuzzleMetrics);
+        }
+        mStats.recordElapsed(System.nanoTime() - startTime);
+
+        return mSolution;
+    }
+
+    /**
+     * Solves a list of puzzles.
+     *
+     * @param puzzles the puzzles.
+     * @return the solutions, and the stats for these puzzles.
+     */
+    public Result solveAll(Iterable<String> puzzles) {
+        final List<String> solutions = new ArrayList<>();
+
+        BatchStats stats = solveAll(puzzles.iterator(), new SolutionListener() {
+            @Override
+            public void puzzleSolved(long index, String puzzle, String solution) {
+                solutions.add(solution);
+            }
+        });
+
+        return new Result(solutions, stats);
+    }
+
+    /**
+     * Solves puzzles as they are read from an iterator, passing each solution to a listener
+     * rather than keeping them. This allows a very large set of puzzles to be solved without
+     * holding all of them in memory.
+     *
+     * @param puzzles  the puzzles.
+     * @param listener the listener to receive the solutions, or null if the solutions aren't
+     *                 needed.
+     * @return the stats for these puzzles.
+     */
+    public BatchStats solveAll(Iterator<String> puzzles, SolutionListener listener) {
+        BatchStats stats = new BatchStats();
+        SolverState result;
+        String puzzle;
+        long index = 0;
+        long startTime = System.nanoTime();
+
+        while (puzzles.hasNext()) {
+            puzzle = puzzles.next();
+            result = solvePuzzle(puzzle);
+
+            if (listener != null) {
+                listener.puzzleSolved(index, puzzle, mSolution);
+            }
+
+            stats.recordPuzzle(result);
+            if (mPuzzleMetrics != null) {
+                stats.recordMetrics(mPuzzleMetrics);
+            }
+            ++index;
+        }
+
+        stats.recordElapsed(System.nanoTime() - startTime);
+        mStats.add(stats);
+
+        return stats;
+    }
+
+    /**
+     * Looks up a puzzle in the cache or, if it isn't there, loads it on to the board and solves
+     * it. The solution is left in mSolution.
+     *
+     * @param puzzle the puzzle.
+     * @return FINISHED_SUCCESS or FINISHED_FAILED, or NOT_RUNNING if the puzzle was invalid.
+     */
+    private SolverState solvePuzzle(String puzzle) {
+        SolverState result;
+
+        mSolution = null;
+
+        if (mPuzzleMetrics != null) {
+            mPuzzleMetrics.reset();
+        }
+
+        if (puzzle == null || puzzle.length() < BoardModel.CELL_COUNT) {
+            result = SolverState.NOT_RUNNING;
+        } else {
+            if (mSolutionCache != null) {
+                mSolution = mSolutionCache.get(puzzle);
+            }
+
+            if (mSolution != null) {
+                result = SolverState.FINISHED_SUCCESS;
+            } else {
+                mBoard.setPuzzle(puzzle);
+                result = mBoard.hasConflicts() ? SolverState.NOT_RUNNING : mEngine.solve();
+
+                if (result == SolverState.FINISHED_SUCCESS) {
+                    mSolution = mBoard.getPuzzleString();
+
+                    if (mSolutionCache != null) {
+                        mSolutionCache.put(puzzle, mSolution);
+                    }
+                }
+            }
+        }
+
+        return result;
+    }
+}
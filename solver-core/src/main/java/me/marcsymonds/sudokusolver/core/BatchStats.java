@@ -0,0 +1,125 @@
+package me.marcsymonds.sudokusolver.core;
+
+/**
+ * Counts of the puzzles solved by a BatchSolver, and how long it took to solve them. If the
+ * BatchSolver was keeping metrics, the total of the engine's metrics is kept too.
+ */
+public class BatchStats {
+    private long mPuzzles = 0;
+    private long mSolved = 0;
+    private long mUnsolvable = 0;
+    private long mInvalid = 0;
+    private long mElapsedNanos = 0;
+    private final SolverMetrics mMetrics = new SolverMetrics();
+
+    /**
+     * Total number of puzzles given to the solver
+     */
+    public long getPuzzles() {
+        return mPuzzles;
+    }
+
+    /**
+     * Number of puzzles that were solved
+     */
+    public long getSolved() {
+        return mSolved;
+    }
+
+    /**
+     * Number of puzzles that were valid, but couldn't be solved
+     */
+    public long getUnsolvable() {
+        return mUnsolvable;
+    }
+
+    /**
+     * Number of puzzles that were too short, or had the same number more than once in a row,
+     * column or block
+     */
+    public long getInvalid() {
+        return mInvalid;
+    }
+
+    /**
+     * Time spent solving the puzzles, in nanoseconds
+     */
+    public long getElapsedNanos() {
+        return mElapsedNanos;
+    }
+
+    /**
+     * Get the total of the engine's metrics for the puzzles; all 0 if metrics weren't kept.
+     */
+    public SolverMetrics getMetrics() {
+        return mMetrics;
+    }
+
+    /**
+     * Get the average number of puzzles solved per second.
+     *
+     * @return puzzles per second, or 0 if no time has been recorded.
+     */
+    public double getPuzzlesPerSecond() {
+        return (mElapsedNanos > 0) ? (mPuzzles * 1000000000.0) / mElapsedNanos : 0;
+    }
+
+    /**
+     * Adds the counts from another set of stats to these.
+     *
+     * @param other the stats to add.
+     */
+    public void add(BatchStats other) {
+        addCounts(other);
+        mElapsedNanos += other.mElapsedNanos;
+    }
+
+    /**
+     * Adds the puzzle counts from another set of stats to these, but not the elapsed time; for
+     * when the puzzles were solved at the same time as others.
+     *
+     * @param other the stats to add.
+     */
+    void addCounts(BatchStats other) {
+        mPuzzles += other.mPuzzles;
+        mSolved += other.mSolved;
+        mUnsolvable += other.mUnsolvable;
+        mInvalid += other.mInvalid;
+        mMetrics.add(other.mMetrics);
+    }
+
+    public void reset() {
+        mPuzzles = 0;
+        mSolved = 0;
+        mUnsolvable = 0;
+        mInvalid = 0;
+        mElapsedNanos = 0;
+        mMetrics.reset();
+    }
+
+    void recordPuzzle(SolverState result) {
+        ++mPuzzles;
+
+        if (result == SolverState.FINISHED_SUCCESS) {
+            ++mSolved;
+        } else if (result == SolverState.FINISHED_FAILED) {
+            ++mUnsolvable;
+        } else {
+            ++mInvalid;
+        }
+    }
+
+    void recordMetrics(SolverMetrics metrics) {
+        mMetrics.add(metrics);
+    }
+
+    void recordElapsed(long nanos) {
+        mElapsedNanos += nanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("puzzles=%d, solved=%d, unsolvable=%d, invalid=%d, elapsed=%dms",
+                mPuzzles, mSolved, mUnsolvable, mInvalid, mElapsedNanos / 1000000);
+    }
+}
@@ -0,0 +1,101 @@
+package me.marcsymonds.sudokusolver.core;
+
+/**
+ * Works out which cells of a board have changed since the last time it was looked at, so that
+ * only those cells need to be sent to, and redrawn by, whatever is showing the board.
+ * <p>
+ * A diff is an array with one int for each changed cell, holding the index of the cell, its
+ * number and its state (see cellOf(), numberOf() and stateOf()). The first diff is worked out
+ * against the board as it was when the object was created.
+ */
+public class BoardDiff {
+    private static final int NUMBER_BITS = 4;
+    private static final int STATE_BITS = 2;
+    private static final int VALUE_BITS = NUMBER_BITS + STATE_BITS;
+    private static final int[] NO_CHANGES = new int[0];
+
+    // The number and state of each cell as they were last time, packed as in a diff entry.
+    private final int[] mValues = new int[BoardModel.CELL_COUNT];
+
+    // Work space for the changes, so that only the result has to be allocated.
+    private final int[] mChanges = new int[BoardModel.CELL_COUNT];
+
+    /**
+     * Constructor.
+     *
+     * @param model the board to work out the first diff against.
+     */
+    public BoardDiff(BoardModel model) {
+        reset(model);
+    }
+
+    /**
+     * Forgets any changes, so that the next diff is worked out against the board as it is now.
+     *
+     * @param model the board.
+     */
+    public void reset(BoardModel model) {
+        for (int cell = 0; cell < BoardModel.CELL_COUNT; cell++) {
+            mValues[cell] = valueOf(model, cell);
+        }
+    }
+
+    /**
+     * Works out which cells have changed since the last diff, and remembers the board as it is
+     * now for the next one.
+     *
+     * @param model the board.
+     * @return the changes; an empty array if nothing has changed.
+     */
+    public int[] capture(BoardModel model) {
+        int count = 0;
+        int value;
+        int[] changes;
+
+        for (int cell = 0; cell < BoardModel.CELL_COUNT; cell++) {
+            value = valueOf(model, cell);
+
+            if (value != mValues[cell]) {
+                mValues[cell] = value;
+                mChanges[count++] = (cell << VALUE_BITS) | value;
+            }
+        }
+
+        if (count == 0) {
+            return NO_CHANGES;
+        }
+
+        changes = new int[count];
+        System.arraycopy(mChanges, 0, changes, 0, count);
+
+        return changes;
+    }
+
+    /**
+     * Sets the changed cells on another board.
+     *
+     * @param diff  the changes.
+     * @param model the board to set them on.
+     */
+    public static void apply(int[] diff, BoardModel model) {
+        for (int change : diff) {
+            model.setNumber(cellOf(change), numberOf(change), stateOf(change));
+        }
+    }
+
+    public static int cellOf(int change) {
+        return change >>> VALUE_BITS;
+    }
+
+    public static int numberOf(int change) {
+        return (change >>> STATE_BITS) & ((1 << NUMBER_BITS) - 1);
+    }
+
+    public static CellState stateOf(int change) {
+        return CellState.fromInteger(change & ((1 << STATE_BITS) - 1));
+    }
+
+    private static int valueOf(BoardModel model, int cell) {
+        return (model.getNumber(cell) << STATE_BITS) | model.getState(cell).toInteger();
+    }
+}
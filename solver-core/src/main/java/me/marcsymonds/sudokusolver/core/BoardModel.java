@@ -0,0 +1,831 @@
+package me.marcsymonds.sudokusolver.core;
+
+/**
+ * The state of a Sudoku board, without any of the Android views used to display it.
+ * <p>
+ * Holds the number and state of each cell, which numbers have been tried in each cell, and which
+ * numbers have been used in each row, column and 3x3 block.
+ * <p>
+ * Sets of numbers are held as 9-bit masks, where bit 0 represents the number 1 and bit 8 the
+ * number 9. This means the numbers that are still possible for a cell can be found with a couple
+ * of bitwise operations, rather than checking each number in turn.
+ * <p>
+ * Numbers can also be eliminated from a cell without being used in its row, column or block; for
+ * example when the solver works out that a number must go in one of two other cells. Eliminated
+ * numbers are not possible numbers for the cell.
+ * <p>
+ * The number of possible numbers for each cell is kept up to date as numbers are used and unused,
+ * and each blank cell is kept in a list (bucket) with the other blank cells that have the same
+ * number of possible numbers. Bucket 0 holds the blank cells that have no possible numbers left
+ * ("dead" cells), which lets the solver know straight away that it has to go back; and the blank
+ * cell with the fewest possible numbers can be found without checking every cell.
+ * <p>
+ * Cells are identified by their index on the board, which is (y * 9) + x; so cell 0 is the top
+ * left cell and cell 80 is the bottom right cell.
+ */
+public class BoardModel {
+    public static final int SIZE = 9;
+    public static final int CELL_COUNT = SIZE * SIZE;
+
+    /**
+     * Mask with a bit set for each of the numbers 1 to 9
+     */
+    public static final int ALL_NUMBERS = (1 << SIZE) - 1;
+
+    private static final int[] ROW_OF = new int[CELL_COUNT];
+    private static final int[] COLUMN_OF = new int[CELL_COUNT];
+    private static final int[] BLOCK_OF = new int[CELL_COUNT];
+
+    /**
+     * The 20 other cells which share a row, column or block with each cell
+     */
+    private static final int[][] PEERS = new int[CELL_COUNT][20];
+
+    /**
+     * Number of units (rows, columns and blocks) on the board
+     */
+    public static final int UNIT_COUNT = SIZE * 3;
+
+    /**
+     * The cells in each unit; the rows are units 0-8, the columns 9-17 and the blocks 18-26
+     */
+    private static final int[][] UNITS = new int[UNIT_COUNT][SIZE];
+
+    static {
+        int cell, other, p;
+
+        for (cell = 0; cell < CELL_COUNT; cell++) {
+            ROW_OF[cell] = cell / SIZE;
+            COLUMN_OF[cell] = cell % SIZE;
+            BLOCK_OF[cell] = ((ROW_OF[cell] / 3) * 3) + (COLUMN_OF[cell] / 3);
+        }
+
+        for (cell = 0; cell < CELL_COUNT; cell++) {
+            p = 0;
+            for (other = 0; other < CELL_COUNT; other++) {
+                if (other != cell && (ROW_OF[other] == ROW_OF[cell] || COLUMN_OF[other] == COLUMN_OF[cell] || BLOCK_OF[other] == BLOCK_OF[cell])) {
+                    PEERS[cell][p++] = other;
+                }
+            }
+        }
+
+        int[] unitSize = new int[UNIT_COUNT];
+        for (cell = 0; cell < CELL_COUNT; cell++) {
+            UNITS[ROW_OF[cell]][unitSize[ROW_OF[cell]]++] = cell;
+            UNITS[SIZE + COLUMN_OF[cell]][unitSize[SIZE + COLUMN_OF[cell]]++] = cell;
+            UNITS[(SIZE * 2) + BLOCK_OF[cell]][unitSize[(SIZE * 2) + BLOCK_OF[cell]]++] = cell;
+        }
+    }
+
+    private final int[] mNumbers = new int[CELL_COUNT];
+    private final CellState[] mStates = new CellState[CELL_COUNT];
+
+    // Numbers that have not yet been used or tried in each cell.
+    private final int[] mCellAvailable = new int[CELL_COUNT];
+
+    // Numbers that have been used in each row, column and block.
+    private final int[] mRowUsed = new int[SIZE];
+    private final int[] mColumnUsed = new int[SIZE];
+    private final int[] mBlockUsed = new int[SIZE];
+
+    // Numbers that have been eliminated from each cell.
+    private final int[] mEliminated = new int[CELL_COUNT];
+
+    // Number of possible numbers for each cell.
+    private final int[] mCandidateCount = new int[CELL_COUNT];
+
+    // Blank cells, in doubly linked lists by their number of possible numbers.
+    private final int[] mBucketHead = new int[SIZE + 1];
+    private final int[] mBucketOf = new int[CELL_COUNT];
+    private final int[] mBucketNext = new int[CELL_COUNT];
+    private final int[] mBucketPrev = new int[CELL_COUNT];
+
+    public BoardModel() {
+        for (int i = 0; i <= SIZE; i++) {
+            mBucketHead[i] = -1;
+        }
+
+        for (int cell = 0; cell < CELL_COUNT; cell++) {
+            mBucketOf[cell] = -1;
+        }
+
+        resetUsage();
+        clear();
+    }
+
+    /**
+     * Makes this board an exact copy of another board, including the usage of the numbers and the
+     * possible numbers for each cell.
+     *
+     * @param other the board to copy.
+     */
+    public void copyFrom(BoardModel other) {
+        System.arraycopy(other.mNumbers, 0, mNumbers, 0, CELL_COUNT);
+        System.arraycopy(other.mStates, 0, mStates, 0, CELL_COUNT);
+        System.arraycopy(other.mCellAvailable, 0, mCellAvailable, 0, CELL_COUNT);
+        System.arraycopy(other.mRowUsed, 0, mRowUsed, 0, SIZE);
+        System.arraycopy(other.mColumnUsed, 0, mColumnUsed, 0, SIZE);
+        System.arraycopy(other.mBlockUsed, 0, mBlockUsed, 0, SIZE);
+        System.arraycopy(other.mEliminated, 0, mEliminated, 0, CELL_COUNT);
+        System.arraycopy(other.mCandidateCount, 0, mCandidateCount, 0, CELL_COUNT);
+        System.arraycopy(other.mBucketHead, 0, mBucketHead, 0, SIZE + 1);
+        System.arraycopy(other.mBucketOf, 0, mBucketOf, 0, CELL_COUNT);
+        System.arraycopy(other.mBucketNext, 0, mBucketNext, 0, CELL_COUNT);
+        System.arraycopy(other.mBucketPrev, 0, mBucketPrev, 0, CELL_COUNT);
+    }
+
+    /**
+     * Get the index of a cell from its position on the board.
+     *
+     * @param x x position of the cell (0-8).
+     * @param y y position of the cell (0-8).
+     * @return index of the cell (0-80).
+     */
+    public static int indexOf(int x, int y) {
+        return (y * SIZE) + x;
+    }
+
+    public static int xOf(int cell) {
+        return cell % SIZE;
+    }
+
+    public static int yOf(int cell) {
+        return cell / SIZE;
+    }
+
+    /**
+     * Get the index of the 3x3 block containing a cell. Blocks are numbered 0 to 8, left to right
+     * and top to bottom.
+     *
+     * @param cell index of the cell.
+     * @return index of the block.
+     */
+    public static int blockOf(int cell) {
+        return BLOCK_OF[cell];
+    }
+
+    /**
+     * Get the cells in a unit.
+     *
+     * @param unit index of the unit; rows are 0-8, columns 9-17 and blocks 18-26.
+     * @return the indexes of the cells in the unit. The array must not be changed.
+     */
+    public static int[] cellsOf(int unit) {
+        return UNITS[unit];
+    }
+
+    public static int rowUnit(int row) {
+        return row;
+    }
+
+    public static int columnUnit(int column) {
+        return SIZE + column;
+    }
+
+    public static int blockUnit(int block) {
+        return (SIZE * 2) + block;
+    }
+
+    /**
+     * Get the mask bit representing a number.
+     *
+     * @param number the number (1-9).
+     * @return mask with the bit for the number set.
+     */
+    public static int bitOf(int number) {
+        return 1 << (number - 1);
+    }
+
+    /**
+     * Get the lowest number in a mask.
+     *
+     * @param mask mask of numbers.
+     * @return the lowest number in the mask (1-9), or -1 if the mask is empty.
+     */
+    public static int lowestNumberOf(int mask) {
+        return (mask == 0) ? -1 : Integer.numberOfTrailingZeros(mask) + 1;
+    }
+
+    /**
+     * Resets all of the cells to a blank state.
+     */
+    public void clear() {
+        for (int cell = 0; cell < CELL_COUNT; cell++) {
+            clearCell(cell);
+        }
+    }
+
+    /**
+     * Resets the row, column and block usage so that all numbers are available, and removes any
+     * eliminated numbers.
+     */
+    public void resetUsage() {
+        for (int i = 0; i < SIZE; i++) {
+            mRowUsed[i] = 0;
+            mColumnUsed[i] = 0;
+            mBlockUsed[i] = 0;
+        }
+
+        for (int cell = 0; cell < CELL_COUNT; cell++) {
+            mEliminated[cell] = 0;
+        }
+
+        recountCandidates();
+    }
+
+    /**
+     * Loads a puzzle from a string of 81 characters, one for each cell in the same order as the
+     * cell indexes. The digits 1-9 are set as fixed numbers in the cell, any other character
+     * leaves the cell blank.
+     * <p>
+     * The board is prepared for solving after the puzzle has been loaded.
+     *
+     * @param puzzle the puzzle to load.
+     */
+    public void setPuzzle(CharSequence puzzle) {
+        if (puzzle.length() < CELL_COUNT) {
+            throw new IllegalArgumentException("Puzzle must contain " + CELL_COUNT + " cells.");
+        }
+
+        clear();
+
+        for (int cell = 0; cell < CELL_COUNT; cell++) {
+            char c = puzzle.charAt(cell);
+            if (c >= '1' && c <= '9') {
+                setNumber(cell, c - '0', CellState.HARD_FIXED);
+            }
+        }
+
+        prepareForSolving();
+    }
+
+    /**
+     * Checks if the same number appears more than once in any row, column or block.
+     *
+     * @return true if there are numbers that conflict with each other.
+     */
+    public boolean hasConflicts() {
+        int unit, i, bit, seen;
+        int[] cells;
+
+        for (unit = 0; unit < UNIT_COUNT; unit++) {
+            cells = UNITS[unit];
+            seen = 0;
+
+            for (i = 0; i < cells.length; i++) {
+                if (mNumbers[cells[i]] > 0) {
+                    bit = bitOf(mNumbers[cells[i]]);
+                    if ((seen & bit) != 0) {
+                        return true;
+                    }
+                    seen |= bit;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Returns the current numbers on the board as a string of 81 characters, using '.' for blank
+     * cells.
+     *
+     * @return string representing the board.
+     */
+    public String getPuzzleString() {
+        StringBuilder data = new StringBuilder(CELL_COUNT);
+
+        for (int cell = 0; cell < CELL_COUNT; cell++) {
+            data.append(mNumbers[cell] > 0 ? (char) ('0' + mNumbers[cell]) : '.');
+        }
+
+        return data.toString();
+    }
+
+    /**
+     * Prepares the board for solving by clearing any previously calculated numbers.
+     */
+    public void prepareForSolving() {
+        int cell;
+
+        resetUsage();
+
+        // Clear all previously calculated (i.e. not Fixed) numbers, and reset the
+        // "possible numbers" for the cell.
+        for (cell = 0; cell < CELL_COUNT; cell++) {
+            if (!isFixed(cell)) {
+                resetPossibleNumbers(cell);
+                unsetNumber(cell);
+            }
+        }
+
+        // Now "use" the fixed numbers so that we know which numbers are available for other cells.
+        // Needs to be done separately from the above so that the cells to calculate are set up
+        // before removing the list of fixed values from the available values.
+        for (cell = 0; cell < CELL_COUNT; cell++) {
+            if (isFixed(cell)) {
+                useNumber(cell, mNumbers[cell], true);
+            }
+        }
+    }
+
+    /********************************************************************************/
+    /* Cell state */
+
+    /**
+     * Sets the number in a cell.
+     *
+     * @param cell      index of the cell.
+     * @param newNumber the number to set (1-9).
+     * @param state     the state of the cell. If NOT_SET, then the cell is cleared.
+     * @return true if the number or state of the cell was changed.
+     */
+    public boolean setNumber(int cell, int newNumber, CellState state) {
+        if (mNumbers[cell] != newNumber || state != mStates[cell]) {
+            if (state == CellState.NOT_SET || newNumber < 1 || newNumber > 9) {
+                mNumbers[cell] = 0;
+            } else {
+                mNumbers[cell] = newNumber;
+            }
+
+            mStates[cell] = state;
+            updateBucket(cell);
+
+            return true;
+        }
+
+        return false;
+    }
+
+    public boolean setCalculatedNumber(int cell, int newNumber) {
+        return setNumber(cell, newNumber, CellState.CALCULATED);
+    }
+
+    public boolean setSingleNumber(int cell, int newNumber) {
+        return setNumber(cell, newNumber, CellState.SINGLE);
+    }
+
+    public boolean unsetNumber(int cell) {
+        return setNumber(cell, 0, CellState.NOT_SET);
+    }
+
+    public int getNumber(int cell) {
+        return mNumbers[cell];
+    }
+
+    public CellState getState(int cell) {
+        return mStates[cell];
+    }
+
+    public boolean isFixed(int cell) {
+        return (mStates[cell] == CellState.HARD_FIXED);
+    }
+
+    public void setNumberUsage(int cell, int number, CellNumberUsage usage) {
+        if (usage == CellNumberUsage.AVAILABLE) {
+            mCellAvailable[cell] |= bitOf(number);
+        } else {
+            mCellAvailable[cell] &= ~bitOf(number);
+        }
+    }
+
+    /**
+     * Get how a number has been used in a cell. A number that is no longer available is reported
+     * as USED if it is the cell's current number, otherwise as TRIED.
+     *
+     * @param cell   index of the cell.
+     * @param number the number (1-9).
+     * @return the usage of the number.
+     */
+    public CellNumberUsage getUsage(int cell, int number) {
+        if ((mCellAvailable[cell] & bitOf(number)) != 0) {
+            return CellNumberUsage.AVAILABLE;
+        } else if (mNumbers[cell] == number) {
+            return CellNumberUsage.USED;
+        } else {
+            return CellNumberUsage.TRIED;
+        }
+    }
+
+    public int getAvailable(int cell) {
+        return Integer.bitCount(mCellAvailable[cell]);
+    }
+
+    /**
+     * Makes the numbers that have been used or tried in a cell available again.
+     *
+     * @param cell index of the cell.
+     */
+    public void resetCellUsage(int cell) {
+        mCellAvailable[cell] = ALL_NUMBERS;
+    }
+
+    /**
+     * Resets a cell to a blank state.
+     *
+     * @param cell index of the cell.
+     */
+    public void clearCell(int cell) {
+        mStates[cell] = CellState.NOT_SET;
+        mNumbers[cell] = 0;
+        mCellAvailable[cell] = ALL_NUMBERS;
+        updateBucket(cell);
+    }
+
+    public void resetPossibleNumbers(int cell) {
+        mCellAvailable[cell] = ALL_NUMBERS;
+    }
+
+    /********************************************************************************/
+    /* Row, column and block usage */
+
+    /**
+     * Get the numbers which haven't been used in the cell's row, column or block, and haven't
+     * been eliminated from the cell.
+     *
+     * @param cell index of the cell.
+     * @return mask of the possible numbers.
+     */
+    public int getCandidates(int cell) {
+        return ~(mRowUsed[ROW_OF[cell]] | mColumnUsed[COLUMN_OF[cell]] | mBlockUsed[BLOCK_OF[cell]] | mEliminated[cell]) & ALL_NUMBERS;
+    }
+
+    /**
+     * Determines an available number that can be tried in the specified cell.
+     *
+     * @param cell index of the cell to get the number for.
+     * @return the number to try (1 to 9) or -1 if no numbers are available.
+     */
+    public int getNumberToTryInCell(int cell) {
+        return lowestNumberOf(mCellAvailable[cell] & getCandidates(cell));
+    }
+
+    /**
+     * Determines whether the specified cell is solvable; that is, if there are any numbers that
+     * haven't been used vertically, horizontally or within the block.
+     *
+     * @param cell index of the cell to check.
+     * @return boolean indicating if the cell is solvable.
+     */
+    public boolean isCellSolvable(int cell) {
+        return getCandidates(cell) != 0;
+    }
+
+    /**
+     * Marks a number as used in the cell's row, column and block.
+     *
+     * @param cell   index of the cell the number has been put in.
+     * @param number the number (1-9).
+     * @param fixed  whether the number is one of the puzzle's fixed numbers. Fixed and calculated
+     *               numbers are treated the same way in the masks.
+     */
+    public void useNumber(int cell, int number, boolean fixed) {
+        int bit = bitOf(number);
+        int row = ROW_OF[cell], column = COLUMN_OF[cell], block = BLOCK_OF[cell];
+
+        if (((mRowUsed[row] & mColumnUsed[column] & mBlockUsed[block]) & bit) == 0) {
+            mRowUsed[row] |= bit;
+            mColumnUsed[column] |= bit;
+            mBlockUsed[block] |= bit;
+
+            updateCandidateCounts(cell);
+        }
+    }
+
+    /**
+     * Makes a number available again in the cell's row, column and block.
+     *
+     * @param cell   index of the cell the number has been taken out of.
+     * @param number the number (1-9).
+     */
+    public void unuseNumber(int cell, int number) {
+        int bit = bitOf(number);
+        int row = ROW_OF[cell], column = COLUMN_OF[cell], block = BLOCK_OF[cell];
+
+        if (((mRowUsed[row] | mColumnUsed[column] | mBlockUsed[block]) & bit) != 0) {
+            mRowUsed[row] &= ~bit;
+            mColumnUsed[column] &= ~bit;
+            mBlockUsed[block] &= ~bit;
+
+            updateCandidateCounts(cell);
+        }
+    }
+
+    /**
+     * Removes a number from the possible numbers for a cell, without using it in the cell's row,
+     * column or block.
+     *
+     * @param cell   index of the cell.
+     * @param number the number (1-9).
+     * @return true if the number hadn't already been eliminated from the cell.
+     */
+    public boolean eliminateNumber(int cell, int number) {
+        int bit = bitOf(number);
+
+        if ((mEliminated[cell] & bit) == 0) {
+            mEliminated[cell] |= bit;
+            recountCandidates(cell);
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Makes a number that was eliminated from a cell possible again.
+     *
+     * @param cell   index of the cell.
+     * @param number the number (1-9).
+     */
+    public void restoreNumber(int cell, int number) {
+        int bit = bitOf(number);
+
+        if ((mEliminated[cell] & bit) != 0) {
+            mEliminated[cell] &= ~bit;
+            recountCandidates(cell);
+        }
+    }
+
+    /**
+     * Looks for a number that must go in the specified cell, because every other number has been
+     * used in the cell's row, column or block.
+     *
+     * @param cell index of the cell to check.
+     * @return the number (1 to 9) or -1 if there is no single number for the cell.
+     */
+    public int findSingleNumber(int cell) {
+        int candidates = getCandidates(cell);
+
+        return (Integer.bitCount(candidates) == 1) ? lowestNumberOf(candidates) : -1;
+    }
+
+    /**
+     * Get the number of possible numbers for a cell.
+     *
+     * @param cell index of the cell.
+     * @return the number of possible numbers (0-9).
+     */
+    public int getCandidateCount(int cell) {
+        return mCandidateCount[cell];
+    }
+
+    /**
+     * Indicates if there are any blank cells which have no possible numbers; i.e. the board can't
+     * be solved as it is.
+     *
+     * @return true if there is at least one dead cell.
+     */
+    public boolean hasDeadCell() {
+        return (mBucketHead[0] >= 0);
+    }
+
+    /**
+     * Get one of the blank cells that has no possible numbers.
+     *
+     * @return index of the cell, or -1 if there are no dead cells.
+     */
+    public int getDeadCell() {
+        return mBucketHead[0];
+    }
+
+    /**
+     * Get one of the blank cells with a specific number of possible numbers.
+     *
+     * @param count the number of possible numbers (0-9).
+     * @return index of the cell, or -1 if there are no blank cells with that many possible numbers.
+     */
+    public int getCellWithCandidateCount(int count) {
+        return mBucketHead[count];
+    }
+
+    /**
+     * Get the blank cell with the fewest possible numbers. This will be a dead cell if there are
+     * any.
+     *
+     * @return index of the cell, or -1 if there are no blank cells.
+     */
+    public int getCellWithFewestCandidates() {
+        for (int count = 0; count <= SIZE; count++) {
+            if (mBucketHead[count] >= 0) {
+                return mBucketHead[count];
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Updates the number of possible numbers for a cell and the cells that share its row, column
+     * or block, after a number has been used or unused in the cell.
+     *
+     * @param cell index of the cell.
+     */
+    private void updateCandidateCounts(int cell) {
+        int[] peers = PEERS[cell];
+
+        recountCandidates(cell);
+
+        for (int i = 0; i < peers.length; i++) {
+            recountCandidates(peers[i]);
+        }
+    }
+
+    /**
+     * Recalculates the number of possible numbers for every cell.
+     */
+    private void recountCandidates() {
+        for (int cell = 0; cell < CELL_COUNT; cell++) {
+            recountCandidates(cell);
+        }
+    }
+
+    private void recountCandidates(int cell) {
+        mCandidateCount[cell] = Integer.bitCount(getCandidates(cell));
+        updateBucket(cell);
+    }
+
+    /**
+     * Moves a cell in to the bucket for its number of possible numbers if it is blank, or takes
+     * it out of the buckets if it has a number.
+     *
+     * @param cell index of the cell.
+     */
+    private void updateBucket(int cell) {
+        int bucket = (mNumbers[cell] == 0) ? mCandidateCount[cell] : -1;
+        int current = mBucketOf[cell];
+
+        if (bucket != current) {
+            if (current >= 0) {
+                int next = mBucketNext[cell];
+                int prev = mBucketPrev[cell];
+
+                if (prev >= 0) {
+                    mBucketNext[prev] = next;
+                } else {
+                    mBucketHead[current] = next;
+                }
+
+                if (next >= 0) {
+                    mBucketPrev[next] = prev;
+                }
+            }
+
+            if (bucket >= 0) {
+                int head = mBucketHead[bucket];
+
+                mBucketPrev[cell] = -1;
+                mBucketNext[cell] = head;
+                if (head >= 0) {
+                    mBucketPrev[head] = cell;
+                }
+                mBucketHead[bucket] = cell;
+            }
+
+            mBucketOf[cell] = bucket;
+        }
+    }
+
+    /********************************************************************************/
+    /* Save and restore */
+
+    /**
+     * Appends data representing the number availability of a cell.
+     *
+     * @param cell index of the cell.
+     * @param data the data to append to.
+     */
+    public void getCellUsageSaveData(int cell, StringBuilder data) {
+        data.append(getAvailable(cell));
+
+        for (int n = 1; n <= SIZE; n++) {
+            data.append(getUsage(cell, n).toInteger());
+        }
+    }
+
+    public void restoreCellUsageSavedData(int cell, SavedDataReader savedDataReader) {
+        savedDataReader.readInt(); // Number of available numbers; calculated from the usage.
+
+        mCellAvailable[cell] = readAvailableMask(savedDataReader);
+    }
+
+    /**
+     * Appends data representing the number availability of the rows, columns and blocks.
+     * <p>
+     * The data is in the same format that was used when the usage was held as arrays of
+     * CellNumberUsage, so previously saved data can still be restored.
+     *
+     * @param data the data to append to.
+     */
+    public void getUsageSaveData(StringBuilder data) {
+        int i, n, bit;
+
+        for (i = 0; i < SIZE; i++) {
+            data.append(SIZE - Integer.bitCount(mRowUsed[i]));
+            data.append(SIZE - Integer.bitCount(mColumnUsed[i]));
+            for (n = 0, bit = 1; n < SIZE; n++, bit <<= 1) {
+                data.append(usageOf(mRowUsed[i], bit).toInteger());
+                data.append(usageOf(mColumnUsed[i], bit).toInteger());
+            }
+        }
+
+        for (i = 0; i < SIZE; i++) {
+            data.append(SIZE - Integer.bitCount(mBlockUsed[i]));
+            for (n = 0, bit = 1; n < SIZE; n++, bit <<= 1) {
+                data.append(usageOf(mBlockUsed[i], bit).toInteger());
+            }
+        }
+    }
+
+    public void restoreUsageSavedData(SavedDataReader savedDataReader) {
+        int i, n, bit;
+
+        resetUsage();
+
+        for (i = 0; i < SIZE; i++) {
+            savedDataReader.readInt(); // Available counts; calculated from the usage.
+            savedDataReader.readInt();
+            for (n = 0, bit = 1; n < SIZE; n++, bit <<= 1) {
+                if (CellNumberUsage.fromInteger(savedDataReader.readInt()) != CellNumberUsage.AVAILABLE) {
+                    mRowUsed[i] |= bit;
+                }
+                if (CellNumberUsage.fromInteger(savedDataReader.readInt()) != CellNumberUsage.AVAILABLE) {
+                    mColumnUsed[i] |= bit;
+                }
+            }
+        }
+
+        for (i = 0; i < SIZE; i++) {
+            savedDataReader.readInt();
+            mBlockUsed[i] = ~readAvailableMask(savedDataReader) & ALL_NUMBERS;
+        }
+
+        recountCandidates();
+    }
+
+    /**
+     * Writes the state of the board to a snapshot: the number, state, untried numbers and
+     * eliminated numbers of each cell, and the numbers used in each row, column and block.
+     *
+     * @param writer the writer to write the snapshot with.
+     */
+    public void writeSnapshot(SnapshotWriter writer) {
+        int cell, i;
+
+        for (cell = 0; cell < CELL_COUNT; cell++) {
+            writer.writeBits(mNumbers[cell], 4);
+            writer.writeBits(mStates[cell].toInteger(), 2);
+            writer.writeBits(mCellAvailable[cell], SIZE);
+            writer.writeBits(mEliminated[cell], SIZE);
+        }
+
+        for (i = 0; i < SIZE; i++) {
+            writer.writeBits(mRowUsed[i], SIZE);
+            writer.writeBits(mColumnUsed[i], SIZE);
+            writer.writeBits(mBlockUsed[i], SIZE);
+        }
+    }
+
+    public void readSnapshot(SnapshotReader reader) {
+        int cell, i, number;
+
+        for (cell = 0; cell < CELL_COUNT; cell++) {
+            number = reader.readBits(4);
+            mNumbers[cell] = (number <= SIZE) ? number : 0;
+            mStates[cell] = CellState.fromInteger(reader.readBits(2));
+            mCellAvailable[cell] = reader.readBits(SIZE);
+            mEliminated[cell] = reader.readBits(SIZE);
+        }
+
+        for (i = 0; i < SIZE; i++) {
+            mRowUsed[i] = reader.readBits(SIZE);
+            mColumnUsed[i] = reader.readBits(SIZE);
+            mBlockUsed[i] = reader.readBits(SIZE);
+        }
+
+        // Also moves the cells in to the right buckets for their new numbers.
+        recountCandidates();
+    }
+
+    private static CellNumberUsage usageOf(int usedMask, int bit) {
+        return ((usedMask & bit) != 0) ? CellNumberUsage.USED : CellNumberUsage.AVAILABLE;
+    }
+
+    /**
+     * Reads the usage of the numbers 1 to 9 and converts it to a mask of the numbers that are
+     * available.
+     *
+     * @param savedDataReader the reader to read the usage from.
+     * @return mask of the available numbers.
+     */
+    private static int readAvailableMask(SavedDataReader savedDataReader) {
+        int mask = 0;
+
+        for (int n = 0; n < SIZE; n++) {
+            if (CellNumberUsage.fromInteger(savedDataReader.readInt()) == CellNumberUsage.AVAILABLE) {
+                mask |= (1 << n);
+            }
+        }
+
+        return mask;
+    }
+}
@@ -1,9 +1,9 @@
-package me.marcsymonds.sudokusolver;
+package me.marcsymonds.sudokusolver.core;
 
 /**
  * Indicates how a number has been used in a cell.
  */
-enum CellNumberUsage {
+public enum CellNumberUsage {
     /**
      * The cell has been set by the user manually editing the board
      */
@@ -27,7 +27,7 @@ enum CellNumberUsage {
      * @param val value to convert.
      * @return CellNumberUsage enum value.
      */
-    static CellNumberUsage fromInteger(int val) {
+    public static CellNumberUsage fromInteger(int val) {
         switch (val) {
             case 0:
                 return FIXED;
@@ -45,7 +45,7 @@ enum CellNumberUsage {
      *
      * @return integer representing the enum value.
      */
-    int toInteger() {
+    public int toInteger() {
         switch (this) {
             case FIXED:
                 return 0;
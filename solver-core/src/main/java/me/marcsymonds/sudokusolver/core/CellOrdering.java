@@ -0,0 +1,35 @@
+package me.marcsymonds.sudokusolver.core;
+
+/**
+ * Identifies how the solver chooses the next cell to try a number in.
+ */
+public enum CellOrdering {
+    /**
+     * Go through the cells in order; left to right, top to bottom
+     */
+    ROW_MAJOR,
+    /**
+     * Choose the blank cell with the fewest possible numbers (minimum remaining values)
+     */
+    FEWEST_CANDIDATES;
+
+    public static CellOrdering fromInteger(int val) {
+        switch (val) {
+            case 1:
+                return FEWEST_CANDIDATES;
+
+            default:
+                return ROW_MAJOR;
+        }
+    }
+
+    public int toInteger() {
+        switch (this) {
+            case FEWEST_CANDIDATES:
+                return 1;
+
+            default:
+                return 0;
+        }
+    }
+}
@@ -1,12 +1,12 @@
-package me.marcsymonds.sudokusolver;
+package me.marcsymonds.sudokusolver.core;
 
-enum CellState {
+public enum CellState {
     NOT_SET,
     CALCULATED,
     HARD_FIXED,
     SINGLE;
 
-    static CellState fromInteger(int val) {
+    public static CellState fromInteger(int val) {
 
         switch (val) {
             case 0:
@@ -20,7 +20,7 @@ enum CellState {
         }
     }
 
-    int toInteger() {
+    public int toInteger() {
         switch (this) {
             case CALCULATED:
                 return 0;
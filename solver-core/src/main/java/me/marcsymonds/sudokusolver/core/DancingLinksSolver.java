@@ -0,0 +1,511 @@
+package me.marcsymonds.sudokusolver.core;
+
+/**
+ * Solves a Sudoku board as an exact cover problem, using Knuth's Algorithm X with dancing links.
+ * <p>
+ * Each possible placement of a number in a cell is a row of the matrix, and there are 324
+ * columns; one for each cell, and one for each number in each row, column and block. Each row
+ * covers 4 columns, and a solution is a set of rows which covers every column exactly once.
+ * <p>
+ * The matrix is held as flat arrays of links between nodes, rather than as node objects. Node 0
+ * is the root, nodes 1 to 324 are the column headers, and each row has 4 nodes after those. The
+ * links of the complete matrix are worked out once and copied in when the engine is started, so
+ * nothing is allocated while solving, and the engine can quickly be started again for another
+ * board.
+ * <p>
+ * The search is run one step at a time rather than recursively, so that it can be run for a
+ * number of iterations at a time in the same way as the BacktrackingSolver.
+ */
+public class DancingLinksSolver implements SolverEngine {
+    private static final int SIZE = BoardModel.SIZE;
+    private static final int CELL_COUNT = BoardModel.CELL_COUNT;
+
+    private static final int COLUMN_COUNT = CELL_COUNT * 4;
+    private static final int ROW_COUNT = CELL_COUNT * SIZE;
+    private static final int NODE_COUNT = 1 + COLUMN_COUNT + (ROW_COUNT * 4);
+    private static final int ROOT = 0;
+
+    // The column header of each node, and the matrix row of each node ((cell * 9) + number - 1).
+    // These never change, so are shared by all solvers.
+    private static final int[] COLUMN_OF = new int[NODE_COUNT];
+    private static final int[] ROW_OF = new int[NODE_COUNT];
+
+    // The links of the complete matrix, before anything has been covered; copied in to each
+    // solver when it is started.
+    private static final int[] MATRIX_LEFT = new int[NODE_COUNT];
+    private static final int[] MATRIX_RIGHT = new int[NODE_COUNT];
+    private static final int[] MATRIX_UP = new int[NODE_COUNT];
+    private static final int[] MATRIX_DOWN = new int[NODE_COUNT];
+    private static final int[] MATRIX_COLUMN_SIZE = new int[NODE_COUNT];
+
+    static {
+        int column, cell, number, row, node, i;
+
+        // Column headers, linked in a ring with the root.
+        for (column = 0; column <= COLUMN_COUNT; column++) {
+            MATRIX_LEFT[column] = (column == 0) ? COLUMN_COUNT : column - 1;
+            MATRIX_RIGHT[column] = (column == COLUMN_COUNT) ? 0 : column + 1;
+            MATRIX_UP[column] = column;
+            MATRIX_DOWN[column] = column;
+            COLUMN_OF[column] = column;
+            ROW_OF[column] = -1;
+        }
+
+        node = COLUMN_COUNT + 1;
+
+        for (cell = 0; cell < CELL_COUNT; cell++) {
+            for (number = 1; number <= SIZE; number++) {
+                row = (cell * SIZE) + number - 1;
+
+                for (i = 0; i < 4; i++) {
+                    column = columnFor(cell, number, i);
+
+                    MATRIX_LEFT[node + i] = node + ((i + 3) % 4);
+                    MATRIX_RIGHT[node + i] = node + ((i + 1) % 4);
+
+                    // Add to the bottom of the column.
+                    MATRIX_UP[node + i] = MATRIX_UP[column];
+                    MATRIX_DOWN[node + i] = column;
+                    MATRIX_DOWN[MATRIX_UP[column]] = node + i;
+                    MATRIX_UP[column] = node + i;
+
+                    COLUMN_OF[node + i] = column;
+                    ROW_OF[node + i] = row;
+                    ++MATRIX_COLUMN_SIZE[column];
+                }
+
+                node += 4;
+            }
+        }
+    }
+
+    private final BoardModel mBoard;
+
+    // Links between the nodes.
+    private final int[] mLeft = new int[NODE_COUNT];
+    private final int[] mRight = new int[NODE_COUNT];
+    private final int[] mUp = new int[NODE_COUNT];
+    private final int[] mDown = new int[NODE_COUNT];
+
+    // Number of nodes currently in each column; indexed by the column header node.
+    private final int[] mColumnSize = new int[NODE_COUNT];
+
+    // The node of the row chosen at each level of the search.
+    private final int[] mChosen = new int[CELL_COUNT];
+    private int mLevel = 0;
+
+    // The number in each cell according to the rows that have been chosen.
+    private final int[] mSolution = new int[CELL_COUNT];
+
+    // Where to count the work done, or null if it isn't being counted.
+    private SolverMetrics mMetrics = null;
+
+    private SolverState mRunState = SolverState.NOT_RUNNING;
+
+    /**
+     * Constructor.
+     *
+     * @param board the board to solve. The board should have been prepared for solving.
+     */
+    public DancingLinksSolver(BoardModel board) {
+        mBoard = board;
+    }
+
+    @Override
+    public BoardModel getBoard() {
+        return mBoard;
+    }
+
+    /**
+     * Builds the matrix and chooses the rows for the fixed numbers on the board.
+     */
+    @Override
+    public void start() {
+        mLevel = 0;
+        mRunState = setUpMatrix() ? SolverState.RUNNING : SolverState.FINISHED_FAILED;
+
+        updateBoard();
+    }
+
+    @Override
+    public SolverState solve() {
+        start();
+        return run(0);
+    }
+
+    @Override
+    public SolverState run(int maxIterations) {
+        int iterations = 0;
+        long startTime = (mMetrics != null) ? System.nanoTime() : 0;
+
+        while (mRunState == SolverState.RUNNING && (maxIterations <= 0 || iterations < maxIterations)) {
+            step();
+            ++iterations;
+        }
+
+        updateBoard();
+
+        if (mMetrics != null) {
+            mMetrics.mRunNanos += System.nanoTime() - startTime;
+        }
+
+        return mRunState;
+    }
+
+    @Override
+    public SolverState getRunState() {
+        return mRunState;
+    }
+
+    @Override
+    public void setMetrics(SolverMetrics metrics) {
+        mMetrics = metrics;
+    }
+
+    @Override
+    public SolverMetrics getMetrics() {
+        return mMetrics;
+    }
+
+    /**
+     * Either chooses a row for the column with the fewest rows, or goes back to the previous
+     * choice if there is a column that can't be covered.
+     */
+    private void step() {
+        int column, node;
+
+        if (mRight[ROOT] == ROOT) {
+            // Every column is covered, so the board is solved.
+            mRunState = SolverState.FINISHED_SUCCESS;
+            if (mMetrics != null) {
+                ++mMetrics.mSolutions;
+            }
+            return;
+        }
+
+        column = chooseColumn();
+
+        if (mColumnSize[column] == 0) {
+            // Nothing can go here, so the last choice was wrong.
+            if (mMetrics != null) {
+                ++mMetrics.mDeadEnds;
+            }
+            backtrack();
+            return;
+        }
+
+        if (mMetrics != null) {
+            // A column with only one row is a cell with only one possible number, or a number
+            // that can only go in one cell of a unit.
+            if (mColumnSize[column] == 1) {
+                ++mMetrics.mSingles;
+            } else {
+                ++mMetrics.mGuesses;
+            }
+        }
+
+        cover(column);
+        node = mDown[column];
+        chooseRow(node);
+    }
+
+    /**
+     * Removes the last choice and chooses the next row in the same column. If there are no more
+     * rows in the column, then goes back to the choice before that.
+     */
+    private void backtrack() {
+        int node, column;
+
+        if (mMetrics != null && mLevel > 0) {
+            ++mMetrics.mBacktracks;
+        }
+
+        while (mLevel > 0) {
+            node = mChosen[--mLevel];
+            column = COLUMN_OF[node];
+
+            unchooseRow(node);
+
+            node = mDown[node];
+            if (node != column) {
+                if (mMetrics != null) {
+                    ++mMetrics.mGuesses;
+                }
+                chooseRow(node);
+                return;
+            }
+
+            uncover(column);
+        }
+
+        mRunState = SolverState.FINISHED_FAILED;
+    }
+
+    /**
+     * Get the uncovered column with the fewest rows.
+     *
+     * @return the column header node.
+     */
+    private int chooseColumn() {
+        int column, best = mRight[ROOT];
+
+        for (column = mRight[best]; column != ROOT; column = mRight[column]) {
+            if (mColumnSize[column] < mColumnSize[best]) {
+                best = column;
+                if (mColumnSize[best] <= 1) {
+                    break;
+                }
+            }
+        }
+
+        return best;
+    }
+
+    /**
+     * Adds a row to the solution and covers the other columns in the row. The row's own column
+     * must already have been covered.
+     */
+    private void chooseRow(int node) {
+        mChosen[mLevel++] = node;
+        mSolution[ROW_OF[node] / SIZE] = (ROW_OF[node] % SIZE) + 1;
+
+        for (int other = mRight[node]; other != node; other = mRight[other]) {
+            cover(COLUMN_OF[other]);
+        }
+    }
+
+    /**
+     * Takes a row back out of the solution and uncovers its other columns, in the reverse order
+     * that they were covered.
+     */
+    private void unchooseRow(int node) {
+        for (int other = mLeft[node]; other != node; other = mLeft[other]) {
+            uncover(COLUMN_OF[other]);
+        }
+
+        mSolution[ROW_OF[node] / SIZE] = 0;
+    }
+
+    /**
+     * Removes a column from the header list, and removes the rows in the column from the other
+     * columns they are in.
+     */
+    private void cover(int column) {
+        int row, node;
+
+        mRight[mLeft[column]] = mRight[column];
+        mLeft[mRight[column]] = mLeft[column];
+
+        for (row = mDown[column]; row != column; row = mDown[row]) {
+            for (node = mRight[row]; node != row; node = mRight[node]) {
+                mDown[mUp[node]] = mDown[node];
+                mUp[mDown[node]] = mUp[node];
+                --mColumnSize[COLUMN_OF[node]];
+            }
+        }
+    }
+
+    /**
+     * Puts back a column that was covered; the exact reverse of cover().
+     */
+    private void uncover(int column) {
+        int row, node;
+
+        for (row = mUp[column]; row != column; row = mUp[row]) {
+            for (node = mLeft[row]; node != row; node = mLeft[node]) {
+                ++mColumnSize[COLUMN_OF[node]];
+                mDown[mUp[node]] = node;
+                mUp[mDown[node]] = node;
+            }
+        }
+
+        mRight[mLeft[column]] = column;
+        mLeft[mRight[column]] = column;
+    }
+
+    /**
+     * Sets up the complete matrix, then chooses the rows for the fixed numbers on the board.
+     *
+     * @return false if the fixed numbers conflict with each other.
+     */
+    private boolean setUpMatrix() {
+        int column, cell, number, node, i;
+
+        System.arraycopy(MATRIX_LEFT, 0, mLeft, 0, NODE_COUNT);
+        System.arraycopy(MATRIX_RIGHT, 0, mRight, 0, NODE_COUNT);
+        System.arraycopy(MATRIX_UP, 0, mUp, 0, NODE_COUNT);
+        System.arraycopy(MATRIX_DOWN, 0, mDown, 0, NODE_COUNT);
+        System.arraycopy(MATRIX_COLUMN_SIZE, 0, mColumnSize, 0, NODE_COUNT);
+
+        for (cell = 0; cell < CELL_COUNT; cell++) {
+            mSolution[cell] = 0;
+        }
+
+        // The fixed numbers are chosen before the search starts, and are never taken back out.
+        for (cell = 0; cell < CELL_COUNT; cell++) {
+            number = mBoard.getNumber(cell);
+
+            if (mBoard.isFixed(cell) && number > 0) {
+                node = 1 + COLUMN_COUNT + (((cell * SIZE) + number - 1) * 4);
+
+                // If any of the row's columns have already been covered by another fixed number,
+                // then the fixed numbers conflict.
+                for (i = 0; i < 4; i++) {
+                    column = COLUMN_OF[node + i];
+                    if (mRight[mLeft[column]] != column) {
+                        return false;
+                    }
+                }
+
+                cover(COLUMN_OF[node]);
+                for (i = 1; i < 4; i++) {
+                    cover(COLUMN_OF[node + i]);
+                }
+
+                mSolution[cell] = number;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Get the column header for one of the 4 constraints satisfied by putting a number in a cell.
+     *
+     * @param cell       index of the cell.
+     * @param number     the number (1-9).
+     * @param constraint 0 for the cell, 1 for the number in the row, 2 for the number in the
+     *                   column and 3 for the number in the block.
+     * @return the column header node.
+     */
+    private static int columnFor(int cell, int number, int constraint) {
+        switch (constraint) {
+            case 0:
+                return 1 + cell;
+
+            case 1:
+                return 1 + CELL_COUNT + (BoardModel.yOf(cell) * SIZE) + number - 1;
+
+            case 2:
+                return 1 + (CELL_COUNT * 2) + (BoardModel.xOf(cell) * SIZE) + number - 1;
+
+            default:
+                return 1 + (CELL_COUNT * 3) + (BoardModel.blockOf(cell) * SIZE) + number - 1;
+        }
+    }
+
+    /**
+     * Sets the numbers on the board to match the rows that have been chosen.
+     */
+    private void updateBoard() {
+        int cell, number;
+
+        // Take out the numbers that have changed first, so that the row, column and block usage
+        // stays correct while the new numbers are put in.
+        for (cell = 0; cell < CELL_COUNT; cell++) {
+            number = mBoard.getNumber(cell);
+            if (!mBoard.isFixed(cell) && number > 0 && number != mSolution[cell]) {
+                mBoard.unuseNumber(cell, number);
+                mBoard.unsetNumber(cell);
+            }
+        }
+
+        for (cell = 0; cell < CELL_COUNT; cell++) {
+            if (!mBoard.isFixed(cell) && mSolution[cell] > 0 && mBoard.getNumber(cell) == 0) {
+                mBoard.setNumber(cell, mSolution[cell], CellState.CALCULATED);
+                mBoard.useNumber(cell, mSolution[cell], false);
+            }
+        }
+    }
+
+    @Override
+    public int[] getSolvedCells() {
+        int cell, count = 0;
+
+        for (cell = 0; cell < CELL_COUNT; cell++) {
+            if (!mBoard.isFixed(cell)) {
+                ++count;
+            }
+        }
+
+        int[] cells = new int[count];
+
+        count = 0;
+        for (cell = 0; cell < CELL_COUNT; cell++) {
+            if (!mBoard.isFixed(cell)) {
+                cells[count++] = cell;
+            }
+        }
+
+        return cells;
+    }
+
+    /**
+     * Appends data representing the state of the search; the node chosen at each level.
+     *
+     * @param data the data to append to.
+     */
+    @Override
+    public void getSaveData(StringBuilder data) {
+        data.append(String.format("%02d", mLevel));
+
+        for (int i = 0; i < mLevel; i++) {
+            data.append(String.format("%04d", mChosen[i]));
+        }
+    }
+
+    /**
+     * Restores the state of the search by building the matrix again and choosing the same rows.
+     *
+     * @param dataReader SavedDataReader object to restore the state of the engine from.
+     */
+    @Override
+    public void restoreSavedData(SavedDataReader dataReader) {
+        int level, node;
+
+        start();
+
+        level = dataReader.readInt(2);
+
+        for (int i = 0; i < level; i++) {
+            node = dataReader.readInt(4);
+
+            cover(COLUMN_OF[node]);
+            chooseRow(node);
+        }
+
+        updateBoard();
+    }
+
+    @Override
+    public void writeSnapshot(SnapshotWriter writer) {
+        writer.writeBits(mLevel, 7);
+
+        for (int i = 0; i < mLevel; i++) {
+            writer.writeBits(mChosen[i], 12);
+        }
+    }
+
+    /**
+     * Restores the state of the search by building the matrix again and choosing the same rows.
+     *
+     * @param reader the reader to read the snapshot with.
+     */
+    @Override
+    public void readSnapshot(SnapshotReader reader) {
+        int level, node;
+
+        start();
+
+        level = reader.readBits(7);
+
+        for (int i = 0; i < level; i++) {
+            node = reader.readBits(12);
+
+            cover(COLUMN_OF[node]);
+            chooseRow(node);
+        }
+
+        updateBoard();
+    }
+}
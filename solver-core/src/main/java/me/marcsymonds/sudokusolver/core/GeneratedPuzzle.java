@@ -0,0 +1,52 @@
+package me.marcsymonds.sudokusolver.core;
+
+/**
+ * A puzzle created by the PuzzleGenerator, along with its solution.
+ */
+public class GeneratedPuzzle {
+    private final String mPuzzle;
+    private final String mSolution;
+    private final PuzzleDifficulty mDifficulty;
+    private final int mClueCount;
+
+    GeneratedPuzzle(String puzzle, String solution, PuzzleDifficulty difficulty) {
+        mPuzzle = puzzle;
+        mSolution = solution;
+        mDifficulty = difficulty;
+
+        int clues = 0;
+        for (int i = 0; i < puzzle.length(); i++) {
+            if (puzzle.charAt(i) != '.') {
+                ++clues;
+            }
+        }
+        mClueCount = clues;
+    }
+
+    /**
+     * Get the puzzle, in the same format as BoardModel.getPuzzleString().
+     */
+    public String getPuzzle() {
+        return mPuzzle;
+    }
+
+    public String getSolution() {
+        return mSolution;
+    }
+
+    public PuzzleDifficulty getDifficulty() {
+        return mDifficulty;
+    }
+
+    /**
+     * Get the number of fixed numbers in the puzzle
+     */
+    public int getClueCount() {
+        return mClueCount;
+    }
+
+    @Override
+    public String toString() {
+        return mPuzzle;
+    }
+}
@@ -0,0 +1,336 @@
+package me.marcsymonds.sudokusolver.core;
+
+/**
+ * The state of a Sudoku board of any size from 4x4 to 25x25.
+ * <p>
+ * A board is made up of boxSize x boxSize blocks, each of boxSize x boxSize cells; so a box size
+ * of 2 gives a 4x4 board, 3 the usual 9x9 board, 4 a 16x16 board and 5 a 25x25 board. The
+ * numbers on a board of size N are 1 to N.
+ * <p>
+ * As in BoardModel, sets of numbers are held as bit masks, where bit 0 represents the number 1;
+ * N is at most 25, so a mask fits in an int. The numbers used in each row, column and block are
+ * kept up to date as numbers are set and cleared, so the possible numbers for a cell are found
+ * with a couple of bitwise operations however big the board is.
+ * <p>
+ * Cells are identified by their index on the board, which is (y * N) + x.
+ * <p>
+ * In puzzle strings, the numbers 1-9 are written as digits and the numbers from 10 as letters
+ * starting at 'A' (see SYMBOLS); a blank cell is a '.' or '0'.
+ */
+public class GridModel {
+    public static final int MIN_BOX_SIZE = 2;
+    public static final int MAX_BOX_SIZE = 5;
+
+    /**
+     * The character used for each number in a puzzle string; the first is for the number 1
+     */
+    public static final String SYMBOLS = "123456789ABCDEFGHIJKLMNOP";
+
+    private final int mBoxSize;
+    private final int mSize;
+    private final int mCellCount;
+    private final int mAllNumbers;
+
+    private final int[] mRowOf;
+    private final int[] mColumnOf;
+    private final int[] mBlockOf;
+
+    // The cells in each unit; the rows are units 0 to N-1, then the columns, then the blocks.
+    private final int[][] mUnits;
+
+    private final int[] mNumbers;
+    private final boolean[] mFixed;
+
+    // Numbers that have been used in each row, column and block.
+    private final int[] mRowUsed;
+    private final int[] mColumnUsed;
+    private final int[] mBlockUsed;
+
+    /**
+     * Constructor.
+     *
+     * @param boxSize the size of each block (2-5).
+     */
+    public GridModel(int boxSize) {
+        int cell, unit;
+        int[] unitSize;
+
+        if (boxSize < MIN_BOX_SIZE || boxSize > MAX_BOX_SIZE) {
+            throw new IllegalArgumentException("Box size must be from " + MIN_BOX_SIZE + " to " + MAX_BOX_SIZE + ".");
+        }
+
+        mBoxSize = boxSize;
+        mSize = boxSize * boxSize;
+        mCellCount = mSize * mSize;
+        mAllNumbers = (1 << mSize) - 1;
+
+        mRowOf = new int[mCellCount];
+        mColumnOf = new int[mCellCount];
+        mBlockOf = new int[mCellCount];
+        mUnits = new int[mSize * 3][mSize];
+
+        mNumbers = new int[mCellCount];
+        mFixed = new boolean[mCellCount];
+        mRowUsed = new int[mSize];
+        mColumnUsed = new int[mSize];
+        mBlockUsed = new int[mSize];
+
+        unitSize = new int[mSize * 3];
+        for (cell = 0; cell < mCellCount; cell++) {
+            mRowOf[cell] = cell / mSize;
+            mColumnOf[cell] = cell % mSize;
+            mBlockOf[cell] = ((mRowOf[cell] / boxSize) * boxSize) + (mColumnOf[cell] / boxSize);
+
+            unit = mRowOf[cell];
+            mUnits[unit][unitSize[unit]++] = cell;
+            unit = mSize + mColumnOf[cell];
+            mUnits[unit][unitSize[unit]++] = cell;
+            unit = (mSize * 2) + mBlockOf[cell];
+            mUnits[unit][unitSize[unit]++] = cell;
+        }
+    }
+
+    /**
+     * Works out the box size of a board from the length of its puzzle string.
+     *
+     * @param length the length of the puzzle string.
+     * @return the box size, or 0 if no board has that many cells.
+     */
+    public static int boxSizeFor(int length) {
+        for (int boxSize = MIN_BOX_SIZE; boxSize <= MAX_BOX_SIZE; boxSize++) {
+            if (boxSize * boxSize * boxSize * boxSize == length) {
+                return boxSize;
+            }
+        }
+
+        return 0;
+    }
+
+    /**
+     * Makes this board an exact copy of another board of the same size.
+     *
+     * @param other the board to copy.
+     */
+    public void copyFrom(GridModel other) {
+        if (other.mBoxSize != mBoxSize) {
+            throw new IllegalArgumentException("Boards are different sizes.");
+        }
+
+        System.arraycopy(other.mNumbers, 0, mNumbers, 0, mCellCount);
+        System.arraycopy(other.mFixed, 0, mFixed, 0, mCellCount);
+        System.arraycopy(other.mRowUsed, 0, mRowUsed, 0, mSize);
+        System.arraycopy(other.mColumnUsed, 0, mColumnUsed, 0, mSize);
+        System.arraycopy(other.mBlockUsed, 0, mBlockUsed, 0, mSize);
+    }
+
+    public int getBoxSize() {
+        return mBoxSize;
+    }
+
+    /**
+     * Get the number of cells along each side of the board; also the highest number.
+     */
+    public int getSize() {
+        return mSize;
+    }
+
+    public int getCellCount() {
+        return mCellCount;
+    }
+
+    /**
+     * Get the mask with a bit set for each of the numbers 1 to N.
+     */
+    public int getAllNumbers() {
+        return mAllNumbers;
+    }
+
+    public int getUnitCount() {
+        return mSize * 3;
+    }
+
+    /**
+     * Get the cells in a unit (row, column or block).
+     *
+     * @param unit the unit; the rows are units 0 to N-1, then the columns, then the blocks.
+     * @return the indexes of the cells. This must not be changed.
+     */
+    public int[] getUnit(int unit) {
+        return mUnits[unit];
+    }
+
+    public int rowOf(int cell) {
+        return mRowOf[cell];
+    }
+
+    public int columnOf(int cell) {
+        return mColumnOf[cell];
+    }
+
+    public int blockOf(int cell) {
+        return mBlockOf[cell];
+    }
+
+    /**
+     * Clears all of the cells.
+     */
+    public void clear() {
+        for (int cell = 0; cell < mCellCount; cell++) {
+            mNumbers[cell] = 0;
+            mFixed[cell] = false;
+        }
+
+        for (int i = 0; i < mSize; i++) {
+            mRowUsed[i] = 0;
+            mColumnUsed[i] = 0;
+            mBlockUsed[i] = 0;
+        }
+    }
+
+    /**
+     * Sets up the board from a puzzle string. The numbers in the puzzle are fixed.
+     *
+     * @param puzzle the puzzle; one character for each cell (see SYMBOLS).
+     * @throws IllegalArgumentException if the puzzle is the wrong length or has a character that
+     *                                  isn't a number on this size of board.
+     */
+    public void setPuzzle(CharSequence puzzle) {
+        int number;
+
+        if (puzzle.length() != mCellCount) {
+            throw new IllegalArgumentException("Puzzle must have " + mCellCount + " cells.");
+        }
+
+        clear();
+
+        for (int cell = 0; cell < mCellCount; cell++) {
+            number = numberOf(puzzle.charAt(cell));
+
+            if (number < 0 || number > mSize) {
+                throw new IllegalArgumentException("Invalid character '" + puzzle.charAt(cell) + "' at " + cell + ".");
+            }
+
+            if (number > 0) {
+                setNumber(cell, number);
+                mFixed[cell] = true;
+            }
+        }
+    }
+
+    /**
+     * Get the numbers on the board as a puzzle string, with a '.' for each blank cell.
+     */
+    public String getPuzzleString() {
+        StringBuilder puzzle = new StringBuilder(mCellCount);
+
+        for (int cell = 0; cell < mCellCount; cell++) {
+            puzzle.append(symbolOf(mNumbers[cell]));
+        }
+
+        return puzzle.toString();
+    }
+
+    /**
+     * Get the number a character represents in a puzzle string.
+     *
+     * @param symbol the character.
+     * @return the number, 0 for a blank cell, or -1 if the character isn't a number.
+     */
+    public static int numberOf(char symbol) {
+        int index;
+
+        if (symbol == '.' || symbol == '0') {
+            return 0;
+        }
+
+        index = SYMBOLS.indexOf(Character.toUpperCase(symbol));
+
+        return (index < 0) ? -1 : index + 1;
+    }
+
+    /**
+     * Get the character used for a number in a puzzle string.
+     *
+     * @param number the number, or 0 for a blank cell.
+     */
+    public static char symbolOf(int number) {
+        return (number == 0) ? '.' : SYMBOLS.charAt(number - 1);
+    }
+
+    public int getNumber(int cell) {
+        return mNumbers[cell];
+    }
+
+    public boolean isFixed(int cell) {
+        return mFixed[cell];
+    }
+
+    /**
+     * Indicates if the numbers on the board break any of the rules; i.e. a number is used more
+     * than once in a row, column or block.
+     */
+    public boolean hasConflicts() {
+        int used, bit;
+
+        for (int[] unit : mUnits) {
+            used = 0;
+
+            for (int cell : unit) {
+                if (mNumbers[cell] > 0) {
+                    bit = 1 << (mNumbers[cell] - 1);
+                    if ((used & bit) != 0) {
+                        return true;
+                    }
+                    used |= bit;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Get the numbers that can go in a blank cell; the numbers not used in its row, column or
+     * block.
+     *
+     * @param cell index of the cell.
+     * @return mask of the possible numbers; 0 if the cell isn't blank.
+     */
+    public int getCandidates(int cell) {
+        if (mNumbers[cell] != 0) {
+            return 0;
+        }
+
+        return mAllNumbers & ~(mRowUsed[mRowOf[cell]] | mColumnUsed[mColumnOf[cell]] | mBlockUsed[mBlockOf[cell]]);
+    }
+
+    /**
+     * Sets the number in a blank cell, and marks it as used in the cell's row, column and block.
+     * The number should be one of the cell's candidates.
+     *
+     * @param cell   index of the cell.
+     * @param number the number (1-N).
+     */
+    public void setNumber(int cell, int number) {
+        int bit = 1 << (number - 1);
+
+        mNumbers[cell] = number;
+        mRowUsed[mRowOf[cell]] |= bit;
+        mColumnUsed[mColumnOf[cell]] |= bit;
+        mBlockUsed[mBlockOf[cell]] |= bit;
+    }
+
+    /**
+     * Clears a cell that was set with setNumber().
+     *
+     * @param cell index of the cell.
+     */
+    public void clearNumber(int cell) {
+        int bit = 1 << (mNumbers[cell] - 1);
+
+        mNumbers[cell] = 0;
+        mRowUsed[mRowOf[cell]] &= ~bit;
+        mColumnUsed[mColumnOf[cell]] &= ~bit;
+        mBlockUsed[mBlockOf[cell]] &= ~bit;
+    }
+}
@@ -0,0 +1,283 @@
+package me.marcsymonds.sudokusolver.core;
+
+/**
+ * Solves a Sudoku board of any size from 4x4 to 25x25 (see {@link GridModel}).
+ * <p>
+ * Works in the same way as BacktrackingSolver: before each guess it sets every cell that can
+ * only contain one number, and every number that can only go in one cell of a row, column or
+ * block; then it tries each possible number in the blank cell with the fewest possible numbers,
+ * going back to the last guess when a cell or a number has nowhere left to go.
+ * <p>
+ * Every cell that has a number set is recorded on a trail, and the length of the trail is
+ * remembered for each guess, so going back is just a matter of clearing the cells on the trail
+ * back to that point. The arrays are allocated once for the size of the board, so nothing is
+ * allocated while solving.
+ */
+public class GridSolver {
+    private final GridModel mBoard;
+
+    // The cells that have had a number set, in the order they were set.
+    private final int[] mTrail;
+    private int mTrailSize = 0;
+
+    // For each guess; the length of the trail before it, the cell, and the numbers still to try.
+    private final int[] mGuessMarks;
+    private final int[] mGuessCells;
+    private final int[] mGuessRemaining;
+    private int mGuessCount = 0;
+
+    // Where to count the work done, or null if it isn't being counted.
+    private SolverMetrics mMetrics = null;
+
+    private SolverState mRunState = SolverState.NOT_RUNNING;
+
+    /**
+     * Constructor.
+     *
+     * @param board the board to solve.
+     */
+    public GridSolver(GridModel board) {
+        mBoard = board;
+
+        mTrail = new int[board.getCellCount()];
+        mGuessMarks = new int[board.getCellCount()];
+        mGuessCells = new int[board.getCellCount()];
+        mGuessRemaining = new int[board.getCellCount()];
+    }
+
+    public GridModel getBoard() {
+        return mBoard;
+    }
+
+    /**
+     * Sets the object to count the solver's work in, or null to stop counting.
+     */
+    public void setMetrics(SolverMetrics metrics) {
+        mMetrics = metrics;
+    }
+
+    public SolverMetrics getMetrics() {
+        return mMetrics;
+    }
+
+    public SolverState getRunState() {
+        return mRunState;
+    }
+
+    /**
+     * Solves the board. When the board is solved, the numbers are left on the board; otherwise
+     * the board is left as it was.
+     *
+     * @return FINISHED_SUCCESS or FINISHED_FAILED.
+     */
+    public SolverState solve() {
+        long startTime = (mMetrics != null) ? System.nanoTime() : 0;
+        int cell, candidates, bit;
+
+        mTrailSize = 0;
+        mGuessCount = 0;
+        mRunState = SolverState.RUNNING;
+
+        if (mBoard.hasConflicts()) {
+            mRunState = SolverState.FINISHED_FAILED;
+        }
+
+        while (mRunState == SolverState.RUNNING) {
+            if (!propagate()) {
+                if (mMetrics != null) {
+                    ++mMetrics.mDeadEnds;
+                }
+
+                if (!backtrack()) {
+                    undoTo(0);
+                    mRunState = SolverState.FINISHED_FAILED;
+                }
+            } else {
+                cell = getCellWithFewestCandidates();
+
+                if (cell < 0) {
+                    if (mMetrics != null) {
+                        ++mMetrics.mSolutions;
+                    }
+
+                    mRunState = SolverState.FINISHED_SUCCESS;
+                } else {
+                    // Try the lowest possible number, and remember the rest for going back.
+                    candidates = mBoard.getCandidates(cell);
+                    bit = candidates & -candidates;
+
+                    mGuessMarks[mGuessCount] = mTrailSize;
+                    mGuessCells[mGuessCount] = cell;
+                    mGuessRemaining[mGuessCount] = candidates & ~bit;
+                    ++mGuessCount;
+
+                    if (mMetrics != null) {
+                        ++mMetrics.mGuesses;
+                    }
+
+                    setCell(cell, bit);
+                }
+            }
+        }
+
+        if (mMetrics != null) {
+            mMetrics.mRunNanos += System.nanoTime() - startTime;
+        }
+
+        return mRunState;
+    }
+
+    /**
+     * Goes back to the last guess that still has a number to try, and tries it.
+     *
+     * @return false if there are no guesses left to go back to.
+     */
+    private boolean backtrack() {
+        int guess, remaining, bit;
+
+        while (mGuessCount > 0) {
+            guess = mGuessCount - 1;
+            undoTo(mGuessMarks[guess]);
+
+            remaining = mGuessRemaining[guess];
+            if (remaining != 0) {
+                bit = remaining & -remaining;
+                mGuessRemaining[guess] = remaining & ~bit;
+
+                if (mMetrics != null) {
+                    ++mMetrics.mBacktracks;
+                }
+
+                setCell(mGuessCells[guess], bit);
+                return true;
+            }
+
+            --mGuessCount;
+        }
+
+        return false;
+    }
+
+    /**
+     * Sets the cells that only have one possible number, and the numbers that can only go in one
+     * cell of a unit, until there are none left.
+     *
+     * @return false if a cell has no possible numbers, or a number can't go anywhere in a unit.
+     */
+    private boolean propagate() {
+        boolean changed = true;
+        int cellCount = mBoard.getCellCount();
+        int allNumbers = mBoard.getAllNumbers();
+        int cell, candidates, once, twice, used, hidden, bit;
+        int[] unit;
+
+        while (changed) {
+            changed = false;
+
+            // Cells with only one possible number.
+            for (cell = 0; cell < cellCount; cell++) {
+                if (mBoard.getNumber(cell) == 0) {
+                    candidates = mBoard.getCandidates(cell);
+
+                    if (candidates == 0) {
+                        return false;
+                    } else if ((candidates & (candidates - 1)) == 0) {
+                        setCell(cell, candidates);
+                        changed = true;
+
+                        if (mMetrics != null) {
+                            ++mMetrics.mSingles;
+                        }
+                    }
+                }
+            }
+
+            // Numbers that can only go in one cell of a unit.
+            for (int u = 0; u < mBoard.getUnitCount(); u++) {
+                unit = mBoard.getUnit(u);
+                once = 0;
+                twice = 0;
+                used = 0;
+
+                for (int c : unit) {
+                    if (mBoard.getNumber(c) != 0) {
+                        used |= 1 << (mBoard.getNumber(c) - 1);
+                    } else {
+                        candidates = mBoard.getCandidates(c);
+                        twice |= once & candidates;
+                        once |= candidates;
+                    }
+                }
+
+                if ((once | used) != allNumbers) {
+                    return false;
+                }
+
+                hidden = once & ~twice;
+                while (hidden != 0) {
+                    bit = hidden & -hidden;
+                    hidden &= ~bit;
+
+                    cell = findCellFor(unit, bit);
+                    if (cell < 0) {
+                        // The cell was the only place for another number as well.
+                        return false;
+                    }
+
+                    setCell(cell, bit);
+                    changed = true;
+
+                    if (mMetrics != null) {
+                        ++mMetrics.mHiddenSingles;
+                    }
+                }
+            }
+        }
+
+        return true;
+    }
+
+    private int findCellFor(int[] unit, int bit) {
+        for (int cell : unit) {
+            if ((mBoard.getCandidates(cell) & bit) != 0) {
+                return cell;
+            }
+        }
+
+        return -1;
+    }
+
+    private int getCellWithFewestCandidates() {
+        int best = -1;
+        int bestCount = Integer.MAX_VALUE;
+        int count;
+
+        for (int cell = 0; cell < mBoard.getCellCount(); cell++) {
+            if (mBoard.getNumber(cell) == 0) {
+                count = Integer.bitCount(mBoard.getCandidates(cell));
+
+                if (count < bestCount) {
+                    best = cell;
+                    bestCount = count;
+
+                    if (count <= 2) {
+                        break;
+                    }
+                }
+            }
+        }
+
+        return best;
+    }
+
+    private void setCell(int cell, int bit) {
+        mBoard.setNumber(cell, Integer.numberOfTrailingZeros(bit) + 1);
+        mTrail[mTrailSize++] = cell;
+    }
+
+    private void undoTo(int mark) {
+        while (mTrailSize > mark) {
+            mBoard.clearNumber(mTrail[--mTrailSize]);
+        }
+    }
+}
@@ -0,0 +1,345 @@
+package me.marcsymonds.sudokusolver.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Solves a number of puzzles on several threads at the same time.
+ * <p>
+ * The puzzles are split in to chunks, and each worker thread takes the next chunk when it has
+ * finished the last one. Each worker has its own BatchSolver, so the workers don't share any
+ * board state, and the BatchSolvers are kept and reused for the next batch.
+ * <p>
+ * Solutions can be passed to the listener in the same order as the puzzles, or in the order the
+ * chunks are finished; which is faster, because a worker never has to wait for a slower chunk.
+ * Either way, the listener is only called by one thread at a time.
+ */
+public class ParallelBatchSolver {
+    /**
+     * Default number of puzzles a worker takes at a time
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 256;
+
+    private final ExecutorService mExecutor;
+    private final boolean mOwnsExecutor;
+    private final BatchSolver[] mWorkerSolvers;
+    private int mChunkSize = DEFAULT_CHUNK_SIZE;
+
+    /**
+     * Constructor; uses a worker thread for each processor.
+     *
+     * @param engineType the engine to solve the puzzles with.
+     */
+    public ParallelBatchSolver(SolverEngineType engineType) {
+        this(engineType, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructor; creates a pool with a number of worker threads. The pool is shut down by
+     * shutdown().
+     *
+     * @param engineType the engine to solve the puzzles with.
+     * @param threads    the number of worker threads.
+     */
+    public ParallelBatchSolver(SolverEngineType engineType, int threads) {
+        this(engineType, Executors.newFixedThreadPool(threads), threads, true);
+    }
+
+    /**
+     * Constructor; runs the workers on an existing executor, such as a ForkJoinPool. The executor
+     * is not shut down by shutdown().
+     *
+     * @param engineType the engine to solve the puzzles with.
+     * @param executor   the executor to run the workers on.
+     * @param workers    the number of workers to run at the same time.
+     */
+    public ParallelBatchSolver(SolverEngineType engineType, ExecutorService executor, int workers) {
+        this(engineType, executor, workers, false);
+    }
+
+    private ParallelBatchSolver(SolverEngineType engineType, ExecutorService executor, int workers, boolean ownsExecutor) {
+        if (workers < 1) {
+            throw new IllegalArgumentException("There must be at least one worker.");
+        }
+
+        mExecutor = executor;
+        mOwnsExecutor = ownsExecutor;
+        mWorkerSolvers = new BatchSolver[workers];
+
+        for (int i = 0; i < workers; i++) {
+            mWorkerSolvers[i] = new BatchSolver(engineType);
+        }
+    }
+
+    public int getWorkerCount() {
+        return mWorkerSolvers.length;
+    }
+
+    /**
+     * Switches keeping the engine's metrics on or off for every worker. The metrics are added up
+     * in the stats returned by solveAll().
+     *
+     * @param enabled whether metrics should be kept.
+     */
+    public void setMetricsEnabled(boolean enabled) {
+        for (BatchSolver solver : mWorkerSolvers) {
+            solver.setMetricsEnabled(enabled);
+        }
+    }
+
+    /**
+     * Sets the cache every worker looks up puzzles in before solving them, and adds solutions to.
+     *
+     * @param solutionCache the cache, or null to not use a cache.
+     */
+    public void setSolutionCache(SolutionCache solutionCache) {
+        for (BatchSolver solver : mWorkerSolvers) {
+            solver.setSolutionCache(solutionCache);
+        }
+    }
+
+    public int getChunkSize() {
+        return mChunkSize;
+    }
+
+    /**
+     * Sets the number of puzzles a worker takes at a time. Smaller chunks spread the work more
+     * evenly, larger chunks mean the workers spend less time waiting for each other.
+     *
+     * @param chunkSize the number of puzzles in a chunk.
+     */
+    public void setChunkSize(int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be at least 1.");
+        }
+
+        mChunkSize = chunkSize;
+    }
+
+    /**
+     * Solves a list of puzzles.
+     *
+     * @param puzzles the puzzles.
+     * @return the solutions, in the same order as the puzzles, and the stats for these puzzles.
+     */
+    public BatchSolver.Result solveAll(List<String> puzzles) {
+        final String[] solutions = new String[puzzles.size()];
+
+        // Each solution goes in its own slot, so they don't need to be delivered in order.
+        BatchStats stats = solveAll(puzzles.iterator(), new BatchSolver.SolutionListener() {
+            @Override
+            public void puzzleSolved(long index, String puzzle, String solution) {
+                solutions[(int) index] = solution;
+            }
+        }, false);
+
+        return new BatchSolver.Result(Arrays.asList(solutions), stats);
+    }
+
+    /**
+     * Solves puzzles as they are read from an iterator, passing each solution to a listener.
+     * The iterator is only used by one thread at a time, so doesn't need to be thread safe.
+     *
+     * @param puzzles  the puzzles.
+     * @param listener the listener to receive the solutions, or null if the solutions aren't
+     *                 needed.
+     * @param ordered  true if the solutions must be passed to the listener in the same order as
+     *                 the puzzles.
+     * @return the stats for these puzzles. The elapsed time is the time taken to solve all of the
+     * puzzles, rather than the total time spent by each worker.
+     */
+    public BatchStats solveAll(Iterator<String> puzzles, BatchSolver.SolutionListener listener, boolean ordered) {
+        Batch batch = new Batch(puzzles, listener, ordered);
+        List<Future<BatchStats>> results = new ArrayList<>(mWorkerSolvers.length);
+        BatchStats stats = new BatchStats();
+        Throwable failure = null;
+        long startTime = System.nanoTime();
+
+        for (BatchSolver solver : mWorkerSolvers) {
+            results.add(mExecutor.submit(new Worker(solver, batch)));
+        }
+
+        for (Future<BatchStats> result : results) {
+            try {
+                stats.addCounts(result.get());
+            } catch (ExecutionException e) {
+                batch.stop();
+                failure = e.getCause();
+            } catch (InterruptedException e) {
+                batch.stop();
+                Thread.currentThread().interrupt();
+                failure = e;
+            }
+        }
+
+        if (failure != null) {
+            throw new RuntimeException("Batch solving failed.", failure);
+        }
+
+        stats.recordElapsed(System.nanoTime() - startTime);
+
+        return stats;
+    }
+
+    /**
+     * Shuts down the worker threads, if they were created by this object.
+     */
+    public void shutdown() {
+        if (mOwnsExecutor) {
+            mExecutor.shutdown();
+        }
+    }
+
+    /**
+     * The state shared by the workers while a batch is being solved; where the next chunk comes
+     * from, and which chunk's solutions are to be passed to the listener next. All access is
+     * synchronized on this object.
+     */
+    private static class Batch {
+        private final Iterator<String> mPuzzles;
+        private final BatchSolver.SolutionListener mListener;
+        private final boolean mOrdered;
+
+        private long mNextIndex = 0;
+        private long mNextChunk = 0;
+        private long mNextDelivery = 0;
+        private boolean mStopped = false;
+
+        // Chunks that have been solved before the chunks ahead of them; only used when ordered.
+        private final Map<Long, Chunk> mWaiting = new HashMap<>();
+
+        Batch(Iterator<String> puzzles, BatchSolver.SolutionListener listener, boolean ordered) {
+            mPuzzles = puzzles;
+            mListener = listener;
+            mOrdered = ordered;
+        }
+
+        /**
+         * Fills a chunk with the next puzzles.
+         *
+         * @return false if there are no puzzles left.
+         */
+        synchronized boolean nextChunk(Chunk chunk, int chunkSize) {
+            chunk.mCount = 0;
+
+            if (mStopped) {
+                return false;
+            }
+
+            while (chunk.mCount < chunkSize && mPuzzles.hasNext()) {
+                chunk.mPuzzles[chunk.mCount++] = mPuzzles.next();
+            }
+
+            chunk.mNumber = mNextChunk++;
+            chunk.mFirstIndex = mNextIndex;
+            mNextIndex += chunk.mCount;
+
+            return chunk.mCount > 0;
+        }
+
+        synchronized void stop() {
+            mStopped = true;
+        }
+
+        /**
+         * Passes the solutions in a chunk to the listener, or keeps a copy of the chunk if it has
+         * to wait for the chunks before it.
+         */
+        synchronized void deliver(Chunk chunk) {
+            if (mListener == null) {
+                return;
+            }
+
+            if (!mOrdered) {
+                chunk.deliverTo(mListener);
+            } else if (chunk.mNumber != mNextDelivery) {
+                mWaiting.put(chunk.mNumber, chunk.copy());
+            } else {
+                chunk.deliverTo(mListener);
+                ++mNextDelivery;
+
+                while ((chunk = mWaiting.remove(mNextDelivery)) != null) {
+                    chunk.deliverTo(mListener);
+                    ++mNextDelivery;
+                }
+            }
+        }
+    }
+
+    /**
+     * A set of puzzles taken by a worker, and their solutions.
+     */
+    private static class Chunk {
+        private final String[] mPuzzles;
+        private final String[] mSolutions;
+        private int mCount = 0;
+        private long mNumber;
+        private long mFirstIndex;
+
+        Chunk(int size) {
+            mPuzzles = new String[size];
+            mSolutions = new String[size];
+        }
+
+        Chunk copy() {
+            Chunk copy = new Chunk(mCount);
+
+            System.arraycopy(mPuzzles, 0, copy.mPuzzles, 0, mCount);
+            System.arraycopy(mSolutions, 0, copy.mSolutions, 0, mCount);
+            copy.mCount = mCount;
+            copy.mNumber = mNumber;
+            copy.mFirstIndex = mFirstIndex;
+
+            return copy;
+        }
+
+        void deliverTo(BatchSolver.SolutionListener listener) {
+            for (int i = 0; i < mCount; i++) {
+                listener.puzzleSolved(mFirstIndex + i, mPuzzles[i], mSolutions[i]);
+            }
+        }
+    }
+
+    /**
+     * Takes chunks of puzzles from the batch and solves them with its own BatchSolver, until
+     * there are no puzzles left.
+     */
+    private class Worker implements Callable<BatchStats> {
+        private final BatchSolver mSolver;
+        private final Batch mBatch;
+
+        Worker(BatchSolver solver, Batch batch) {
+            mSolver = solver;
+            mBatch = batch;
+        }
+
+        @Override
+        public BatchStats call() throws Exception {
+            final Chunk chunk = new Chunk(mChunkSize);
+            BatchStats stats = new BatchStats();
+
+            BatchSolver.SolutionListener collector = new BatchSolver.SolutionListener() {
+                @Override
+                public void puzzleSolved(long index, String puzzle, String solution) {
+                    chunk.mSolutions[(int) index] = solution;
+                }
+            };
+
+            while (mBatch.nextChunk(chunk, mChunkSize)) {
+                stats.add(mSolver.solveAll(Arrays.asList(chunk.mPuzzles).subList(0, chunk.mCount).iterator(), collector));
+                mBatch.deliver(chunk);
+            }
+
+            return stats;
+        }
+    }
+}
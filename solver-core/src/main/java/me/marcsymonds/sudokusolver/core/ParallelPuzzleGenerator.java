@@ -0,0 +1,151 @@
+package me.marcsymonds.sudokusolver.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates a number of puzzles on several threads at the same time.
+ * <p>
+ * Each worker has its own PuzzleGenerator, with its own random numbers, board and solver, so the
+ * workers don't share anything except the count of puzzles left to create.
+ */
+public class ParallelPuzzleGenerator {
+    private final ExecutorService mExecutor;
+    private final PuzzleGenerator[] mWorkerGenerators;
+
+    /**
+     * Constructor; uses a worker thread for each processor.
+     */
+    public ParallelPuzzleGenerator() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructor; creates a pool with a number of worker threads. The pool is shut down by
+     * shutdown().
+     *
+     * @param threads the number of worker threads.
+     */
+    public ParallelPuzzleGenerator(int threads) {
+        this(threads, new Random().nextLong());
+    }
+
+    /**
+     * Constructor; each worker's random numbers are seeded from the seed, so that each worker
+     * creates the same puzzles each time. The order the puzzles are returned in still depends
+     * on how fast each worker is.
+     *
+     * @param threads the number of worker threads.
+     * @param seed    seed for the random numbers.
+     */
+    public ParallelPuzzleGenerator(int threads, long seed) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("There must be at least one worker.");
+        }
+
+        mExecutor = Executors.newFixedThreadPool(threads);
+        mWorkerGenerators = new PuzzleGenerator[threads];
+
+        for (int i = 0; i < threads; i++) {
+            mWorkerGenerators[i] = new PuzzleGenerator(seed + i);
+        }
+    }
+
+    public int getWorkerCount() {
+        return mWorkerGenerators.length;
+    }
+
+    /**
+     * Sets the number of puzzles each worker tries before giving up on getting the difficulty
+     * wanted.
+     *
+     * @param maxAttempts the number of puzzles.
+     */
+    public void setMaxAttempts(int maxAttempts) {
+        for (PuzzleGenerator generator : mWorkerGenerators) {
+            generator.setMaxAttempts(maxAttempts);
+        }
+    }
+
+    /**
+     * Creates a number of puzzles.
+     *
+     * @param count      the number of puzzles.
+     * @param difficulty how hard the puzzles should be.
+     * @param symmetry   the pattern the fixed numbers should be in.
+     * @return the puzzles, in the order they were finished. As with PuzzleGenerator.generate(),
+     * some of the puzzles may be easier than wanted.
+     */
+    public List<GeneratedPuzzle> generate(int count, PuzzleDifficulty difficulty, PuzzleSymmetry symmetry) {
+        AtomicInteger remaining = new AtomicInteger(count);
+        List<GeneratedPuzzle> puzzles = Collections.synchronizedList(new ArrayList<GeneratedPuzzle>(count));
+        List<Future<Void>> results = new ArrayList<>(mWorkerGenerators.length);
+        Throwable failure = null;
+
+        for (PuzzleGenerator generator : mWorkerGenerators) {
+            results.add(mExecutor.submit(new Worker(generator, remaining, puzzles, difficulty, symmetry)));
+        }
+
+        for (Future<Void> result : results) {
+            try {
+                result.get();
+            } catch (ExecutionException e) {
+                remaining.set(0);
+                failure = e.getCause();
+            } catch (InterruptedException e) {
+                remaining.set(0);
+                Thread.currentThread().interrupt();
+                failure = e;
+            }
+        }
+
+        if (failure != null) {
+            throw new RuntimeException("Puzzle generation failed.", failure);
+        }
+
+        return puzzles;
+    }
+
+    /**
+     * Shuts down the worker threads.
+     */
+    public void shutdown() {
+        mExecutor.shutdown();
+    }
+
+    /**
+     * Creates puzzles with its own PuzzleGenerator, until no more are wanted.
+     */
+    private static class Worker implements Callable<Void> {
+        private final PuzzleGenerator mGenerator;
+        private final AtomicInteger mRemaining;
+        private final List<GeneratedPuzzle> mPuzzles;
+        private final PuzzleDifficulty mDifficulty;
+        private final PuzzleSymmetry mSymmetry;
+
+        Worker(PuzzleGenerator generator, AtomicInteger remaining, List<GeneratedPuzzle> puzzles, PuzzleDifficulty difficulty, PuzzleSymmetry symmetry) {
+            mGenerator = generator;
+            mRemaining = remaining;
+            mPuzzles = puzzles;
+            mDifficulty = difficulty;
+            mSymmetry = symmetry;
+        }
+
+        @Override
+        public Void call() throws Exception {
+            while (mRemaining.getAndDecrement() > 0) {
+                mPuzzles.add(mGenerator.generate(mDifficulty, mSymmetry));
+            }
+
+            return null;
+        }
+    }
+}
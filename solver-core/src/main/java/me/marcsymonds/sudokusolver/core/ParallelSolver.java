@@ -0,0 +1,302 @@
+package me.marcsymonds.sudokusolver.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Solves a single puzzle using several threads, by splitting the search in to branches which are
+ * solved at the same time.
+ * <p>
+ * The blank cell with the fewest possible numbers is chosen, and a branch is created for each of
+ * those numbers, each with its own copy of the board with the number fixed in the cell. This is
+ * repeated for each branch until the split depth is reached, and then each branch is solved by
+ * its own solver engine. Cells that can only contain one number are fixed without creating a
+ * branch, and don't count towards the depth.
+ * <p>
+ * Once any branch has found a solution, the other branches stop at their next check, as does
+ * every branch if the search is cancelled.
+ */
+public class ParallelSolver {
+    /**
+     * Default number of levels of branches
+     */
+    public static final int DEFAULT_SPLIT_DEPTH = 2;
+
+    /**
+     * Number of iterations a branch runs between checks to see if it should stop
+     */
+    private static final int CHECK_ITERATIONS = 1000;
+
+    private final ForkJoinPool mPool;
+    private final boolean mOwnsPool;
+    private int mSplitDepth = DEFAULT_SPLIT_DEPTH;
+    private SolverEngineType mEngineType = SolverEngineType.BACKTRACKING;
+    private volatile Search mCurrentSearch = null;
+
+    /**
+     * Constructor; uses a thread for each processor.
+     */
+    public ParallelSolver() {
+        this(new ForkJoinPool(), true);
+    }
+
+    /**
+     * Constructor; creates a pool with a number of threads. The pool is shut down by shutdown().
+     *
+     * @param threads the number of threads.
+     */
+    public ParallelSolver(int threads) {
+        this(new ForkJoinPool(threads), true);
+    }
+
+    /**
+     * Constructor; runs the branches on an existing pool. The pool is not shut down by
+     * shutdown().
+     *
+     * @param pool the pool to run the branches on.
+     */
+    public ParallelSolver(ForkJoinPool pool) {
+        this(pool, false);
+    }
+
+    private ParallelSolver(ForkJoinPool pool, boolean ownsPool) {
+        mPool = pool;
+        mOwnsPool = ownsPool;
+    }
+
+    public int getSplitDepth() {
+        return mSplitDepth;
+    }
+
+    /**
+     * Sets the number of levels of branches. Each level multiplies the number of branches by the
+     * number of possible numbers in the chosen cell.
+     *
+     * @param splitDepth the number of levels; 0 solves the puzzle as a single branch.
+     */
+    public void setSplitDepth(int splitDepth) {
+        mSplitDepth = splitDepth;
+    }
+
+    public SolverEngineType getEngineType() {
+        return mEngineType;
+    }
+
+    /**
+     * Sets the engine used to solve each branch.
+     *
+     * @param engineType the engine type.
+     */
+    public void setEngineType(SolverEngineType engineType) {
+        mEngineType = engineType;
+    }
+
+    /**
+     * Solves a board, and sets the solution on the board. This doesn't return until the board is
+     * solved, found to be unsolvable, or the search is cancelled.
+     *
+     * @param board the board to solve. The board should have been prepared for solving.
+     * @return FINISHED_SUCCESS, FINISHED_FAILED or CANCELLED.
+     */
+    public SolverState solve(BoardModel board) {
+        Search search = new Search();
+        BoardModel root;
+        BoardModel solution;
+
+        if (board.hasConflicts()) {
+            return SolverState.FINISHED_FAILED;
+        }
+
+        root = new BoardModel();
+        root.copyFrom(board);
+
+        mCurrentSearch = search;
+        try {
+            mPool.invoke(new Branch(search, root, 0));
+        } finally {
+            mCurrentSearch = null;
+        }
+
+        solution = search.getSolution();
+
+        if (solution != null) {
+            applySolution(board, solution);
+            return SolverState.FINISHED_SUCCESS;
+        } else if (search.isCancelled()) {
+            return SolverState.CANCELLED;
+        } else {
+            return SolverState.FINISHED_FAILED;
+        }
+    }
+
+    /**
+     * Stops the current search, if there is one. May be called from any thread.
+     */
+    public void cancel() {
+        Search search = mCurrentSearch;
+
+        if (search != null) {
+            search.cancel();
+        }
+    }
+
+    /**
+     * Shuts down the pool, if it was created by this object.
+     */
+    public void shutdown() {
+        if (mOwnsPool) {
+            mPool.shutdown();
+        }
+    }
+
+    /**
+     * Sets the numbers from a solved copy of a board on the board.
+     */
+    private static void applySolution(BoardModel board, BoardModel solution) {
+        int cell, number;
+
+        for (cell = 0; cell < BoardModel.CELL_COUNT; cell++) {
+            number = board.getNumber(cell);
+            if (!board.isFixed(cell) && number > 0) {
+                board.unuseNumber(cell, number);
+                board.unsetNumber(cell);
+            }
+        }
+
+        for (cell = 0; cell < BoardModel.CELL_COUNT; cell++) {
+            if (!board.isFixed(cell)) {
+                number = solution.getNumber(cell);
+                board.setNumber(cell, number, CellState.CALCULATED);
+                board.useNumber(cell, number, false);
+            }
+        }
+    }
+
+    /**
+     * Puts a number in a cell of a branch's board, as though it was one of the puzzle's numbers.
+     */
+    private static void fixNumber(BoardModel board, int cell, int number) {
+        board.setNumber(cell, number, CellState.HARD_FIXED);
+        board.useNumber(cell, number, true);
+    }
+
+    /**
+     * The state shared by the branches of a search.
+     */
+    private static class Search {
+        private final AtomicReference<BoardModel> mSolution = new AtomicReference<>();
+        private volatile boolean mStopped = false;
+        private volatile boolean mCancelled = false;
+
+        boolean isStopped() {
+            return mStopped;
+        }
+
+        boolean isCancelled() {
+            return mCancelled;
+        }
+
+        void cancel() {
+            mCancelled = true;
+            mStopped = true;
+        }
+
+        /**
+         * Records the solution found by a branch, if another branch hasn't already found one, and
+         * stops the other branches.
+         */
+        void found(BoardModel solution) {
+            if (mSolution.compareAndSet(null, solution)) {
+                mStopped = true;
+            }
+        }
+
+        BoardModel getSolution() {
+            return mSolution.get();
+        }
+    }
+
+    /**
+     * A branch of the search; either splits in to more branches, or solves its board.
+     */
+    private class Branch extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Search mSearch;
+        private final BoardModel mBoard;
+        private final int mDepth;
+
+        Branch(Search search, BoardModel board, int depth) {
+            mSearch = search;
+            mBoard = board;
+            mDepth = depth;
+        }
+
+        @Override
+        protected void compute() {
+            if (mSearch.isStopped()) {
+                return;
+            }
+
+            if (mDepth >= mSplitDepth) {
+                solveBranch();
+            } else {
+                split();
+            }
+        }
+
+        private void split() {
+            int cell, number, candidates;
+            BoardModel board;
+            List<Branch> branches = new ArrayList<>();
+
+            // Fix any cells which can only contain one number, until a cell with a choice of
+            // numbers is found.
+            while ((cell = mBoard.getCellWithFewestCandidates()) >= 0 && mBoard.getCandidateCount(cell) == 1) {
+                fixNumber(mBoard, cell, BoardModel.lowestNumberOf(mBoard.getCandidates(cell)));
+            }
+
+            if (cell < 0) {
+                // No blank cells left.
+                mSearch.found(mBoard);
+                return;
+            }
+
+            candidates = mBoard.getCandidates(cell);
+
+            while (candidates != 0) {
+                number = BoardModel.lowestNumberOf(candidates);
+                candidates &= candidates - 1;
+
+                board = new BoardModel();
+                board.copyFrom(mBoard);
+                fixNumber(board, cell, number);
+
+                branches.add(new Branch(mSearch, board, mDepth + 1));
+            }
+
+            // If the cell has no possible numbers, then there are no branches and this branch
+            // can't be solved.
+            invokeAll(branches);
+        }
+
+        private void solveBranch() {
+            SolverEngine engine = mEngineType.createEngine(mBoard);
+
+            engine.start();
+
+            while (engine.run(CHECK_ITERATIONS) == SolverState.RUNNING) {
+                if (mSearch.isStopped()) {
+                    return;
+                }
+            }
+
+            if (engine.getRunState() == SolverState.FINISHED_SUCCESS) {
+                mSearch.found(mBoard);
+            }
+        }
+    }
+}
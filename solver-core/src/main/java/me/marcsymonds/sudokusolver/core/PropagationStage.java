@@ -0,0 +1,38 @@
+package me.marcsymonds.sudokusolver.core;
+
+/**
+ * The stages the solver can use to work out numbers, or rule numbers out, between guesses.
+ * <p>
+ * Cells which can only contain one number (naked singles) are always set; each of these stages
+ * can be switched on or off.
+ */
+public enum PropagationStage {
+    /**
+     * A number that can only go in one cell of a row, column or block is set in that cell
+     */
+    HIDDEN_SINGLES,
+    /**
+     * Two cells in a unit that can only contain the same two numbers; the numbers are ruled out
+     * for the other cells in the unit
+     */
+    NAKED_PAIRS,
+    /**
+     * Three cells in a unit that can only contain the same three numbers between them; the
+     * numbers are ruled out for the other cells in the unit
+     */
+    NAKED_TRIPLES,
+    /**
+     * A number that can only go in one row or column of a block is ruled out for the cells of
+     * that row or column outside of the block
+     */
+    POINTING_PAIRS;
+
+    /**
+     * Get the mask bit representing the stage, for saving a set of stages.
+     *
+     * @return mask with the bit for the stage set.
+     */
+    public int toMask() {
+        return 1 << ordinal();
+    }
+}
@@ -0,0 +1,325 @@
+package me.marcsymonds.sudokusolver.core;
+
+import java.util.Arrays;
+
+/**
+ * Works out the canonical form of a puzzle, so that puzzles which are the same apart from the way
+ * they are laid out or labelled can be recognised.
+ * <p>
+ * A puzzle is the same as another if one can be turned into the other by any combination of:
+ * swapping the rows and columns over (transposing); reordering the bands (groups of 3 rows) or
+ * the rows within a band; reordering the stacks (groups of 3 columns) or the columns within a
+ * stack; and relabelling the numbers. The canonical form is the "minlex" form; the puzzle, out of
+ * all of the 3,359,232 layouts and the relabellings, which comes first when written out as a
+ * string with blank cells first. Two puzzles are the same if their canonical forms are equal.
+ * <p>
+ * Rather than trying every layout, the first row is worked out from where the blanks are (its
+ * numbers are always labelled 1, 2, 3...), which leaves only a few ways of transposing, choosing
+ * the first row and ordering the columns. For each of these, the other rows are chosen one at a
+ * time; a row is only followed further if it is no greater than the same row of the best form
+ * found so far.
+ * <p>
+ * The buffers are allocated once, so a canonicalizer should only be used by one thread at a time.
+ */
+public class PuzzleCanonicalizer {
+    private static final int SIZE = BoardModel.SIZE;
+    private static final int CELL_COUNT = BoardModel.CELL_COUNT;
+
+    /**
+     * Every way of ordering the columns; the stacks in any order, and the columns within each
+     * stack in any order. Each entry gives the column of the puzzle for each column of the result.
+     */
+    private static final int[][] COLUMN_ORDERS = new int[6 * 6 * 6 * 6][SIZE];
+
+    /**
+     * For each mask of the cells in a row which aren't blank, the column orders which put the
+     * row's blanks furthest to the front.
+     */
+    private static final int[][] BEST_ORDERS = new int[1 << SIZE][];
+
+    private static final int[][] PERMUTATIONS_OF_3 = {
+            {0, 1, 2}, {0, 2, 1}, {1, 0, 2}, {1, 2, 0}, {2, 0, 1}, {2, 1, 0}
+    };
+
+    static {
+        int n = 0;
+
+        for (int[] stacks : PERMUTATIONS_OF_3) {
+            for (int[] first : PERMUTATIONS_OF_3) {
+                for (int[] second : PERMUTATIONS_OF_3) {
+                    for (int[] third : PERMUTATIONS_OF_3) {
+                        int[] order = COLUMN_ORDERS[n++];
+
+                        for (int i = 0; i < 3; i++) {
+                            order[i] = (stacks[0] * 3) + first[i];
+                            order[3 + i] = (stacks[1] * 3) + second[i];
+                            order[6 + i] = (stacks[2] * 3) + third[i];
+                        }
+                    }
+                }
+            }
+        }
+
+        for (int mask = 0; mask < BEST_ORDERS.length; mask++) {
+            int best = bestPattern(mask);
+            int[] orders = new int[COLUMN_ORDERS.length];
+            int count = 0;
+
+            for (int order = 0; order < COLUMN_ORDERS.length; order++) {
+                if (pattern(mask, COLUMN_ORDERS[order]) == best) {
+                    orders[count++] = order;
+                }
+            }
+
+            BEST_ORDERS[mask] = Arrays.copyOf(orders, count);
+        }
+    }
+
+    // The puzzle as it is, and transposed.
+    private final int[][] mGrids = new int[2][CELL_COUNT];
+
+    // Mask of the cells which aren't blank in each row, for each grid.
+    private final int[][] mRowMasks = new int[2][SIZE];
+
+    // The ways of transposing, choosing the first row and ordering the columns which give the
+    // best first row; each is (transposed << 16) | (row << 12) | column order.
+    private final int[] mCandidates = new int[2 * SIZE * COLUMN_ORDERS.length];
+    private int mCandidateCount = 0;
+
+    // The best form found so far, and how many of its rows are valid.
+    private final int[] mBest = new int[CELL_COUNT];
+    private int mBestRows = 0;
+
+    // For the layout being tried; the grid and column order, and the labels given to the numbers
+    // and the next label to give, before each row.
+    private int[] mGrid;
+    private int[] mColumnOrder;
+    private final int[][] mLabels = new int[SIZE + 1][SIZE + 1];
+    private final int[] mNextLabel = new int[SIZE + 1];
+    private final int[] mRow = new int[SIZE];
+
+    /**
+     * Works out the canonical form of a puzzle.
+     *
+     * @param puzzle the puzzle, in the same format as BoardModel.setPuzzle().
+     * @return the canonical form, with '.' for blank cells.
+     */
+    public String canonicalize(CharSequence puzzle) {
+        char[] result = new char[CELL_COUNT];
+
+        canonicalize(puzzle, result);
+
+        return new String(result);
+    }
+
+    /**
+     * Works out the canonical form of a puzzle, without allocating anything.
+     *
+     * @param puzzle the puzzle, in the same format as BoardModel.setPuzzle().
+     * @param result array of at least 81 characters to put the canonical form in, with '.' for
+     *               blank cells.
+     */
+    public void canonicalize(CharSequence puzzle, char[] result) {
+        int cell, number;
+
+        if (puzzle.length() < CELL_COUNT) {
+            throw new IllegalArgumentException("Puzzle must contain " + CELL_COUNT + " cells.");
+        }
+
+        for (cell = 0; cell < CELL_COUNT; cell++) {
+            char c = puzzle.charAt(cell);
+            number = (c >= '1' && c <= '9') ? c - '0' : 0;
+
+            mGrids[0][cell] = number;
+            mGrids[1][((cell % SIZE) * SIZE) + (cell / SIZE)] = number;
+        }
+
+        // The first row of the result only depends on which of its cells are blank, as its
+        // numbers are always labelled 1, 2, 3... So only the rows which can be laid out with the
+        // blanks furthest to the front can be the first row, and only the column orders which
+        // lay them out that way need to be tried.
+        int firstRowPattern = Integer.MAX_VALUE;
+
+        for (int t = 0; t < 2; t++) {
+            for (int row = 0; row < SIZE; row++) {
+                mRowMasks[t][row] = rowMask(mGrids[t], row);
+                firstRowPattern = Math.min(firstRowPattern, bestPattern(mRowMasks[t][row]));
+            }
+        }
+
+        mCandidateCount = 0;
+
+        for (int t = 0; t < 2; t++) {
+            for (int row = 0; row < SIZE; row++) {
+                if (bestPattern(mRowMasks[t][row]) == firstRowPattern) {
+                    for (int order : BEST_ORDERS[mRowMasks[t][row]]) {
+                        mCandidates[mCandidateCount++] = (t << 16) | (row << 12) | order;
+                    }
+                }
+            }
+        }
+
+        for (int i = 1; i <= SIZE; i++) {
+            mLabels[0][i] = 0;
+        }
+        mNextLabel[0] = 1;
+        mBestRows = 0;
+
+        for (int i = 0; i < mCandidateCount; i++) {
+            int candidate = mCandidates[i];
+            int row = (candidate >>> 12) & 0xF;
+
+            mGrid = mGrids[candidate >>> 16];
+            mColumnOrder = COLUMN_ORDERS[candidate & 0xFFF];
+
+            if (tryRow(0, row)) {
+                chooseRow(1, 1 << row, row / 3);
+            }
+        }
+
+        for (cell = 0; cell < CELL_COUNT; cell++) {
+            result[cell] = (mBest[cell] == 0) ? '.' : (char) ('0' + mBest[cell]);
+        }
+    }
+
+    /**
+     * Get a mask of the cells in a row which aren't blank.
+     */
+    private static int rowMask(int[] grid, int row) {
+        int mask = 0;
+
+        for (int column = 0; column < SIZE; column++) {
+            if (grid[(row * SIZE) + column] != 0) {
+                mask |= 1 << column;
+            }
+        }
+
+        return mask;
+    }
+
+    /**
+     * Get the pattern of blank (0) and non-blank (1) cells of a row when its columns are put in
+     * an order, with the first column as the highest bit; so the lower the pattern, the more
+     * blanks come first.
+     */
+    private static int pattern(int mask, int[] order) {
+        int pattern = 0;
+
+        for (int i = 0; i < SIZE; i++) {
+            pattern = (pattern << 1) | ((mask >>> order[i]) & 1);
+        }
+
+        return pattern;
+    }
+
+    /**
+     * Get the lowest pattern a row can be put in; with the stacks in order of the number of
+     * numbers in them, and the numbers at the end of each stack.
+     */
+    private static int bestPattern(int mask) {
+        int a = Integer.bitCount(mask & 0x007);
+        int b = Integer.bitCount(mask & 0x038);
+        int c = Integer.bitCount(mask & 0x1C0);
+        int t;
+
+        // Sort the counts.
+        if (a > b) {
+            t = a;
+            a = b;
+            b = t;
+        }
+        if (b > c) {
+            t = b;
+            b = c;
+            c = t;
+        }
+        if (a > b) {
+            t = a;
+            a = b;
+            b = t;
+        }
+
+        return (((1 << a) - 1) << 6) | (((1 << b) - 1) << 3) | ((1 << c) - 1);
+    }
+
+    /**
+     * Tries each row that can come next in the layout, and follows those that are no greater
+     * than the same row of the best form.
+     *
+     * @param level     the row of the result being chosen.
+     * @param usedRows  mask of the rows of the puzzle already used.
+     * @param band      the band being used, if the row isn't the first of a band.
+     */
+    private void chooseRow(int level, int usedRows, int band) {
+        int first, last;
+
+        if (level % 3 == 0) {
+            // Any row of a band which hasn't been used yet.
+            first = 0;
+            last = SIZE - 1;
+        } else {
+            first = band * 3;
+            last = first + 2;
+        }
+
+        for (int row = first; row <= last; row++) {
+            if ((usedRows & (1 << row)) == 0 && tryRow(level, row)) {
+                if (level + 1 < SIZE) {
+                    chooseRow(level + 1, usedRows | (1 << row), row / 3);
+                }
+            }
+        }
+    }
+
+    /**
+     * Works out a row of the puzzle as the next row of the result, labelling any numbers that
+     * haven't been seen yet, and compares it with the same row of the best form.
+     *
+     * @param level the row of the result.
+     * @param row   the row of the puzzle.
+     * @return true if the row is no greater than the best, and the rows after it should be tried.
+     */
+    private boolean tryRow(int level, int row) {
+        int[] labels = mLabels[level + 1];
+        int next = mNextLabel[level];
+        int base = row * SIZE;
+        int bestBase = level * SIZE;
+        int number, label, compare = 0;
+
+        System.arraycopy(mLabels[level], 0, labels, 0, SIZE + 1);
+
+        for (int i = 0; i < SIZE; i++) {
+            number = mGrid[base + mColumnOrder[i]];
+
+            if (number == 0) {
+                label = 0;
+            } else {
+                label = labels[number];
+                if (label == 0) {
+                    label = next++;
+                    labels[number] = label;
+                }
+            }
+
+            mRow[i] = label;
+
+            // Stop as soon as the row is greater than the best.
+            if (compare == 0 && level < mBestRows) {
+                compare = label - mBest[bestBase + i];
+                if (compare > 0) {
+                    return false;
+                }
+            }
+        }
+
+        mNextLabel[level + 1] = next;
+
+        if (level >= mBestRows || compare < 0) {
+            // A new best, at least as far as this row; the rows after it are no longer valid.
+            System.arraycopy(mRow, 0, mBest, bestBase, SIZE);
+            mBestRows = level + 1;
+        }
+
+        return true;
+    }
+}
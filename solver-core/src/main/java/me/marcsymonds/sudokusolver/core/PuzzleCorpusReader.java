@@ -0,0 +1,318 @@
+package me.marcsymonds.sudokusolver.core;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads puzzles, and their solutions if it has them, from a file written by
+ * {@link PuzzleCorpusWriter}.
+ * <p>
+ * Puzzles are read in order with next(), and the reader can be moved to any puzzle with seek();
+ * the index is read when the file is opened, so moving only means reading at most
+ * INDEX_INTERVAL - 1 bitmaps, or none if the file has solutions as its records are all the same
+ * size. A reader should only be used by one thread at a time.
+ */
+public class PuzzleCorpusReader implements Closeable {
+    private static final int BITMAP_SIZE = PuzzleCorpusWriter.BITMAP_SIZE;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final RandomAccessFile mFile;
+    private final FileChannel mChannel;
+    private final boolean mSolutions;
+    private final long mCount;
+    private final long mIndexOffset;
+    private final int mIndexInterval;
+    private final long[] mIndex;
+
+    // The bytes read from the file, starting at mBufferStart.
+    private final byte[] mBuffer = new byte[BUFFER_SIZE];
+    private long mBufferStart = 0;
+    private int mBufferPos = 0;
+    private int mBufferLength = 0;
+
+    // The index of the next puzzle to read.
+    private long mNext = 0;
+
+    // The last record read; which cells have a number, and the number of each cell.
+    private final boolean[] mClues = new boolean[BoardModel.CELL_COUNT];
+    private final int[] mNumbers = new int[BoardModel.CELL_COUNT];
+    private boolean mSolved = false;
+
+    /**
+     * Constructor.
+     *
+     * @param file the file to read.
+     * @throws IOException if the file can't be opened or isn't a puzzle corpus.
+     */
+    public PuzzleCorpusReader(File file) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(PuzzleCorpusWriter.HEADER_SIZE);
+        int version, flags;
+
+        mFile = new RandomAccessFile(file, "r");
+        mChannel = mFile.getChannel();
+
+        try {
+            readFully(header, 0);
+            header.flip();
+
+            if (header.getInt() != PuzzleCorpusWriter.MAGIC) {
+                throw new IOException("File is not a puzzle corpus.");
+            }
+
+            version = header.getShort();
+            if (version != PuzzleCorpusWriter.VERSION) {
+                throw new IOException("Unsupported puzzle corpus version " + version + ".");
+            }
+
+            flags = header.getShort();
+            mSolutions = (flags & PuzzleCorpusWriter.FLAG_SOLUTIONS) != 0;
+            mCount = header.getLong();
+            mIndexOffset = header.getLong();
+            mIndexInterval = header.getInt();
+
+            if (mCount < 0 || mIndexInterval < 1 || mIndexOffset < PuzzleCorpusWriter.HEADER_SIZE) {
+                throw new IOException("Puzzle corpus header is invalid.");
+            }
+
+            ByteBuffer index = ByteBuffer.allocate((int) (((mCount + mIndexInterval - 1) / mIndexInterval) * 8));
+            readFully(index, mIndexOffset);
+            index.flip();
+
+            mIndex = new long[index.remaining() / 8];
+            index.asLongBuffer().get(mIndex);
+        } catch (IOException e) {
+            mFile.close();
+            throw e;
+        }
+
+        mBufferStart = PuzzleCorpusWriter.HEADER_SIZE;
+    }
+
+    public boolean hasSolutions() {
+        return mSolutions;
+    }
+
+    /**
+     * Number of puzzles in the file
+     */
+    public long getCount() {
+        return mCount;
+    }
+
+    /**
+     * Get the index of the puzzle which next() will read.
+     */
+    public long getPosition() {
+        return mNext;
+    }
+
+    /**
+     * Moves to a puzzle, so that it is the next one read.
+     *
+     * @param index the index of the puzzle, from 0 to getCount().
+     * @throws IOException if the file can't be read.
+     */
+    public void seek(long index) throws IOException {
+        long offset;
+
+        if (index < 0 || index > mCount) {
+            throw new IndexOutOfBoundsException("No puzzle " + index + ".");
+        }
+
+        if (index == mCount) {
+            offset = mIndexOffset;
+        } else if (mSolutions) {
+            offset = PuzzleCorpusWriter.HEADER_SIZE + (index * PuzzleCorpusWriter.SOLVED_RECORD_SIZE);
+        } else {
+            offset = mIndex[(int) (index / mIndexInterval)];
+        }
+
+        mBufferStart = offset;
+        mBufferPos = 0;
+        mBufferLength = 0;
+        mNext = (mSolutions || index == mCount) ? index : index - (index % mIndexInterval);
+
+        // Skip the records between the indexed one and the one wanted.
+        while (mNext < index) {
+            fill(BITMAP_SIZE);
+            mBufferPos += recordSize();
+            ++mNext;
+        }
+    }
+
+    /**
+     * Reads the next puzzle.
+     *
+     * @param puzzle array of at least 81 characters to put the puzzle in, with '.' for blank
+     *               cells.
+     * @return true if a puzzle was read, or false if there are no more.
+     * @throws IOException if the file can't be read.
+     */
+    public boolean next(char[] puzzle) throws IOException {
+        int base, nibble = 0, number;
+
+        if (mNext >= mCount) {
+            return false;
+        }
+
+        fill(BITMAP_SIZE);
+        fill(recordSize());
+
+        base = mBufferPos;
+        mSolved = mSolutions;
+
+        for (int cell = 0; cell < BoardModel.CELL_COUNT; cell++) {
+            mClues[cell] = (mBuffer[base + (cell >>> 3)] & (1 << (cell & 7))) != 0;
+
+            if (mClues[cell] || mSolutions) {
+                number = mBuffer[base + BITMAP_SIZE + (nibble >>> 1)];
+                number = (((nibble & 1) == 0) ? number >>> 4 : number) & 0xF;
+                ++nibble;
+            } else {
+                number = 0;
+            }
+
+            mNumbers[cell] = number;
+            puzzle[cell] = mClues[cell] ? (char) ('0' + number) : '.';
+
+            if (number == 0) {
+                mSolved = false;
+            }
+        }
+
+        mBufferPos += recordSize();
+        ++mNext;
+
+        return true;
+    }
+
+    /**
+     * Get the solution of the last puzzle read.
+     *
+     * @param solution array of at least 81 characters to put the solution in.
+     * @return false if the file doesn't have solutions, or the puzzle wasn't solved.
+     */
+    public boolean getSolution(char[] solution) {
+        if (!mSolved) {
+            return false;
+        }
+
+        for (int cell = 0; cell < BoardModel.CELL_COUNT; cell++) {
+            solution[cell] = (char) ('0' + mNumbers[cell]);
+        }
+
+        return true;
+    }
+
+    /**
+     * Get the rest of the puzzles as strings, for passing to a BatchSolver or ParallelBatchSolver.
+     * <p>
+     * If the file can't be read, hasNext() throws an IllegalStateException.
+     */
+    public Iterator<String> puzzles() {
+        return new Iterator<String>() {
+            private final char[] mPuzzle = new char[BoardModel.CELL_COUNT];
+            private String mNextPuzzle = null;
+
+            @Override
+            public boolean hasNext() {
+                if (mNextPuzzle == null) {
+                    try {
+                        if (PuzzleCorpusReader.this.next(mPuzzle)) {
+                            mNextPuzzle = new String(mPuzzle);
+                        }
+                    } catch (IOException e) {
+                        throw new IllegalStateException("Could not read puzzles.", e);
+                    }
+                }
+
+                return mNextPuzzle != null;
+            }
+
+            @Override
+            public String next() {
+                String puzzle;
+
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+
+                puzzle = mNextPuzzle;
+                mNextPuzzle = null;
+
+                return puzzle;
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    @Override
+    public void close() throws IOException {
+        mFile.close();
+    }
+
+    /**
+     * Get the size of the record at mBufferPos, from its bitmap.
+     */
+    private int recordSize() {
+        int numbers = 0;
+
+        if (mSolutions) {
+            return PuzzleCorpusWriter.SOLVED_RECORD_SIZE;
+        }
+
+        for (int i = 0; i < BITMAP_SIZE; i++) {
+            numbers += Integer.bitCount(mBuffer[mBufferPos + i] & 0xFF);
+        }
+
+        return BITMAP_SIZE + ((numbers + 1) / 2);
+    }
+
+    /**
+     * Makes sure that at least a number of bytes from mBufferPos are in the buffer.
+     */
+    private void fill(int bytes) throws IOException {
+        if (mBufferPos + bytes <= mBufferLength) {
+            return;
+        }
+
+        // Move what is left to the start of the buffer, and read more after it.
+        System.arraycopy(mBuffer, mBufferPos, mBuffer, 0, mBufferLength - mBufferPos);
+        mBufferStart += mBufferPos;
+        mBufferLength -= mBufferPos;
+        mBufferPos = 0;
+
+        ByteBuffer buffer = ByteBuffer.wrap(mBuffer, mBufferLength, mBuffer.length - mBufferLength);
+        int read;
+
+        while (mBufferLength < bytes) {
+            read = mChannel.read(buffer, mBufferStart + mBufferLength);
+            if (read < 0) {
+                throw new IOException("Puzzle corpus is too short.");
+            }
+            mBufferLength += read;
+        }
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        int read;
+
+        while (buffer.hasRemaining()) {
+            read = mChannel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("Puzzle corpus is too short.");
+            }
+            position += read;
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package me.marcsymonds.sudokusolver.core;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * Writes puzzles, and optionally their solutions, to a file in a compact binary format which can
+ * be read with {@link PuzzleCorpusReader}.
+ * <p>
+ * The file starts with a header of HEADER_SIZE bytes (all numbers are big-endian):
+ * <pre>
+ *  0  int   MAGIC
+ *  4  short VERSION
+ *  6  short flags; FLAG_SOLUTIONS if the file has solutions
+ *  8  long  number of puzzles
+ * 16  long  offset of the index
+ * 24  int   INDEX_INTERVAL
+ * 28  int   0
+ * </pre>
+ * Then a record for each puzzle: a bitmap of the cells which have a number (bit (cell % 8) of
+ * byte (cell / 8)), then the numbers, 4 bits each, high half of a byte first. Without solutions,
+ * the numbers are those of the cells in the bitmap; with solutions they are the solution's
+ * numbers for all 81 cells, or 0 in the blank cells if the puzzle wasn't solved. A puzzle with 25
+ * numbers takes 24 bytes, or 52 bytes with its solution.
+ * <p>
+ * Last is the index; the offset of every INDEX_INTERVAL'th record, as longs, so that a reader can
+ * go to any puzzle by reading at most INDEX_INTERVAL - 1 bitmaps.
+ * <p>
+ * The puzzles are written as they are added, and the index and header when the writer is closed.
+ * A writer can be passed to BatchSolver.solveAll() as the listener, to write the puzzles with
+ * their solutions. Puzzles are in the same format as BoardModel.setPuzzle().
+ */
+public class PuzzleCorpusWriter implements Closeable, BatchSolver.SolutionListener {
+    public static final int MAGIC = 0x53444B43;
+    public static final int VERSION = 1;
+    public static final int FLAG_SOLUTIONS = 1;
+    public static final int HEADER_SIZE = 32;
+    public static final int INDEX_INTERVAL = 64;
+
+    // Bytes in the bitmap of cells which have a number.
+    static final int BITMAP_SIZE = (BoardModel.CELL_COUNT + 7) / 8;
+
+    // Bytes in a record with a solution; the bitmap and 81 numbers.
+    static final int SOLVED_RECORD_SIZE = BITMAP_SIZE + ((BoardModel.CELL_COUNT + 1) / 2);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final RandomAccessFile mFile;
+    private final FileChannel mChannel;
+    private final boolean mSolutions;
+
+    private final byte[] mBuffer = new byte[BUFFER_SIZE];
+    private int mBufferLength = 0;
+    private long mBufferStart;
+
+    private long[] mIndex = new long[1024];
+    private long mCount = 0;
+    private boolean mClosed = false;
+
+    /**
+     * Constructor. Any existing file is replaced.
+     *
+     * @param file      the file to write.
+     * @param solutions true if the solutions are to be written as well as the puzzles.
+     * @throws IOException if the file can't be created.
+     */
+    public PuzzleCorpusWriter(File file, boolean solutions) throws IOException {
+        mFile = new RandomAccessFile(file, "rw");
+        mFile.setLength(0);
+        mChannel = mFile.getChannel();
+        mSolutions = solutions;
+
+        // The header is written when the writer is closed.
+        mBufferStart = HEADER_SIZE;
+    }
+
+    public boolean hasSolutions() {
+        return mSolutions;
+    }
+
+    /**
+     * Number of puzzles written so far
+     */
+    public long getCount() {
+        return mCount;
+    }
+
+    /**
+     * Adds a puzzle, without a solution.
+     *
+     * @param puzzle the puzzle.
+     * @throws IOException if the file can't be written.
+     */
+    public void add(CharSequence puzzle) throws IOException {
+        add(puzzle, null);
+    }
+
+    /**
+     * Adds a puzzle.
+     *
+     * @param puzzle   the puzzle.
+     * @param solution the solution, or null if the puzzle wasn't solved. Ignored if the file
+     *                 doesn't have solutions.
+     * @throws IOException if the file can't be written.
+     */
+    public void add(CharSequence puzzle, CharSequence solution) throws IOException {
+        int nibble = 0;
+        int base, number;
+
+        checkLength(puzzle);
+        if (solution != null) {
+            checkLength(solution);
+        }
+
+        if (mClosed) {
+            throw new IllegalStateException("Writer is closed.");
+        }
+
+        if (mBuffer.length - mBufferLength < SOLVED_RECORD_SIZE) {
+            flush();
+        }
+
+        if (mCount % INDEX_INTERVAL == 0) {
+            int entry = (int) (mCount / INDEX_INTERVAL);
+
+            if (entry == mIndex.length) {
+                mIndex = Arrays.copyOf(mIndex, mIndex.length * 2);
+            }
+            mIndex[entry] = mBufferStart + mBufferLength;
+        }
+
+        base = mBufferLength;
+        Arrays.fill(mBuffer, base, base + SOLVED_RECORD_SIZE, (byte) 0);
+
+        for (int cell = 0; cell < BoardModel.CELL_COUNT; cell++) {
+            number = numberAt(puzzle, cell);
+
+            if (number > 0) {
+                mBuffer[base + (cell >>> 3)] |= (byte) (1 << (cell & 7));
+            } else if (mSolutions && solution != null) {
+                number = numberAt(solution, cell);
+            }
+
+            if (number > 0 || mSolutions) {
+                mBuffer[base + BITMAP_SIZE + (nibble >>> 1)] |= (byte) (((nibble & 1) == 0) ? number << 4 : number);
+                ++nibble;
+            }
+        }
+
+        mBufferLength = base + BITMAP_SIZE + ((nibble + 1) / 2);
+        ++mCount;
+    }
+
+    /**
+     * Adds a puzzle solved by a BatchSolver. Puzzles too short to be written are skipped. The
+     * puzzles are written in the order they are passed, rather than the order of the index.
+     *
+     * @throws IllegalStateException if the file can't be written.
+     */
+    @Override
+    public void puzzleSolved(long index, String puzzle, String solution) {
+        if (puzzle != null && puzzle.length() >= BoardModel.CELL_COUNT) {
+            try {
+                add(puzzle, solution);
+            } catch (IOException e) {
+                throw new IllegalStateException("Could not write puzzle.", e);
+            }
+        }
+    }
+
+    /**
+     * Writes the index and header, and closes the file.
+     *
+     * @throws IOException if the file can't be written.
+     */
+    @Override
+    public void close() throws IOException {
+        if (mClosed) {
+            return;
+        }
+
+        mClosed = true;
+
+        try {
+            long indexOffset = mBufferStart + mBufferLength;
+            int entries = (int) ((mCount + INDEX_INTERVAL - 1) / INDEX_INTERVAL);
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+
+            for (int entry = 0; entry < entries; entry++) {
+                if (mBuffer.length - mBufferLength < 8) {
+                    flush();
+                }
+                ByteBuffer.wrap(mBuffer, mBufferLength, 8).putLong(mIndex[entry]);
+                mBufferLength += 8;
+            }
+            flush();
+
+            header.putInt(MAGIC);
+            header.putShort((short) VERSION);
+            header.putShort((short) (mSolutions ? FLAG_SOLUTIONS : 0));
+            header.putLong(mCount);
+            header.putLong(indexOffset);
+            header.putInt(INDEX_INTERVAL);
+            header.putInt(0);
+            header.flip();
+
+            writeFully(header, 0);
+        } finally {
+            mFile.close();
+        }
+    }
+
+    private void flush() throws IOException {
+        writeFully(ByteBuffer.wrap(mBuffer, 0, mBufferLength), mBufferStart);
+        mBufferStart += mBufferLength;
+        mBufferLength = 0;
+    }
+
+    private void writeFully(ByteBuffer data, long position) throws IOException {
+        while (data.hasRemaining()) {
+            position += mChannel.write(data, position);
+        }
+    }
+
+    private static void checkLength(CharSequence board) {
+        if (board.length() < BoardModel.CELL_COUNT) {
+            throw new IllegalArgumentException("Puzzle must contain " + BoardModel.CELL_COUNT + " cells.");
+        }
+    }
+
+    private static int numberAt(CharSequence board, int cell) {
+        char c = board.charAt(cell);
+
+        return (c >= '1' && c <= '9') ? c - '0' : 0;
+    }
+}
@@ -0,0 +1,236 @@
+package me.marcsymonds.sudokusolver.core;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+
+/**
+ * Removes puzzles which are the same as one seen before, apart from the way they are laid out or
+ * labelled (see {@link PuzzleCanonicalizer}).
+ * <p>
+ * The canonical form of each puzzle seen is packed, 4 bits to a cell, into 6 longs, and kept in
+ * one open-addressed hash table; so millions of puzzles can be checked with one array, and
+ * nothing is allocated for each puzzle. The table grows as needed.
+ * <p>
+ * Puzzles are in the same format as BoardModel.setPuzzle(). A deduplicator should only be used by
+ * one thread at a time.
+ */
+public class PuzzleDeduplicator {
+    // Number of longs needed for a packed board.
+    private static final int PACKED_LENGTH = (BoardModel.CELL_COUNT * 4 + 63) / 64;
+
+    // Set in the last long of every used entry, so an entry for the empty puzzle isn't all 0.
+    private static final long USED = 1L << 63;
+
+    private final PuzzleCanonicalizer mCanonicalizer = new PuzzleCanonicalizer();
+    private final char[] mCanonical = new char[BoardModel.CELL_COUNT];
+    private final long[] mPacked = new long[PACKED_LENGTH];
+
+    private long[] mTable;
+    private int mMask;
+    private int mSize = 0;
+
+    private long mPuzzles = 0;
+    private long mDuplicates = 0;
+    private long mInvalid = 0;
+
+    public PuzzleDeduplicator() {
+        this(1024);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param expectedPuzzles the number of different puzzles expected, so that the table can be
+     *                        made big enough to start with.
+     */
+    public PuzzleDeduplicator(int expectedPuzzles) {
+        int capacity = 16;
+
+        while (capacity < expectedPuzzles * 2L && capacity < (1 << 30) / PACKED_LENGTH) {
+            capacity <<= 1;
+        }
+
+        mTable = new long[capacity * PACKED_LENGTH];
+        mMask = capacity - 1;
+    }
+
+    /**
+     * Adds a puzzle, if it isn't the same as a puzzle added before.
+     *
+     * @param puzzle the puzzle.
+     * @return true if the puzzle is new, false if it is the same as one added before.
+     */
+    public boolean add(CharSequence puzzle) {
+        mCanonicalizer.canonicalize(puzzle, mCanonical);
+        ++mPuzzles;
+
+        pack(mCanonical, mPacked);
+
+        if (insert(mPacked)) {
+            return true;
+        }
+
+        ++mDuplicates;
+        return false;
+    }
+
+    /**
+     * Copies the puzzles, one per line, from a reader to a writer, leaving out any which are the
+     * same as a puzzle before them. Blank lines are skipped; lines too short to be a puzzle are
+     * counted as invalid and left out. The lines which are kept are written as they were read.
+     *
+     * @param in  the puzzles.
+     * @param out where to write the puzzles which are kept.
+     * @return the number of puzzles written.
+     * @throws IOException if the puzzles can't be read or written.
+     */
+    public long dedupe(BufferedReader in, Writer out) throws IOException {
+        long written = 0;
+        String line;
+
+        while ((line = in.readLine()) != null) {
+            if (line.trim().isEmpty()) {
+                continue;
+            }
+
+            if (line.length() < BoardModel.CELL_COUNT) {
+                ++mInvalid;
+            } else if (add(line)) {
+                out.write(line);
+                out.write('\n');
+                ++written;
+            }
+        }
+
+        out.flush();
+
+        return written;
+    }
+
+    /**
+     * Number of puzzles added, not including invalid ones
+     */
+    public long getPuzzles() {
+        return mPuzzles;
+    }
+
+    /**
+     * Number of different puzzles added
+     */
+    public int getUnique() {
+        return mSize;
+    }
+
+    /**
+     * Number of puzzles which were the same as one added before
+     */
+    public long getDuplicates() {
+        return mDuplicates;
+    }
+
+    /**
+     * Number of lines read by dedupe() which were too short to be a puzzle
+     */
+    public long getInvalid() {
+        return mInvalid;
+    }
+
+    public void clear() {
+        Arrays.fill(mTable, 0);
+        mSize = 0;
+        mPuzzles = 0;
+        mDuplicates = 0;
+        mInvalid = 0;
+    }
+
+    private static void pack(char[] board, long[] packed) {
+        int number;
+
+        for (int i = 0; i < PACKED_LENGTH; i++) {
+            packed[i] = 0;
+        }
+
+        for (int cell = 0; cell < BoardModel.CELL_COUNT; cell++) {
+            number = (board[cell] == '.') ? 0 : board[cell] - '0';
+            packed[cell >>> 4] |= ((long) number) << ((cell & 15) * 4);
+        }
+
+        packed[PACKED_LENGTH - 1] |= USED;
+    }
+
+    private static int hash(long[] packed) {
+        long h = 0;
+
+        for (long value : packed) {
+            h = (h + value) * 0x9E3779B97F4A7C15L;
+        }
+
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * Adds a packed board to the table, if it isn't already in it.
+     *
+     * @return true if the board was added.
+     */
+    private boolean insert(long[] packed) {
+        int slot = hash(packed) & mMask;
+        int base;
+
+        while (true) {
+            base = slot * PACKED_LENGTH;
+
+            if (mTable[base + PACKED_LENGTH - 1] == 0) {
+                System.arraycopy(packed, 0, mTable, base, PACKED_LENGTH);
+                ++mSize;
+
+                // Keep the table no more than half full, so that entries are found quickly.
+                if (mSize * 2 > mMask + 1) {
+                    grow();
+                }
+
+                return true;
+            }
+
+            if (matches(base, packed)) {
+                return false;
+            }
+
+            slot = (slot + 1) & mMask;
+        }
+    }
+
+    private boolean matches(int base, long[] packed) {
+        for (int i = 0; i < PACKED_LENGTH; i++) {
+            if (mTable[base + i] != packed[i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private void grow() {
+        long[] old = mTable;
+        long[] packed = new long[PACKED_LENGTH];
+        int slot;
+
+        mTable = new long[old.length * 2];
+        mMask = (mMask << 1) | 1;
+
+        for (int base = 0; base < old.length; base += PACKED_LENGTH) {
+            if (old[base + PACKED_LENGTH - 1] != 0) {
+                System.arraycopy(old, base, packed, 0, PACKED_LENGTH);
+
+                slot = hash(packed) & mMask;
+                while (mTable[(slot * PACKED_LENGTH) + PACKED_LENGTH - 1] != 0) {
+                    slot = (slot + 1) & mMask;
+                }
+
+                System.arraycopy(packed, 0, mTable, slot * PACKED_LENGTH, PACKED_LENGTH);
+            }
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package me.marcsymonds.sudokusolver.core;
+
+/**
+ * How hard a puzzle is, based on what the solver needs to do to solve it.
+ */
+public enum PuzzleDifficulty {
+    /**
+     * Can be solved by cells with only one possible number, and numbers with only one possible
+     * cell in a row, column or block
+     */
+    EASY,
+    /**
+     * Needs numbers to be ruled out using naked pairs and triples, or pointing pairs, but can be
+     * solved without guessing
+     */
+    MEDIUM,
+    /**
+     * Can't be solved without guessing
+     */
+    HARD;
+
+    public static PuzzleDifficulty fromInteger(int val) {
+        switch (val) {
+            case 1:
+                return MEDIUM;
+
+            case 2:
+                return HARD;
+
+            default:
+                return EASY;
+        }
+    }
+
+    public int toInteger() {
+        switch (this) {
+            case MEDIUM:
+                return 1;
+
+            case HARD:
+                return 2;
+
+            default:
+                return 0;
+        }
+    }
+}
@@ -0,0 +1,287 @@
+package me.marcsymonds.sudokusolver.core;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads puzzles from a file, one per line, without creating a string for each line.
+ * <p>
+ * Each puzzle is a line of 81 cells, in the same order as the cell indexes; the digits 1-9 are
+ * numbers, and '.' or '0' are blank cells. Anything after the 81st cell, such as a rating, is
+ * ignored, as are blank lines and lines starting with '#'. Lines which don't start with 81 cells
+ * are counted as invalid and skipped.
+ * <p>
+ * The file is memory mapped a large piece at a time, and the puzzles are decoded from the mapped
+ * bytes as they are read; so files of any size can be read at close to the speed of the disk,
+ * without reading them into memory. A reader should only be used by one thread at a time.
+ */
+public class PuzzleFileReader implements Closeable {
+    // Most bytes of the file mapped at once.
+    private static final long MAP_SIZE = 256L * 1024 * 1024;
+
+    // Bytes copied out of the mapped buffer at a time.
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    // What is being read, at the current position in the line.
+    private static final int AT_LINE_START = 0;
+    private static final int IN_CELLS = 1;
+    private static final int SKIPPING_LINE = 2;
+
+    private final RandomAccessFile mFile;
+    private final FileChannel mChannel;
+    private final long mFileSize;
+    private final long mMapSize;
+
+    private MappedByteBuffer mMapped = null;
+    private long mMappedEnd = 0;
+
+    private final byte[] mChunk;
+    private int mChunkPos = 0;
+    private int mChunkLength = 0;
+
+    private int mState = AT_LINE_START;
+    private int mCellCount = 0;
+
+    // The cells of the last puzzle read, and the same as a CharSequence for BoardModel.
+    private final char[] mCells = new char[BoardModel.CELL_COUNT];
+    private final CharBuffer mCellsSequence = CharBuffer.wrap(mCells);
+
+    private long mPuzzles = 0;
+    private long mInvalid = 0;
+
+    /**
+     * Constructor.
+     *
+     * @param file the file to read.
+     * @throws IOException if the file can't be opened.
+     */
+    public PuzzleFileReader(File file) throws IOException {
+        this(file, MAP_SIZE, CHUNK_SIZE);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param file      the file to read.
+     * @param mapSize   the most bytes of the file to map at once.
+     * @param chunkSize the number of bytes to decode at a time.
+     * @throws IOException if the file can't be opened.
+     */
+    public PuzzleFileReader(File file, long mapSize, int chunkSize) throws IOException {
+        mFile = new RandomAccessFile(file, "r");
+        mChannel = mFile.getChannel();
+        mFileSize = mChannel.size();
+        mMapSize = mapSize;
+        mChunk = new byte[chunkSize];
+    }
+
+    /**
+     * Reads the next puzzle.
+     *
+     * @param puzzle array of at least 81 characters to put the puzzle in, with '.' for blank
+     *               cells.
+     * @return true if a puzzle was read, or false at the end of the file.
+     * @throws IOException if the file can't be read.
+     */
+    public boolean next(char[] puzzle) throws IOException {
+        if (!readPuzzle()) {
+            return false;
+        }
+
+        System.arraycopy(mCells, 0, puzzle, 0, BoardModel.CELL_COUNT);
+
+        return true;
+    }
+
+    /**
+     * Reads the next puzzle on to a board, as with BoardModel.setPuzzle().
+     *
+     * @param board the board to load the puzzle on to.
+     * @return true if a puzzle was read, or false at the end of the file.
+     * @throws IOException if the file can't be read.
+     */
+    public boolean next(BoardModel board) throws IOException {
+        if (!readPuzzle()) {
+            return false;
+        }
+
+        board.setPuzzle(mCellsSequence);
+
+        return true;
+    }
+
+    /**
+     * Get the rest of the puzzles as strings, for passing to a BatchSolver or ParallelBatchSolver.
+     * A string is created for each puzzle; use next() to avoid this.
+     * <p>
+     * If the file can't be read, hasNext() throws an IllegalStateException.
+     */
+    public Iterator<String> puzzles() {
+        return new Iterator<String>() {
+            private String mNext = null;
+
+            @Override
+            public boolean hasNext() {
+                if (mNext == null) {
+                    try {
+                        if (readPuzzle()) {
+                            mNext = new String(mCells);
+                        }
+                    } catch (IOException e) {
+                        throw new IllegalStateException("Could not read puzzles.", e);
+                    }
+                }
+
+                return mNext != null;
+            }
+
+            @Override
+            public String next() {
+                String puzzle;
+
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+
+                puzzle = mNext;
+                mNext = null;
+
+                return puzzle;
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    /**
+     * Number of puzzles read so far
+     */
+    public long getPuzzles() {
+        return mPuzzles;
+    }
+
+    /**
+     * Number of lines skipped so far because they didn't start with 81 cells
+     */
+    public long getInvalid() {
+        return mInvalid;
+    }
+
+    @Override
+    public void close() throws IOException {
+        mMapped = null;
+        mFile.close();
+    }
+
+    /**
+     * Decodes bytes until a whole puzzle has been read into mCells.
+     *
+     * @return false if the end of the file was reached first.
+     */
+    private boolean readPuzzle() throws IOException {
+        byte[] chunk = mChunk;
+        int b;
+
+        while (true) {
+            if (mChunkPos == mChunkLength && !readChunk()) {
+                // A puzzle may have been cut short by the end of the file.
+                if (mState == IN_CELLS) {
+                    ++mInvalid;
+                }
+                mState = AT_LINE_START;
+
+                return false;
+            }
+
+            b = chunk[mChunkPos++];
+
+            if (b == '\n') {
+                if (mState == IN_CELLS) {
+                    ++mInvalid;
+                }
+                mState = AT_LINE_START;
+            } else if (mState == SKIPPING_LINE) {
+                // Skip the rest of the line in one go.
+                while (mChunkPos < mChunkLength && chunk[mChunkPos] != '\n') {
+                    ++mChunkPos;
+                }
+            } else if (b >= '1' && b <= '9') {
+                if (addCell((char) b)) {
+                    return true;
+                }
+            } else if (b == '.' || b == '0') {
+                if (addCell('.')) {
+                    return true;
+                }
+            } else if (mState == AT_LINE_START) {
+                if (b == '#') {
+                    mState = SKIPPING_LINE;
+                } else if (b != ' ' && b != '\t' && b != '\r') {
+                    ++mInvalid;
+                    mState = SKIPPING_LINE;
+                }
+            } else {
+                // A line that doesn't have 81 cells.
+                ++mInvalid;
+                mState = SKIPPING_LINE;
+            }
+        }
+    }
+
+    /**
+     * Adds a cell to the puzzle being read.
+     *
+     * @return true if the puzzle is complete.
+     */
+    private boolean addCell(char cell) {
+        if (mState == AT_LINE_START) {
+            mState = IN_CELLS;
+            mCellCount = 0;
+        }
+
+        mCells[mCellCount++] = cell;
+
+        if (mCellCount == BoardModel.CELL_COUNT) {
+            mState = SKIPPING_LINE;
+            ++mPuzzles;
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Copies the next chunk of bytes out of the mapped file, mapping the next piece of the file
+     * when the current one has been used up.
+     *
+     * @return false if the end of the file has been reached.
+     */
+    private boolean readChunk() throws IOException {
+        if (mMapped == null || !mMapped.hasRemaining()) {
+            if (mMappedEnd >= mFileSize) {
+                return false;
+            }
+
+            long size = Math.min(mMapSize, mFileSize - mMappedEnd);
+
+            mMapped = mChannel.map(FileChannel.MapMode.READ_ONLY, mMappedEnd, size);
+            mMappedEnd += size;
+        }
+
+        mChunkLength = Math.min(mChunk.length, mMapped.remaining());
+        mChunkPos = 0;
+        mMapped.get(mChunk, 0, mChunkLength);
+
+        return true;
+    }
+}
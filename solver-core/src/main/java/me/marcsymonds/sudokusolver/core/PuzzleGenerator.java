@@ -0,0 +1,314 @@
+package me.marcsymonds.sudokusolver.core;
+
+import java.nio.CharBuffer;
+import java.util.Random;
+
+/**
+ * Creates new puzzles which have only one solution.
+ * <p>
+ * A random solved board is created first, by putting random numbers in the three blocks on the
+ * diagonal (which can't conflict with each other), solving the rest of the board, and then
+ * swapping the numbers around. Fixed numbers are then taken out in a random order; after each one
+ * is taken out the puzzle is checked, and the number is put back if the puzzle no longer has only
+ * one solution or has become harder than the difficulty wanted.
+ * <p>
+ * The current puzzle is kept on a board that has been prepared for solving, and each number is
+ * taken out of a copy of that board, rather than loading the whole puzzle again for every check.
+ * As the solution is already known, a puzzle only has one solution if it can't be solved with the
+ * number that was taken out eliminated from its cell, which is a single search that can stop at
+ * the first solution rather than having to look for a second one.
+ * <p>
+ * A PuzzleGenerator reuses its board and solver for every check, so should only be used by one
+ * thread at a time; use a generator for each thread (see ParallelPuzzleGenerator).
+ */
+public class PuzzleGenerator {
+    /**
+     * Default number of puzzles to try before giving up on getting the difficulty wanted
+     */
+    public static final int DEFAULT_MAX_ATTEMPTS = 50;
+
+    private static final char BLANK = '.';
+
+    private final Random mRandom;
+    private final BoardModel mBoard = new BoardModel();
+    private final BacktrackingSolver mSolver = new BacktrackingSolver(mBoard);
+
+    // The current puzzle, prepared for solving; each check is done on a copy of it in mBoard.
+    private final BoardModel mPuzzleBoard = new BoardModel();
+
+    // The puzzle being worked on, and a view of it that can be loaded on to the board.
+    private final char[] mCells = new char[BoardModel.CELL_COUNT];
+    private final CharBuffer mPuzzle = CharBuffer.wrap(mCells);
+
+    // Working space for shuffling the cells and numbers.
+    private final int[] mCellOrder = new int[BoardModel.CELL_COUNT];
+    private final int[] mNumbers = new int[BoardModel.SIZE];
+
+    private int mMaxAttempts = DEFAULT_MAX_ATTEMPTS;
+
+    public PuzzleGenerator() {
+        this(new Random());
+    }
+
+    /**
+     * Constructor; the same seed always generates the same puzzles.
+     *
+     * @param seed seed for the random numbers.
+     */
+    public PuzzleGenerator(long seed) {
+        this(new Random(seed));
+    }
+
+    public PuzzleGenerator(Random random) {
+        mRandom = random;
+    }
+
+    public int getMaxAttempts() {
+        return mMaxAttempts;
+    }
+
+    /**
+     * Sets the number of puzzles to try before giving up on getting the difficulty wanted.
+     *
+     * @param maxAttempts the number of puzzles.
+     */
+    public void setMaxAttempts(int maxAttempts) {
+        mMaxAttempts = Math.max(1, maxAttempts);
+    }
+
+    /**
+     * Creates a new puzzle.
+     *
+     * @param difficulty how hard the puzzle should be.
+     * @param symmetry   the pattern the fixed numbers should be in.
+     * @return the puzzle. If a puzzle of the difficulty wanted couldn't be made within the maximum
+     * number of attempts, then the difficulty of the puzzle returned will be different; it will
+     * never be harder than wanted.
+     */
+    public GeneratedPuzzle generate(PuzzleDifficulty difficulty, PuzzleSymmetry symmetry) {
+        GeneratedPuzzle puzzle = null;
+
+        for (int attempt = 0; attempt < mMaxAttempts; attempt++) {
+            puzzle = generateOnce(difficulty, symmetry);
+            if (puzzle.getDifficulty() == difficulty) {
+                break;
+            }
+        }
+
+        return puzzle;
+    }
+
+    /**
+     * Works out how hard a puzzle is.
+     *
+     * @param puzzle the puzzle, in the same format as BoardModel.setPuzzle().
+     * @return the difficulty, or null if the puzzle doesn't have exactly one solution.
+     */
+    public PuzzleDifficulty rate(CharSequence puzzle) {
+        if (solvesWithoutGuessing(puzzle, false)) {
+            return PuzzleDifficulty.EASY;
+        } else if (solvesWithoutGuessing(puzzle, true)) {
+            return PuzzleDifficulty.MEDIUM;
+        } else if (hasOneSolution(puzzle)) {
+            return PuzzleDifficulty.HARD;
+        } else {
+            return null;
+        }
+    }
+
+    private GeneratedPuzzle generateOnce(PuzzleDifficulty difficulty, PuzzleSymmetry symmetry) {
+        int i, cell, partner;
+        String solution = createSolution();
+
+        mPuzzleBoard.setPuzzle(mPuzzle);
+
+        for (i = 0; i < BoardModel.CELL_COUNT; i++) {
+            mCellOrder[i] = i;
+        }
+        shuffle(mCellOrder);
+
+        for (i = 0; i < BoardModel.CELL_COUNT; i++) {
+            cell = mCellOrder[i];
+            partner = symmetry.partnerOf(cell);
+
+            if (mCells[cell] == BLANK) {
+                // Already taken out with its partner.
+                continue;
+            }
+
+            if (isAcceptable(difficulty, cell, partner)) {
+                mCells[cell] = BLANK;
+                mCells[partner] = BLANK;
+
+                takeOut(mPuzzleBoard, cell);
+                takeOut(mPuzzleBoard, partner);
+            }
+        }
+
+        return new GeneratedPuzzle(new String(mCells), solution, rate(mPuzzle));
+    }
+
+    /**
+     * Checks if the current puzzle would still have one solution, and be no harder than wanted,
+     * with the numbers in a cell and its partner taken out.
+     */
+    private boolean isAcceptable(PuzzleDifficulty difficulty, int cell, int partner) {
+        // A puzzle that can be solved without guessing can only have one solution.
+        switch (difficulty) {
+            case EASY:
+                loadWithout(cell, partner);
+                return solvesWithoutGuessing(false);
+
+            case MEDIUM:
+                loadWithout(cell, partner);
+                return solvesWithoutGuessing(true);
+
+            default:
+                return hasOnlySolution(cell, partner);
+        }
+    }
+
+    /**
+     * Puts a copy of the current puzzle on the board, with the numbers in a cell and its partner
+     * taken out.
+     */
+    private void loadWithout(int cell, int partner) {
+        mBoard.copyFrom(mPuzzleBoard);
+        takeOut(mBoard, cell);
+        takeOut(mBoard, partner);
+    }
+
+    /**
+     * Takes a fixed number out of a cell, leaving the board prepared for solving as though the
+     * puzzle had been loaded without it. Does nothing if the cell is already blank.
+     */
+    private static void takeOut(BoardModel board, int cell) {
+        int number = board.getNumber(cell);
+
+        if (number > 0) {
+            board.clearCell(cell);
+            board.unuseNumber(cell, number);
+        }
+    }
+
+    /**
+     * Creates a random solved board, and leaves it in the current puzzle.
+     *
+     * @return the solved board.
+     */
+    private String createSolution() {
+        int i, block;
+        int[] cells;
+
+        for (i = 0; i < BoardModel.CELL_COUNT; i++) {
+            mCells[i] = BLANK;
+        }
+
+        for (block = 0; block < BoardModel.SIZE; block += 4) {
+            cells = BoardModel.cellsOf(BoardModel.blockUnit(block));
+            shuffleNumbers();
+
+            for (i = 0; i < cells.length; i++) {
+                mCells[cells[i]] = (char) ('0' + mNumbers[i]);
+            }
+        }
+
+        mBoard.setPuzzle(mPuzzle);
+        setAllStagesEnabled(true);
+        mSolver.setSolutionLimit(1);
+
+        if (mSolver.solve() != SolverState.FINISHED_SUCCESS) {
+            throw new IllegalStateException("Could not create a solved board.");
+        }
+
+        // Swap the numbers around, so the solver's preference for low numbers doesn't show.
+        shuffleNumbers();
+
+        for (i = 0; i < BoardModel.CELL_COUNT; i++) {
+            mCells[i] = (char) ('0' + mNumbers[mBoard.getNumber(i) - 1]);
+        }
+
+        return new String(mCells);
+    }
+
+    private boolean solvesWithoutGuessing(CharSequence puzzle, boolean allStages) {
+        mBoard.setPuzzle(puzzle);
+
+        return solvesWithoutGuessing(allStages);
+    }
+
+    private boolean solvesWithoutGuessing(boolean allStages) {
+        setAllStagesEnabled(allStages);
+        mSolver.setStageEnabled(PropagationStage.HIDDEN_SINGLES, true);
+        mSolver.setSolutionLimit(1);
+        mSolver.start();
+
+        // If there is nothing left to guess, the first step finds that the board is solved.
+        return mSolver.run(1) == SolverState.FINISHED_SUCCESS;
+    }
+
+    private boolean hasOneSolution(CharSequence puzzle) {
+        mBoard.setPuzzle(puzzle);
+        setAllStagesEnabled(true);
+
+        return mSolver.countSolutions(2) == 1;
+    }
+
+    /**
+     * Checks that the solution of the current puzzle would still be its only solution with the
+     * numbers in a cell and its partner taken out; that is, that there is no solution with a
+     * different number in the cell, or with the same number in the cell and a different number in
+     * the partner.
+     */
+    private boolean hasOnlySolution(int cell, int partner) {
+        int number = mPuzzleBoard.getNumber(cell);
+        int partnerNumber = mPuzzleBoard.getNumber(partner);
+
+        setAllStagesEnabled(true);
+        mSolver.setSolutionLimit(1);
+
+        loadWithout(cell, partner);
+        mBoard.eliminateNumber(cell, number);
+        if (mSolver.solve() == SolverState.FINISHED_SUCCESS) {
+            return false;
+        }
+
+        if (partner != cell) {
+            loadWithout(partner, partner);
+            mBoard.eliminateNumber(partner, partnerNumber);
+            if (mSolver.solve() == SolverState.FINISHED_SUCCESS) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private void setAllStagesEnabled(boolean enabled) {
+        for (PropagationStage stage : PropagationStage.values()) {
+            mSolver.setStageEnabled(stage, enabled);
+        }
+    }
+
+    /**
+     * Puts the numbers 1 to 9 in a random order.
+     */
+    private void shuffleNumbers() {
+        for (int i = 0; i < mNumbers.length; i++) {
+            mNumbers[i] = i + 1;
+        }
+
+        shuffle(mNumbers);
+    }
+
+    private void shuffle(int[] values) {
+        int i, j, value;
+
+        for (i = values.length - 1; i > 0; i--) {
+            j = mRandom.nextInt(i + 1);
+            value = values[i];
+            values[i] = values[j];
+            values[j] = value;
+        }
+    }
+}
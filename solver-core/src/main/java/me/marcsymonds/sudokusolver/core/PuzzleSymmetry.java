@@ -0,0 +1,39 @@
+package me.marcsymonds.sudokusolver.core;
+
+/**
+ * The patterns the fixed numbers of a generated puzzle can be arranged in.
+ */
+public enum PuzzleSymmetry {
+    /**
+     * Fixed numbers can be anywhere
+     */
+    NONE,
+    /**
+     * The pattern looks the same when the board is turned upside down (rotated 180 degrees)
+     */
+    ROTATIONAL,
+    /**
+     * The pattern is the same on the left and right of the board
+     */
+    MIRROR;
+
+    /**
+     * Get the cell that must match a cell in the pattern.
+     *
+     * @param cell index of the cell.
+     * @return index of the matching cell; the same cell if there is no symmetry, or the cell is
+     * in the middle of the pattern.
+     */
+    public int partnerOf(int cell) {
+        switch (this) {
+            case ROTATIONAL:
+                return BoardModel.CELL_COUNT - 1 - cell;
+
+            case MIRROR:
+                return BoardModel.indexOf(BoardModel.SIZE - 1 - BoardModel.xOf(cell), BoardModel.yOf(cell));
+
+            default:
+                return cell;
+        }
+    }
+}
@@ -1,6 +1,4 @@
-package me.marcsymonds.sudokusolver;
-
-import android.util.Log;
+package me.marcsymonds.sudokusolver.core;
 
 /**
  * Class for reading a string which was created to save the data for an object.
@@ -11,9 +9,7 @@ import android.util.Log;
  * Could probably create a complementary SaveDataWriter class for creating the string. But not for
  * now.
  */
-class SavedDataReader {
-    final private String TAG = SavedDataReader.class.getSimpleName();
-
+public class SavedDataReader {
     private String data;
     private String[] sections;
     private int currentSection;
@@ -25,13 +21,11 @@ class SavedDataReader {
      * @param savedData string containing the saved data to be read. The data may have been created
      *                  with # as section separators.
      */
-    SavedDataReader(String savedData) {
+    public SavedDataReader(String savedData) {
         data = savedData;
         sections = data.split("#");
         currentSection = 0;
         index = 0;
-
-        Log.d(TAG, "Saved data: " + savedData);
     }
 
     /**
@@ -40,7 +34,7 @@ class SavedDataReader {
      * @param digits the number of digits in the integer to read.
      * @return integer read, or -1 if value is not a valid integer.
      */
-    int readInt(int digits) {
+    public int readInt(int digits) {
         int val = 0;
         String sVal;
 
@@ -64,7 +58,7 @@ class SavedDataReader {
      *
      * @return integer read, or -1 if value is not a valid integer.
      */
-    int readInt() {
+    public int readInt() {
         return readInt(1);
     }
 
@@ -74,7 +68,7 @@ class SavedDataReader {
      *
      * @return the boolean of the value read.
      */
-    boolean readBool() {
+    public boolean readBool() {
         boolean val = false;
 
         if (index < sections[currentSection].length()) {
@@ -85,14 +79,14 @@ class SavedDataReader {
         return (val);
     }
 
-    boolean EOS() {
+    public boolean EOS() {
         return (index >= sections[currentSection].length());
     }
 
     /**
      * Go to the next section of the saved data.
      */
-    void nextSection() {
+    public void nextSection() {
         currentSection++;
         index = 0;
     }
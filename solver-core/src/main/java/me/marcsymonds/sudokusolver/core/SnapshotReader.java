@@ -0,0 +1,100 @@
+package me.marcsymonds.sudokusolver.core;
+
+/**
+ * Reads a snapshot that was written by SnapshotWriter.
+ * <p>
+ * The values must be read with the same number of bits they were written with. The reader reads
+ * straight from the array it is given, and can be reused for another snapshot with reset(), so
+ * reading doesn't allocate anything.
+ */
+public class SnapshotReader {
+    private byte[] mData;
+    private int mLength;
+    private int mPosition;
+    private int mVersion = 0;
+
+    // Bits read from the data which haven't been used yet, in the low bits.
+    private long mPending;
+    private int mPendingBits;
+
+    /**
+     * Constructor.
+     *
+     * @param data the snapshot.
+     */
+    public SnapshotReader(byte[] data) {
+        reset(data, data.length);
+    }
+
+    /**
+     * Starts reading another snapshot.
+     *
+     * @param data   array containing the snapshot.
+     * @param length the length of the snapshot in the array.
+     */
+    public void reset(byte[] data, int length) {
+        mData = data;
+        mLength = length;
+        mPosition = 0;
+        mPending = 0;
+        mPendingBits = 0;
+        mVersion = 0;
+    }
+
+    /**
+     * Reads the header which starts a snapshot.
+     *
+     * @return the version of the format the snapshot was written in.
+     * @throws IllegalArgumentException if the data isn't a snapshot, or was written by a newer
+     *                                  version than this one can read.
+     */
+    public int readHeader() {
+        if (mLength < 3 || readBits(16) != SnapshotWriter.MAGIC) {
+            throw new IllegalArgumentException("Data is not a snapshot.");
+        }
+
+        mVersion = readBits(8);
+        if (mVersion < 1 || mVersion > SnapshotWriter.VERSION) {
+            throw new IllegalArgumentException("Unsupported snapshot version " + mVersion + ".");
+        }
+
+        return mVersion;
+    }
+
+    /**
+     * Get the version of the format being read; 0 until the header has been read.
+     */
+    public int getVersion() {
+        return mVersion;
+    }
+
+    /**
+     * Reads a value that was written with a number of bits.
+     *
+     * @param bits the number of bits (1-32).
+     * @return the value.
+     * @throws IllegalStateException if there is no more data.
+     */
+    public int readBits(int bits) {
+        int value;
+
+        while (mPendingBits < bits) {
+            if (mPosition >= mLength) {
+                throw new IllegalStateException("Snapshot is too short.");
+            }
+
+            mPending = (mPending << 8) | (mData[mPosition++] & 0xFF);
+            mPendingBits += 8;
+        }
+
+        mPendingBits -= bits;
+        value = (int) ((mPending >>> mPendingBits) & (0xFFFFFFFFL >>> (32 - bits)));
+        mPending &= (1L << mPendingBits) - 1;
+
+        return value;
+    }
+
+    public boolean readBool() {
+        return readBits(1) != 0;
+    }
+}
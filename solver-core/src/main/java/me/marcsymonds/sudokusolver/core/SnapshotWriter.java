@@ -0,0 +1,115 @@
+package me.marcsymonds.sudokusolver.core;
+
+import java.util.Arrays;
+
+/**
+ * Writes the state of the board and solver as a compact binary snapshot, which can be read back
+ * by SnapshotReader.
+ * <p>
+ * Values are packed using only the number of bits they need; for example a number in a cell
+ * takes 4 bits and a mask of possible numbers takes 9. A snapshot starts with a header which
+ * identifies it as a snapshot and gives the version of the format, so that snapshots saved by
+ * an older version can still be read.
+ * <p>
+ * The buffer is kept and reused after reset(), so writing a snapshot doesn't allocate anything
+ * unless the buffer has to grow.
+ */
+public class SnapshotWriter {
+    /**
+     * The first two bytes of every snapshot
+     */
+    static final int MAGIC = 0x5353;
+
+    /**
+     * The version of the format written
+     */
+    public static final int VERSION = 1;
+
+    private byte[] mBuffer;
+    private int mSize = 0;
+
+    // Bits which haven't yet filled a byte, in the low bits.
+    private long mPending = 0;
+    private int mPendingBits = 0;
+
+    public SnapshotWriter() {
+        this(512);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param capacity the number of bytes to allocate for the buffer to start with.
+     */
+    public SnapshotWriter(int capacity) {
+        mBuffer = new byte[Math.max(16, capacity)];
+    }
+
+    /**
+     * Empties the buffer, ready to write another snapshot.
+     */
+    public void reset() {
+        mSize = 0;
+        mPending = 0;
+        mPendingBits = 0;
+    }
+
+    /**
+     * Writes the header which starts a snapshot.
+     */
+    public void writeHeader() {
+        writeBits(MAGIC, 16);
+        writeBits(VERSION, 8);
+    }
+
+    /**
+     * Writes a value using a number of bits.
+     *
+     * @param value the value; only the lowest bits are written.
+     * @param bits  the number of bits (1-32).
+     */
+    public void writeBits(int value, int bits) {
+        mPending = (mPending << bits) | (value & (0xFFFFFFFFL >>> (32 - bits)));
+        mPendingBits += bits;
+
+        while (mPendingBits >= 8) {
+            mPendingBits -= 8;
+            writeByte((int) (mPending >>> mPendingBits));
+        }
+
+        mPending &= (1L << mPendingBits) - 1;
+    }
+
+    public void writeBool(boolean value) {
+        writeBits(value ? 1 : 0, 1);
+    }
+
+    /**
+     * Get the number of bytes written so far, including a part filled byte.
+     */
+    public int getSize() {
+        return mSize + ((mPendingBits > 0) ? 1 : 0);
+    }
+
+    /**
+     * Finishes the snapshot, filling out the last byte if it is only partly written, and returns
+     * a copy of it.
+     *
+     * @return the snapshot.
+     */
+    public byte[] toByteArray() {
+        if (mPendingBits > 0) {
+            writeBits(0, 8 - mPendingBits);
+        }
+
+        return Arrays.copyOf(mBuffer, mSize);
+    }
+
+    private void writeByte(int value) {
+        if (mSize == mBuffer.length) {
+            mBuffer = Arrays.copyOf(mBuffer, mBuffer.length * 2);
+        }
+
+        mBuffer[mSize++] = (byte) value;
+    }
+}
@@ -0,0 +1,280 @@
+package me.marcsymonds.sudokusolver.core;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps the solutions of puzzles that have been solved, so that a puzzle which is solved again
+ * can be looked up rather than solved.
+ * <p>
+ * Puzzles and solutions are held packed, 4 bits to a cell, so an entry takes a couple of hundred
+ * bytes. The cache is given a memory budget, from which the number of entries it can hold is
+ * worked out; when it is full, the entry that was used longest ago is dropped.
+ * <p>
+ * The cache can also treat puzzles which only differ in how the numbers are labelled as the same
+ * puzzle (see setRelabelNumbers()); for example a puzzle, and the same puzzle with every 1 and 2
+ * swapped. The numbers in a puzzle are relabelled in the order they first appear before it is
+ * looked up, and the solution is labelled back to the puzzle's numbers when it is found.
+ * <p>
+ * Puzzles are in the same format as BoardModel.setPuzzle(). A cache can be shared by several
+ * threads.
+ */
+public class SolutionCache {
+    /**
+     * Estimated number of bytes held for each entry; the key and solution, their arrays, and the
+     * map's entry
+     */
+    public static final int ENTRY_BYTES = 224;
+
+    // Number of longs needed for a packed board.
+    private static final int PACKED_LENGTH = (BoardModel.CELL_COUNT * 4 + 63) / 64;
+
+    private final int mMaxEntries;
+    private final LinkedHashMap<Key, long[]> mEntries;
+    private boolean mRelabelNumbers = false;
+
+    private long mHits = 0;
+    private long mMisses = 0;
+    private long mEvictions = 0;
+
+    /**
+     * A puzzle packed as a map key.
+     */
+    private static final class Key {
+        private final long[] mPacked;
+        private final int mHash;
+
+        Key(long[] packed) {
+            mPacked = packed;
+            mHash = Arrays.hashCode(packed);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return (other instanceof Key) && Arrays.equals(mPacked, ((Key) other).mPacked);
+        }
+
+        @Override
+        public int hashCode() {
+            return mHash;
+        }
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param memoryBudget the most memory the cache should use, in bytes.
+     */
+    public SolutionCache(long memoryBudget) {
+        mMaxEntries = (int) Math.max(1, Math.min(Integer.MAX_VALUE, memoryBudget / ENTRY_BYTES));
+
+        mEntries = new LinkedHashMap<Key, long[]>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, long[]> eldest) {
+                if (size() > mMaxEntries) {
+                    ++mEvictions;
+                    return true;
+                }
+
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Get the most entries the cache will hold.
+     */
+    public int getMaxEntries() {
+        return mMaxEntries;
+    }
+
+    public synchronized boolean isRelabelNumbers() {
+        return mRelabelNumbers;
+    }
+
+    /**
+     * Switches treating puzzles which only differ in the labelling of their numbers as the same
+     * puzzle on or off. The cache is cleared, as the entries are kept differently. Off by default.
+     *
+     * @param relabelNumbers whether to relabel the numbers.
+     */
+    public synchronized void setRelabelNumbers(boolean relabelNumbers) {
+        if (relabelNumbers != mRelabelNumbers) {
+            mRelabelNumbers = relabelNumbers;
+            mEntries.clear();
+        }
+    }
+
+    /**
+     * Looks up the solution of a puzzle.
+     *
+     * @param puzzle the puzzle.
+     * @return the solution, or null if the puzzle isn't in the cache.
+     */
+    public String get(CharSequence puzzle) {
+        int[] labels = null;
+        long[] solution;
+
+        checkLength(puzzle);
+
+        if (isRelabelNumbers()) {
+            labels = new int[BoardModel.SIZE + 1];
+            relabel(puzzle, labels);
+        }
+
+        Key key = new Key(pack(puzzle, labels));
+
+        synchronized (this) {
+            solution = mEntries.get(key);
+
+            if (solution == null) {
+                ++mMisses;
+                return null;
+            }
+
+            ++mHits;
+        }
+
+        return unpack(solution, (labels == null) ? null : invert(labels));
+    }
+
+    /**
+     * Adds the solution of a puzzle to the cache.
+     *
+     * @param puzzle   the puzzle.
+     * @param solution the solution.
+     */
+    public void put(CharSequence puzzle, CharSequence solution) {
+        int[] labels = null;
+
+        checkLength(puzzle);
+        checkLength(solution);
+
+        if (isRelabelNumbers()) {
+            labels = new int[BoardModel.SIZE + 1];
+            relabel(puzzle, labels);
+        }
+
+        Key key = new Key(pack(puzzle, labels));
+        long[] packedSolution = pack(solution, labels);
+
+        synchronized (this) {
+            mEntries.put(key, packedSolution);
+        }
+    }
+
+    public synchronized int size() {
+        return mEntries.size();
+    }
+
+    public synchronized void clear() {
+        mEntries.clear();
+    }
+
+    /**
+     * Number of puzzles that were found in the cache
+     */
+    public synchronized long getHits() {
+        return mHits;
+    }
+
+    /**
+     * Number of puzzles that weren't found in the cache
+     */
+    public synchronized long getMisses() {
+        return mMisses;
+    }
+
+    /**
+     * Number of entries dropped to keep within the memory budget
+     */
+    public synchronized long getEvictions() {
+        return mEvictions;
+    }
+
+    private static void checkLength(CharSequence board) {
+        if (board.length() < BoardModel.CELL_COUNT) {
+            throw new IllegalArgumentException("Puzzle must contain " + BoardModel.CELL_COUNT + " cells.");
+        }
+    }
+
+    /**
+     * Works out the label for each number; the numbers are labelled in the order they first
+     * appear in the puzzle, and any numbers that don't appear are labelled after them in order.
+     *
+     * @param puzzle the puzzle.
+     * @param labels array to set the label of each number in; index 0 is left as 0.
+     */
+    private static void relabel(CharSequence puzzle, int[] labels) {
+        int next = 1;
+        int number;
+
+        for (int cell = 0; cell < BoardModel.CELL_COUNT && next <= BoardModel.SIZE; cell++) {
+            number = numberAt(puzzle, cell);
+            if (number > 0 && labels[number] == 0) {
+                labels[number] = next++;
+            }
+        }
+
+        for (number = 1; number <= BoardModel.SIZE; number++) {
+            if (labels[number] == 0) {
+                labels[number] = next++;
+            }
+        }
+    }
+
+    private static int[] invert(int[] labels) {
+        int[] numbers = new int[labels.length];
+
+        for (int number = 1; number < labels.length; number++) {
+            numbers[labels[number]] = number;
+        }
+
+        return numbers;
+    }
+
+    private static int numberAt(CharSequence board, int cell) {
+        char c = board.charAt(cell);
+
+        return (c >= '1' && c <= '9') ? c - '0' : 0;
+    }
+
+    /**
+     * Packs a board, 4 bits to a cell; blank cells are 0.
+     *
+     * @param board  the board.
+     * @param labels the label to use for each number, or null to use the numbers as they are.
+     */
+    private static long[] pack(CharSequence board, int[] labels) {
+        long[] packed = new long[PACKED_LENGTH];
+        int number;
+
+        for (int cell = 0; cell < BoardModel.CELL_COUNT; cell++) {
+            number = numberAt(board, cell);
+            if (labels != null) {
+                number = labels[number];
+            }
+
+            packed[cell >>> 4] |= ((long) number) << ((cell & 15) * 4);
+        }
+
+        return packed;
+    }
+
+    private static String unpack(long[] packed, int[] numbers) {
+        char[] board = new char[BoardModel.CELL_COUNT];
+        int number;
+
+        for (int cell = 0; cell < BoardModel.CELL_COUNT; cell++) {
+            number = (int) ((packed[cell >>> 4] >>> ((cell & 15) * 4)) & 0xF);
+            if (numbers != null) {
+                number = numbers[number];
+            }
+
+            board[cell] = (number == 0) ? '.' : (char) ('0' + number);
+        }
+
+        return new String(board);
+    }
+}
@@ -0,0 +1,90 @@
+package me.marcsymonds.sudokusolver.core;
+
+/**
+ * A way of solving a Sudoku board.
+ * <p>
+ * An engine doesn't run on a thread of its own; the caller runs it for a number of iterations at
+ * a time, which allows the caller to show progress or stop the engine between runs. While it is
+ * running, and when it has finished, the numbers it has worked out are set on its board.
+ */
+public interface SolverEngine {
+    BoardModel getBoard();
+
+    /**
+     * Gets the engine ready to solve the board. The board should have been prepared for solving.
+     */
+    void start();
+
+    /**
+     * Starts the engine and runs it until the board is either solved or found to be unsolvable.
+     *
+     * @return FINISHED_SUCCESS or FINISHED_FAILED.
+     */
+    SolverState solve();
+
+    /**
+     * Runs the engine for a number of iterations.
+     *
+     * @param maxIterations the maximum number of iterations to run, or 0 to run until the engine
+     *                      finishes.
+     * @return RUNNING if the engine has not yet finished, otherwise FINISHED_SUCCESS or
+     * FINISHED_FAILED.
+     */
+    SolverState run(int maxIterations);
+
+    SolverState getRunState();
+
+    /**
+     * Returns the indexes of the cells that were solved; i.e. the cells that weren't fixed.
+     *
+     * @return array of cell indexes.
+     */
+    int[] getSolvedCells();
+
+    /**
+     * Sets the object to count the engine's work in. Counting is off by default, and costs
+     * nothing while it is off.
+     *
+     * @param metrics the metrics to add to, or null to stop counting.
+     */
+    void setMetrics(SolverMetrics metrics);
+
+    /**
+     * Get the object the engine's work is being counted in.
+     *
+     * @return the metrics, or null if counting is off.
+     */
+    SolverMetrics getMetrics();
+
+    /**
+     * Appends data representing the state of the engine. The numbers in the cells are not
+     * included; they are saved with the board.
+     *
+     * @param data the data to append to.
+     */
+    void getSaveData(StringBuilder data);
+
+    /**
+     * Restores the state of the engine, so that it can carry on from where it was when the data
+     * was saved. The board must already have been restored.
+     *
+     * @param dataReader SavedDataReader object to restore the state of the engine from.
+     */
+    void restoreSavedData(SavedDataReader dataReader);
+
+    /**
+     * Writes the state of the engine to a snapshot. As with getSaveData(), the numbers in the
+     * cells are written with the board.
+     *
+     * @param writer the writer to write the snapshot with.
+     */
+    void writeSnapshot(SnapshotWriter writer);
+
+    /**
+     * Restores the state of the engine from a snapshot. The board must already have been
+     * restored.
+     *
+     * @param reader the reader to read the snapshot with.
+     */
+    void readSnapshot(SnapshotReader reader);
+}
@@ -0,0 +1,51 @@
+package me.marcsymonds.sudokusolver.core;
+
+/**
+ * Identifies the engines that can be used to solve a board.
+ */
+public enum SolverEngineType {
+    /**
+     * Tries numbers in cells and goes back when a cell can't be solved; see BacktrackingSolver
+     */
+    BACKTRACKING,
+    /**
+     * Treats the board as an exact cover problem; see DancingLinksSolver
+     */
+    DANCING_LINKS;
+
+    public static SolverEngineType fromInteger(int val) {
+        switch (val) {
+            case 1:
+                return DANCING_LINKS;
+
+            default:
+                return BACKTRACKING;
+        }
+    }
+
+    public int toInteger() {
+        switch (this) {
+            case DANCING_LINKS:
+                return 1;
+
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * Creates an engine of this type.
+     *
+     * @param board the board for the engine to solve.
+     * @return the new engine.
+     */
+    public SolverEngine createEngine(BoardModel board) {
+        switch (this) {
+            case DANCING_LINKS:
+                return new DancingLinksSolver(board);
+
+            default:
+                return new BacktrackingSolver(board);
+        }
+    }
+}
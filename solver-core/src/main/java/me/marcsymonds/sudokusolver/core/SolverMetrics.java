@@ -0,0 +1,121 @@
+package me.marcsymonds.sudokusolver.core;
+
+/**
+ * Counts of the work done by a solver engine, and how long it took.
+ * <p>
+ * An engine only keeps metrics if it has been given a SolverMetrics object (see
+ * {@link SolverEngine#setMetrics(SolverMetrics)}); otherwise nothing is counted or timed. The
+ * counts carry on adding up until reset, so one object can be given to several engines, as long
+ * as they aren't running at the same time.
+ */
+public class SolverMetrics {
+    long mGuesses = 0;
+    long mBacktracks = 0;
+    long mSingles = 0;
+    long mHiddenSingles = 0;
+    long mEliminations = 0;
+    long mDeadEnds = 0;
+    long mSolutions = 0;
+    long mPropagationNanos = 0;
+    long mRunNanos = 0;
+
+    /**
+     * Number of times a number was tried in a cell when there was more than one possibility
+     */
+    public long getGuesses() {
+        return mGuesses;
+    }
+
+    /**
+     * Number of times a guess was taken back
+     */
+    public long getBacktracks() {
+        return mBacktracks;
+    }
+
+    /**
+     * Number of cells set because only one number was possible in them
+     */
+    public long getSingles() {
+        return mSingles;
+    }
+
+    /**
+     * Number of cells set because a number could only go in that cell of a row, column or block
+     */
+    public long getHiddenSingles() {
+        return mHiddenSingles;
+    }
+
+    /**
+     * Number of possible numbers ruled out for cells by naked pairs, naked triples and pointing
+     * pairs
+     */
+    public long getEliminations() {
+        return mEliminations;
+    }
+
+    /**
+     * Number of times the board was found to be unsolvable as it was
+     */
+    public long getDeadEnds() {
+        return mDeadEnds;
+    }
+
+    /**
+     * Number of solutions found
+     */
+    public long getSolutions() {
+        return mSolutions;
+    }
+
+    /**
+     * Time spent working out numbers without guessing, in nanoseconds; included in the run time
+     */
+    public long getPropagationNanos() {
+        return mPropagationNanos;
+    }
+
+    /**
+     * Time spent running the engine, in nanoseconds
+     */
+    public long getRunNanos() {
+        return mRunNanos;
+    }
+
+    /**
+     * Adds the counts from another set of metrics to these.
+     *
+     * @param other the metrics to add.
+     */
+    public void add(SolverMetrics other) {
+        mGuesses += other.mGuesses;
+        mBacktracks += other.mBacktracks;
+        mSingles += other.mSingles;
+        mHiddenSingles += other.mHiddenSingles;
+        mEliminations += other.mEliminations;
+        mDeadEnds += other.mDeadEnds;
+        mSolutions += other.mSolutions;
+        mPropagationNanos += other.mPropagationNanos;
+        mRunNanos += other.mRunNanos;
+    }
+
+    public void reset() {
+        mGuesses = 0;
+        mBacktracks = 0;
+        mSingles = 0;
+        mHiddenSingles = 0;
+        mEliminations = 0;
+        mDeadEnds = 0;
+        mSolutions = 0;
+        mPropagationNanos = 0;
+        mRunNanos = 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("guesses=%d, backtracks=%d, singles=%d, hiddenSingles=%d, eliminations=%d, deadEnds=%d, solutions=%d, propagation=%dus, run=%dus",
+                mGuesses, mBacktracks, mSingles, mHiddenSingles, mEliminations, mDeadEnds, mSolutions,
+                mPropagationNanos / 1000, mRunNanos / 1000);
+    }
+}
@@ -1,9 +1,9 @@
-package me.marcsymonds.sudokusolver;
+package me.marcsymonds.sudokusolver.core;
 
 /**
  * Identifies the current state of the Solver.
  */
-enum SolverState {
+public enum SolverState {
     /**
      * Not running; i.e. before it has started
      */
@@ -29,7 +29,7 @@ enum SolverState {
      */
     FINISHED_FAILED;
 
-    static SolverState fromInteger(int val) {
+    public static SolverState fromInteger(int val) {
         switch (val) {
             case 1:
                 return RUNNING;
@@ -51,7 +51,7 @@ enum SolverState {
         }
     }
 
-    int toInteger() {
+    public int toInteger() {
         switch (this) {
             case RUNNING:
                 return 1;
@@ -72,4 +72,4 @@ enum SolverState {
                 return 0;
         }
     }
-};
+}
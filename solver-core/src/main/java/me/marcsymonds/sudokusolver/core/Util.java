@@ -1,19 +1,19 @@
-package me.marcsymonds.sudokusolver;
+package me.marcsymonds.sudokusolver.core;
 
 /**
  * Created by Marc on 11/12/2016.
  */
 
-class Util {
-    static boolean toBoolean(String v) {
+public class Util {
+    public static boolean toBoolean(String v) {
         return !v.equals("0");
     }
 
-    static String toString(boolean v) {
+    public static String toString(boolean v) {
         return v ? "1" : "0";
     }
 
-    static String toString(byte[] b) {
+    public static String toString(byte[] b) {
         int i;
         String data = "";
 
@@ -27,7 +27,7 @@ class Util {
         return data;
     }
 
-    static boolean isNumeric(String str) {
+    public static boolean isNumeric(String str) {
         for (char c : str.toCharArray()) {
             if (!Character.isDigit(c) && !Character.isWhitespace(c))
                 return false;
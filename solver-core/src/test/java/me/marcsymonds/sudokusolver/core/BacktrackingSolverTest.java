@@ -0,0 +1,206 @@
+package me.marcsymonds.sudokusolver.core;
+
+import org.junit.Test;
+
+import static me.marcsymonds.sudokusolver.core.TestPuzzles.EASY;
+import static me.marcsymonds.sudokusolver.core.TestPuzzles.EASY_SOLUTION;
+import static me.marcsymonds.sudokusolver.core.TestPuzzles.MEDIUM;
+import static me.marcsymonds.sudokusolver.core.TestPuzzles.MEDIUM_SOLUTION;
+import static me.marcsymonds.sudokusolver.core.TestPuzzles.HARD;
+import static me.marcsymonds.sudokusolver.core.TestPuzzles.HARD_SOLUTION;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs the solver engine on the JVM, without any of the Android views.
+ */
+public class BacktrackingSolverTest {
+    private static int countFixed(String puzzle) {
+        int count = 0;
+
+        for (int i = 0; i < puzzle.length(); i++) {
+            if (puzzle.charAt(i) != '.') {
+                ++count;
+            }
+        }
+
+        return count;
+    }
+
+    private static int countGuessedCells(BoardModel board) {
+        int count = 0;
+
+        for (int cell = 0; cell < BoardModel.CELL_COUNT; cell++) {
+            if (board.getState(cell) == CellState.CALCULATED) {
+                ++count;
+            }
+        }
+
+        return count;
+    }
+
+    @Test
+    public void solvesEasyPuzzle() throws Exception {
+        BoardModel board = new BoardModel();
+        board.setPuzzle(EASY);
+
+        assertEquals(SolverState.FINISHED_SUCCESS, new BacktrackingSolver(board).solve());
+        assertEquals(EASY_SOLUTION, board.getPuzzleString());
+    }
+
+    @Test
+    public void solvesHardPuzzle() throws Exception {
+        BoardModel board = new BoardModel();
+        board.setPuzzle(HARD);
+
+        assertEquals(SolverState.FINISHED_SUCCESS, new BacktrackingSolver(board).solve());
+        assertEquals(HARD_SOLUTION, board.getPuzzleString());
+    }
+
+    @Test
+    public void solvesHardPuzzleInRowOrder() throws Exception {
+        BoardModel board = new BoardModel();
+        board.setPuzzle(HARD);
+
+        BacktrackingSolver solver = new BacktrackingSolver(board);
+        solver.setCellOrdering(CellOrdering.ROW_MAJOR);
+
+        assertEquals(SolverState.FINISHED_SUCCESS, solver.solve());
+        assertEquals(HARD_SOLUTION, board.getPuzzleString());
+    }
+
+    @Test
+    public void solvesHardPuzzleWithoutPropagationStages() throws Exception {
+        BoardModel board = new BoardModel();
+        board.setPuzzle(HARD);
+
+        BacktrackingSolver solver = new BacktrackingSolver(board);
+        for (PropagationStage stage : PropagationStage.values()) {
+            solver.setStageEnabled(stage, false);
+        }
+
+        assertEquals(SolverState.FINISHED_SUCCESS, solver.solve());
+        assertEquals(HARD_SOLUTION, board.getPuzzleString());
+    }
+
+    @Test
+    public void solvesWithoutGuessingUsingHiddenSingles() throws Exception {
+        BoardModel board = new BoardModel();
+        board.setPuzzle(MEDIUM);
+
+        BacktrackingSolver solver = new BacktrackingSolver(board);
+        solver.start();
+
+        // Nothing left to guess, so the first step finds that the board is solved.
+        assertEquals(SolverState.FINISHED_SUCCESS, solver.run(1));
+        assertEquals(MEDIUM_SOLUTION, board.getPuzzleString());
+    }
+
+    @Test
+    public void countsWorkDone() throws Exception {
+        BoardModel board = new BoardModel();
+        SolverMetrics metrics = new SolverMetrics();
+        BacktrackingSolver solver = new BacktrackingSolver(board);
+        solver.setMetrics(metrics);
+
+        board.setPuzzle(MEDIUM);
+        assertEquals(SolverState.FINISHED_SUCCESS, solver.solve());
+        assertEquals(0, metrics.getGuesses());
+        assertEquals(0, metrics.getBacktracks());
+        assertTrue(metrics.getHiddenSingles() > 0);
+        assertEquals(BoardModel.CELL_COUNT, metrics.getSingles() + metrics.getHiddenSingles() + countFixed(MEDIUM));
+        assertEquals(1, metrics.getSolutions());
+
+        metrics.reset();
+        board.setPuzzle(HARD);
+        assertEquals(SolverState.FINISHED_SUCCESS, solver.solve());
+        assertTrue(metrics.getGuesses() > 0);
+        assertEquals(metrics.getGuesses() - metrics.getBacktracks(), countGuessedCells(board));
+        assertTrue(metrics.getPropagationNanos() <= metrics.getRunNanos());
+    }
+
+    @Test
+    public void countsSolutions() throws Exception {
+        BoardModel board = new BoardModel();
+
+        board.setPuzzle(HARD);
+        assertEquals(1, new BacktrackingSolver(board).countSolutions(2));
+
+        // Taking out the fixed numbers of the first row leaves more than one solution.
+        board.setPuzzle("........." + HARD.substring(9));
+        assertEquals(2, new BacktrackingSolver(board).countSolutions(2));
+
+        board.setPuzzle("........." + HARD.substring(9));
+        assertEquals(10, new BacktrackingSolver(board).countSolutions(10));
+
+        board.setPuzzle(".12345678" + "9........" + "........." + "........." + "........." + "........." + "........." + "........." + ".........");
+        assertEquals(0, new BacktrackingSolver(board).countSolutions(2));
+    }
+
+    @Test
+    public void countsEveryOrderingTheSame() throws Exception {
+        String puzzle = "...." + EASY.substring(4);
+        int[] counts = new int[2];
+
+        for (CellOrdering ordering : CellOrdering.values()) {
+            BoardModel board = new BoardModel();
+            board.setPuzzle(puzzle);
+
+            BacktrackingSolver solver = new BacktrackingSolver(board);
+            solver.setCellOrdering(ordering);
+            for (PropagationStage stage : PropagationStage.values()) {
+                solver.setStageEnabled(stage, ordering == CellOrdering.FEWEST_CANDIDATES);
+            }
+
+            counts[ordering.toInteger()] = solver.countSolutions(1000);
+        }
+
+        assertEquals(counts[0], counts[1]);
+    }
+
+    @Test
+    public void failsUnsolvablePuzzle() throws Exception {
+        BoardModel board = new BoardModel();
+
+        // The top left cell can't contain any number.
+        board.setPuzzle(".12345678" + "9........" + "........." + "........." + "........." + "........." + "........." + "........." + ".........");
+
+        assertEquals(SolverState.FINISHED_FAILED, new BacktrackingSolver(board).solve());
+    }
+
+    @Test
+    public void runsInSteps() throws Exception {
+        BoardModel board = new BoardModel();
+        board.setPuzzle(HARD);
+
+        BacktrackingSolver solver = new BacktrackingSolver(board);
+        solver.start();
+
+        SolverState state;
+        do {
+            state = solver.run(500);
+        } while (state == SolverState.RUNNING);
+
+        assertEquals(SolverState.FINISHED_SUCCESS, state);
+        assertEquals(HARD_SOLUTION, board.getPuzzleString());
+    }
+
+    @Test
+    public void carriesOnFromSavedData() throws Exception {
+        BoardModel board = new BoardModel();
+        board.setPuzzle(HARD);
+
+        BacktrackingSolver solver = new BacktrackingSolver(board);
+        solver.start();
+        assertEquals(SolverState.RUNNING, solver.run(10));
+
+        StringBuilder data = new StringBuilder();
+        solver.getSaveData(data);
+
+        BacktrackingSolver restored = new BacktrackingSolver(board);
+        restored.restoreSavedData(new SavedDataReader(data.toString()));
+
+        assertEquals(SolverState.FINISHED_SUCCESS, restored.run(0));
+        assertEquals(HARD_SOLUTION, board.getPuzzleString());
+    }
+}
@@ -0,0 +1,102 @@
+package me.marcsymonds.sudokusolver.core;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static me.marcsymonds.sudokusolver.core.TestPuzzles.EASY;
+import static me.marcsymonds.sudokusolver.core.TestPuzzles.EASY_SOLUTION;
+import static me.marcsymonds.sudokusolver.core.TestPuzzles.HARD;
+import static me.marcsymonds.sudokusolver.core.TestPuzzles.HARD_SOLUTION;
+import static me.marcsymonds.sudokusolver.core.TestPuzzles.UNSOLVABLE;
+import static me.marcsymonds.sudokusolver.core.TestPuzzles.CONFLICTING;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for solving batches of puzzles.
+ */
+public class BatchSolverTest {
+    @Test
+    public void solvesListOfPuzzles() throws Exception {
+        for (SolverEngineType engineType : SolverEngineType.values()) {
+            BatchSolver solver = new BatchSolver(engineType);
+
+            BatchSolver.Result result = solver.solveAll(Arrays.asList(EASY, HARD, UNSOLVABLE, CONFLICTING, "123", EASY));
+            List<String> solutions = result.getSolutions();
+
+            assertEquals(6, solutions.size());
+            assertEquals(EASY_SOLUTION, solutions.get(0));
+            assertEquals(HARD_SOLUTION, solutions.get(1));
+            assertNull(solutions.get(2));
+            assertNull(solutions.get(3));
+            assertNull(solutions.get(4));
+            assertEquals(EASY_SOLUTION, solutions.get(5));
+
+            BatchStats stats = result.getStats();
+            assertEquals(6, stats.getPuzzles());
+            assertEquals(3, stats.getSolved());
+            assertEquals(1, stats.getUnsolvable());
+            assertEquals(2, stats.getInvalid());
+        }
+    }
+
+    @Test
+    public void passesSolutionsToListener() throws Exception {
+        final List<String> solutions = new ArrayList<>();
+        BatchSolver solver = new BatchSolver();
+
+        BatchStats stats = solver.solveAll(Arrays.asList(HARD, EASY).iterator(), new BatchSolver.SolutionListener() {
+            @Override
+            public void puzzleSolved(long index, String puzzle, String solution) {
+                assertEquals(solutions.size(), index);
+                solutions.add(solution);
+            }
+        });
+
+        assertEquals(Arrays.asList(HARD_SOLUTION, EASY_SOLUTION), solutions);
+        assertEquals(2, stats.getSolved());
+    }
+
+    @Test
+    public void keepsTotalStats() throws Exception {
+        BatchSolver solver = new BatchSolver();
+
+        assertEquals(EASY_SOLUTION, solver.solve(EASY));
+        solver.solveAll(Arrays.asList(HARD, UNSOLVABLE));
+
+        assertEquals(3, solver.getStats().getPuzzles());
+        assertEquals(2, solver.getStats().getSolved());
+        assertEquals(1, solver.getStats().getUnsolvable());
+    }
+
+    @Test
+    public void keepsMetricsWhenEnabled() throws Exception {
+        for (SolverEngineType engineType : SolverEngineType.values()) {
+            BatchSolver solver = new BatchSolver(engineType);
+
+            // Off by default.
+            BatchStats stats = solver.solveAll(Arrays.asList(EASY, HARD)).getStats();
+            assertNull(solver.getPuzzleMetrics());
+            assertEquals(0, stats.getMetrics().getSolutions());
+            assertEquals(0, stats.getMetrics().getRunNanos());
+
+            solver.setMetricsEnabled(true);
+            stats = solver.solveAll(Arrays.asList(EASY, HARD, UNSOLVABLE)).getStats();
+            SolverMetrics metrics = stats.getMetrics();
+
+            assertEquals(2, metrics.getSolutions());
+            assertTrue(metrics.getGuesses() > 0);
+            assertTrue(metrics.getBacktracks() > 0);
+            assertTrue(metrics.getDeadEnds() > 0);
+            assertTrue(metrics.getRunNanos() > 0);
+            assertEquals(2, solver.getStats().getMetrics().getSolutions());
+
+            // The metrics for the last puzzle only.
+            assertEquals(0, solver.getPuzzleMetrics().getSolutions());
+        }
+    }
+}
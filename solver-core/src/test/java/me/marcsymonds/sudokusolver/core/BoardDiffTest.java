@@ -0,0 +1,49 @@
+package me.marcsymonds.sudokusolver.core;
+
+import org.junit.Test;
+
+import static me.marcsymonds.sudokusolver.core.TestPuzzles.HARD;
+import static me.marcsymonds.sudokusolver.core.TestPuzzles.HARD_SOLUTION;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for sending just the changed cells of a board.
+ */
+public class BoardDiffTest {
+    @Test
+    public void copiesSolverProgressToAnotherBoard() throws Exception {
+        BacktrackingSolver solver = new BacktrackingSolver(new BoardModel());
+        BoardModel shown = new BoardModel();
+        BoardDiff diff;
+        int[] changes;
+        int total = 0;
+        SolverState state;
+
+        solver.getBoard().setPuzzle(HARD);
+        shown.copyFrom(solver.getBoard());
+        diff = new BoardDiff(solver.getBoard());
+
+        assertEquals(0, diff.capture(solver.getBoard()).length);
+
+        solver.start();
+        do {
+            state = solver.run(50);
+
+            changes = diff.capture(solver.getBoard());
+            assertTrue(changes.length <= BoardModel.CELL_COUNT);
+            total += changes.length;
+
+            BoardDiff.apply(changes, shown);
+            assertEquals(solver.getBoard().getPuzzleString(), shown.getPuzzleString());
+        } while (state == SolverState.RUNNING);
+
+        assertEquals(SolverState.FINISHED_SUCCESS, state);
+        assertEquals(HARD_SOLUTION, shown.getPuzzleString());
+        assertTrue(total > 0);
+
+        for (int cell = 0; cell < BoardModel.CELL_COUNT; cell++) {
+            assertEquals(solver.getBoard().getState(cell), shown.getState(cell));
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package me.marcsymonds.sudokusolver.core;
+
+import org.junit.Test;
+
+import static me.marcsymonds.sudokusolver.core.TestPuzzles.HARD;
+import static me.marcsymonds.sudokusolver.core.TestPuzzles.HARD_SOLUTION;
+import static me.marcsymonds.sudokusolver.core.TestPuzzles.MINIMAL;
+import static me.marcsymonds.sudokusolver.core.TestPuzzles.MINIMAL_SOLUTION;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * Tests for the dancing links solver engine.
+ */
+public class DancingLinksSolverTest {
+    @Test
+    public void solvesHardPuzzle() throws Exception {
+        BoardModel board = new BoardModel();
+        board.setPuzzle(HARD);
+
+        assertEquals(SolverState.FINISHED_SUCCESS, new DancingLinksSolver(board).solve());
+        assertEquals(HARD_SOLUTION, board.getPuzzleString());
+    }
+
+    @Test
+    public void solvesMinimalPuzzle() throws Exception {
+        BoardModel board = new BoardModel();
+        board.setPuzzle(MINIMAL);
+
+        assertEquals(SolverState.FINISHED_SUCCESS, new DancingLinksSolver(board).solve());
+        assertEquals(MINIMAL_SOLUTION, board.getPuzzleString());
+    }
+
+    @Test
+    public void failsUnsolvablePuzzle() throws Exception {
+        BoardModel board = new BoardModel();
+
+        // The top left cell can't contain any number.
+        board.setPuzzle(".12345678" + "9........" + "........." + "........." + "........." + "........." + "........." + "........." + ".........");
+
+        assertEquals(SolverState.FINISHED_FAILED, new DancingLinksSolver(board).solve());
+    }
+
+    @Test
+    public void failsConflictingFixedNumbers() throws Exception {
+        BoardModel board = new BoardModel();
+
+        board.setPuzzle("11......." + "........." + "........." + "........." + "........." + "........." + "........." + "........." + ".........");
+
+        assertEquals(SolverState.FINISHED_FAILED, new DancingLinksSolver(board).solve());
+    }
+
+    @Test
+    public void enginesGiveTheSameSolution() throws Exception {
+        for (SolverEngineType engineType : SolverEngineType.values()) {
+            BoardModel board = new BoardModel();
+            board.setPuzzle(MINIMAL);
+
+            SolverEngine engine = engineType.createEngine(board);
+
+            assertEquals(SolverState.FINISHED_SUCCESS, engine.solve());
+            assertEquals(MINIMAL_SOLUTION, board.getPuzzleString());
+        }
+    }
+
+    @Test
+    public void carriesOnFromSavedData() throws Exception {
+        BoardModel board = new BoardModel();
+        board.setPuzzle(HARD);
+
+        DancingLinksSolver solver = new DancingLinksSolver(board);
+        solver.start();
+        assertEquals(SolverState.RUNNING, solver.run(20));
+
+        StringBuilder data = new StringBuilder();
+        solver.getSaveData(data);
+
+        // The numbers chosen so far are put on the board.
+        assertFalse(HARD.equals(board.getPuzzleString()));
+
+        DancingLinksSolver restored = new DancingLinksSolver(board);
+        restored.restoreSavedData(new SavedDataReader(data.toString()));
+
+        assertEquals(SolverState.FINISHED_SUCCESS, restored.run(0));
+        assertEquals(HARD_SOLUTION, board.getPuzzleString());
+    }
+}
@@ -0,0 +1,97 @@
+package me.marcsymonds.sudokusolver.core;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static me.marcsymonds.sudokusolver.core.TestPuzzles.HARD;
+import static me.marcsymonds.sudokusolver.core.TestPuzzles.HARD_SOLUTION;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for solving boards of sizes other than 9x9.
+ */
+public class GridSolverTest {
+    /**
+     * Makes a puzzle by blanking cells of a solved board, chosen at random.
+     */
+    private static String makePuzzle(int boxSize, double blankFraction, long seed) {
+        int size = boxSize * boxSize;
+        Random random = new Random(seed);
+        StringBuilder puzzle = new StringBuilder(size * size);
+        int number;
+
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                // A simple pattern which follows the rules.
+                number = (((y % boxSize) * boxSize) + (y / boxSize) + x) % size + 1;
+                puzzle.append(random.nextDouble() < blankFraction ? '.' : GridModel.symbolOf(number));
+            }
+        }
+
+        return puzzle.toString();
+    }
+
+    private static void checkSolves(String puzzle) {
+        GridModel board = new GridModel(GridModel.boxSizeFor(puzzle.length()));
+        GridSolver solver = new GridSolver(board);
+        String solution;
+
+        board.setPuzzle(puzzle);
+        assertEquals(SolverState.FINISHED_SUCCESS, solver.solve());
+
+        solution = board.getPuzzleString();
+        assertFalse(board.hasConflicts());
+        assertEquals(-1, solution.indexOf('.'));
+
+        for (int cell = 0; cell < puzzle.length(); cell++) {
+            if (puzzle.charAt(cell) != '.') {
+                assertEquals(puzzle.charAt(cell), solution.charAt(cell));
+            }
+        }
+    }
+
+    @Test
+    public void solvesSmallBoard() throws Exception {
+        checkSolves("1..4..2..1..3..2");
+    }
+
+    @Test
+    public void solvesSameAsNineByNineSolver() throws Exception {
+        GridModel board = new GridModel(3);
+        GridSolver solver = new GridSolver(board);
+        SolverMetrics metrics = new SolverMetrics();
+
+        solver.setMetrics(metrics);
+        board.setPuzzle(HARD);
+
+        assertEquals(SolverState.FINISHED_SUCCESS, solver.solve());
+        assertEquals(HARD_SOLUTION, board.getPuzzleString());
+        assertTrue(metrics.getGuesses() > 0);
+        assertEquals(1, metrics.getSolutions());
+    }
+
+    @Test
+    public void solvesLargeBoards() throws Exception {
+        checkSolves(makePuzzle(4, 0.6, 1));
+        checkSolves(makePuzzle(5, 0.5, 2));
+    }
+
+    @Test
+    public void failsUnsolvableBoard() throws Exception {
+        // 3 can't go anywhere in the top row.
+        String puzzle = "12....3....3....";
+        GridModel board = new GridModel(2);
+
+        board.setPuzzle(puzzle);
+        assertEquals(SolverState.FINISHED_FAILED, new GridSolver(board).solve());
+        assertEquals(puzzle, board.getPuzzleString());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNumberTooBigForBoard() throws Exception {
+        new GridModel(2).setPuzzle("5...............");
+    }
+}
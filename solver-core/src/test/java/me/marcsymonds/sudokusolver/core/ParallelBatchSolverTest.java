@@ -0,0 +1,74 @@
+package me.marcsymonds.sudokusolver.core;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static me.marcsymonds.sudokusolver.core.TestPuzzles.EASY;
+import static me.marcsymonds.sudokusolver.core.TestPuzzles.EASY_SOLUTION;
+import static me.marcsymonds.sudokusolver.core.TestPuzzles.HARD;
+import static me.marcsymonds.sudokusolver.core.TestPuzzles.HARD_SOLUTION;
+import static me.marcsymonds.sudokusolver.core.TestPuzzles.UNSOLVABLE;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Tests for solving batches of puzzles on several threads.
+ */
+public class ParallelBatchSolverTest {
+    private static List<String> makePuzzles(int count) {
+        List<String> puzzles = new ArrayList<>();
+
+        for (int i = 0; i < count; i++) {
+            puzzles.add((i % 3 == 0) ? HARD : (i % 3 == 1) ? EASY : UNSOLVABLE);
+        }
+
+        return puzzles;
+    }
+
+    @Test
+    public void solvesListInOrder() throws Exception {
+        ParallelBatchSolver solver = new ParallelBatchSolver(SolverEngineType.BACKTRACKING, 4);
+        solver.setChunkSize(7);
+
+        BatchSolver.Result result = solver.solveAll(makePuzzles(200));
+        solver.shutdown();
+
+        assertEquals(200, result.getSolutions().size());
+        for (int i = 0; i < 200; i++) {
+            if (i % 3 == 0) {
+                assertEquals(HARD_SOLUTION, result.getSolutions().get(i));
+            } else if (i % 3 == 1) {
+                assertEquals(EASY_SOLUTION, result.getSolutions().get(i));
+            } else {
+                assertNull(result.getSolutions().get(i));
+            }
+        }
+
+        assertEquals(200, result.getStats().getPuzzles());
+        assertEquals(134, result.getStats().getSolved());
+        assertEquals(66, result.getStats().getUnsolvable());
+    }
+
+    @Test
+    public void deliversStreamInOrder() throws Exception {
+        final List<Long> indexes = new ArrayList<>();
+        ParallelBatchSolver solver = new ParallelBatchSolver(SolverEngineType.DANCING_LINKS, 3);
+        solver.setChunkSize(5);
+
+        BatchStats stats = solver.solveAll(makePuzzles(100).iterator(), new BatchSolver.SolutionListener() {
+            @Override
+            public void puzzleSolved(long index, String puzzle, String solution) {
+                indexes.add(index);
+            }
+        }, true);
+        solver.shutdown();
+
+        assertEquals(100, stats.getPuzzles());
+        assertEquals(100, indexes.size());
+        for (int i = 0; i < indexes.size(); i++) {
+            assertEquals(i, (long) indexes.get(i));
+        }
+    }
+}
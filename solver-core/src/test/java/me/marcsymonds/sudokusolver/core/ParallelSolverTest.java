@@ -0,0 +1,44 @@
+package me.marcsymonds.sudokusolver.core;
+
+import org.junit.Test;
+
+import static me.marcsymonds.sudokusolver.core.TestPuzzles.HARD;
+import static me.marcsymonds.sudokusolver.core.TestPuzzles.HARD_SOLUTION;
+import static me.marcsymonds.sudokusolver.core.TestPuzzles.UNSOLVABLE;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests for solving a single puzzle on several threads.
+ */
+public class ParallelSolverTest {
+    @Test
+    public void solvesHardPuzzle() throws Exception {
+        ParallelSolver solver = new ParallelSolver(4);
+
+        for (int depth = 0; depth <= 3; depth++) {
+            for (SolverEngineType engineType : SolverEngineType.values()) {
+                BoardModel board = new BoardModel();
+                board.setPuzzle(HARD);
+
+                solver.setSplitDepth(depth);
+                solver.setEngineType(engineType);
+
+                assertEquals(SolverState.FINISHED_SUCCESS, solver.solve(board));
+                assertEquals(HARD_SOLUTION, board.getPuzzleString());
+            }
+        }
+
+        solver.shutdown();
+    }
+
+    @Test
+    public void failsUnsolvablePuzzle() throws Exception {
+        ParallelSolver solver = new ParallelSolver(2);
+        BoardModel board = new BoardModel();
+        board.setPuzzle(UNSOLVABLE);
+
+        assertEquals(SolverState.FINISHED_FAILED, solver.solve(board));
+
+        solver.shutdown();
+    }
+}
@@ -0,0 +1,178 @@
+package me.marcsymonds.sudokusolver.core;
+
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Random;
+
+import static me.marcsymonds.sudokusolver.core.TestPuzzles.EASY;
+import static me.marcsymonds.sudokusolver.core.TestPuzzles.HARD;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for recognising puzzles which are the same apart from their layout and labelling.
+ */
+public class PuzzleCanonicalizerTest {
+    /**
+     * Shuffles an array.
+     */
+    private static void shuffle(int[] values, Random random) {
+        for (int i = values.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int t = values[i];
+            values[i] = values[j];
+            values[j] = t;
+        }
+    }
+
+    /**
+     * Gets an order of the rows or columns, keeping them within their bands or stacks.
+     */
+    private static int[] lineOrder(Random random) {
+        int[] groups = {0, 1, 2};
+        int[] order = new int[9];
+
+        shuffle(groups, random);
+
+        for (int g = 0; g < 3; g++) {
+            int[] lines = {0, 1, 2};
+
+            shuffle(lines, random);
+
+            for (int i = 0; i < 3; i++) {
+                order[(g * 3) + i] = (groups[g] * 3) + lines[i];
+            }
+        }
+
+        return order;
+    }
+
+    /**
+     * Lays out and labels a puzzle differently, at random.
+     */
+    private static String transform(String puzzle, Random random) {
+        int[] rows = lineOrder(random);
+        int[] columns = lineOrder(random);
+        int[] labels = {1, 2, 3, 4, 5, 6, 7, 8, 9};
+        boolean transpose = random.nextBoolean();
+        char[] result = new char[81];
+
+        shuffle(labels, random);
+
+        for (int y = 0; y < 9; y++) {
+            for (int x = 0; x < 9; x++) {
+                char c = transpose ? puzzle.charAt((columns[x] * 9) + rows[y]) : puzzle.charAt((rows[y] * 9) + columns[x]);
+
+                result[(y * 9) + x] = (c == '.') ? '.' : (char) ('0' + labels[c - '1']);
+            }
+        }
+
+        return new String(result);
+    }
+
+    @Test
+    public void sameFormForTransformedPuzzles() throws Exception {
+        PuzzleCanonicalizer canonicalizer = new PuzzleCanonicalizer();
+        Random random = new Random(1);
+
+        for (String puzzle : new String[]{EASY, HARD}) {
+            String canonical = canonicalizer.canonicalize(puzzle);
+
+            for (int i = 0; i < 20; i++) {
+                assertEquals(canonical, canonicalizer.canonicalize(transform(puzzle, random)));
+            }
+        }
+    }
+
+    @Test
+    public void canonicalFormIsMinimal() throws Exception {
+        PuzzleCanonicalizer canonicalizer = new PuzzleCanonicalizer();
+        Random random = new Random(2);
+        String canonical = canonicalizer.canonicalize(HARD);
+
+        assertEquals(canonical, canonicalizer.canonicalize(canonical));
+        assertEquals(81, canonical.length());
+
+        // Blanks come before numbers, so no other layout can come before it.
+        for (int i = 0; i < 50; i++) {
+            String other = transform(HARD, random).replace('.', '0');
+
+            assertTrue(canonical.replace('.', '0').compareTo(other) <= 0);
+        }
+    }
+
+    @Test
+    public void differentFormsForDifferentPuzzles() throws Exception {
+        PuzzleCanonicalizer canonicalizer = new PuzzleCanonicalizer();
+
+        assertFalse(canonicalizer.canonicalize(EASY).equals(canonicalizer.canonicalize(HARD)));
+
+        // A single number is moved to the last cell.
+        char[] expected = new char[81];
+        Arrays.fill(expected, '.');
+        expected[80] = '1';
+        assertEquals(new String(expected), canonicalizer.canonicalize("5" + HARD.substring(1).replaceAll("[1-9]", ".")));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsShortPuzzle() throws Exception {
+        new PuzzleCanonicalizer().canonicalize(EASY.substring(1));
+    }
+
+    @Test
+    public void removesDuplicates() throws Exception {
+        PuzzleDeduplicator deduplicator = new PuzzleDeduplicator(2);
+        Random random = new Random(3);
+        StringBuilder input = new StringBuilder();
+        StringWriter output = new StringWriter();
+
+        input.append(EASY).append('\n');
+        input.append(transform(EASY, random)).append('\n');
+        input.append("123\n");
+        input.append('\n');
+        input.append(HARD).append('\n');
+        for (int i = 0; i < 100; i++) {
+            input.append(transform((i % 2 == 0) ? EASY : HARD, random)).append('\n');
+        }
+
+        assertEquals(2, deduplicator.dedupe(new BufferedReader(new StringReader(input.toString())), output));
+        assertEquals(EASY + "\n" + HARD + "\n", output.toString());
+
+        assertEquals(103, deduplicator.getPuzzles());
+        assertEquals(2, deduplicator.getUnique());
+        assertEquals(101, deduplicator.getDuplicates());
+        assertEquals(1, deduplicator.getInvalid());
+
+        assertFalse(deduplicator.add(transform(HARD, random)));
+    }
+
+    @Test
+    public void keepsManyDifferentPuzzles() throws Exception {
+        PuzzleDeduplicator deduplicator = new PuzzleDeduplicator();
+        char[] puzzle = new char[81];
+
+        // Puzzles with one number in the first row, the rest blank; all the same.
+        for (int cell = 0; cell < 9; cell++) {
+            Arrays.fill(puzzle, '.');
+            puzzle[cell] = (char) ('1' + cell);
+            deduplicator.add(new String(puzzle));
+        }
+        assertEquals(1, deduplicator.getUnique());
+
+        // Puzzles with two numbers; the numbers can be in the same row and block, the same row,
+        // the same block, the same band or stack, or none of these.
+        deduplicator.clear();
+        for (int cell = 1; cell < 81; cell++) {
+            Arrays.fill(puzzle, '.');
+            puzzle[0] = '1';
+            puzzle[cell] = '2';
+            deduplicator.add(new String(puzzle));
+        }
+        assertEquals(5, deduplicator.getUnique());
+    }
+}
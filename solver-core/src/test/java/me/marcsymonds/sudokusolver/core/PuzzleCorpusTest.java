@@ -0,0 +1,163 @@
+package me.marcsymonds.sudokusolver.core;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static me.marcsymonds.sudokusolver.core.TestPuzzles.EASY;
+import static me.marcsymonds.sudokusolver.core.TestPuzzles.EASY_SOLUTION;
+import static me.marcsymonds.sudokusolver.core.TestPuzzles.HARD;
+import static me.marcsymonds.sudokusolver.core.TestPuzzles.HARD_SOLUTION;
+import static me.marcsymonds.sudokusolver.core.TestPuzzles.UNSOLVABLE;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for writing and reading puzzles in the binary corpus format.
+ */
+public class PuzzleCorpusTest {
+    private static File tempFile() throws IOException {
+        File file = File.createTempFile("puzzles", ".sdk");
+
+        file.deleteOnExit();
+
+        return file;
+    }
+
+    private static List<String> makePuzzles(int count) {
+        PuzzleGenerator generator = new PuzzleGenerator(5);
+        List<String> puzzles = new ArrayList<>();
+
+        for (int i = 0; i < count; i++) {
+            puzzles.add(generator.generate(PuzzleDifficulty.EASY, PuzzleSymmetry.NONE).getPuzzle());
+        }
+
+        // Puzzles with no numbers, and with every number.
+        puzzles.add(EASY.replaceAll("[1-9]", "."));
+        puzzles.add(EASY_SOLUTION);
+
+        return puzzles;
+    }
+
+    @Test
+    public void readsPuzzlesWritten() throws Exception {
+        File file = tempFile();
+        List<String> puzzles = makePuzzles(150);
+        char[] puzzle = new char[81];
+        PuzzleCorpusWriter writer = new PuzzleCorpusWriter(file, false);
+
+        for (String p : puzzles) {
+            writer.add(p.replace('.', '0'));
+        }
+        writer.close();
+
+        // Much smaller than a line of text for each puzzle.
+        assertTrue(file.length() * 2 < puzzles.size() * 82);
+
+        PuzzleCorpusReader reader = new PuzzleCorpusReader(file);
+        try {
+            assertEquals(puzzles.size(), reader.getCount());
+            assertFalse(reader.hasSolutions());
+
+            for (String p : puzzles) {
+                assertTrue(reader.next(puzzle));
+                assertEquals(p, new String(puzzle));
+                assertFalse(reader.getSolution(puzzle));
+            }
+            assertFalse(reader.next(puzzle));
+
+            for (int index : new int[]{130, 0, 63, 64, 65, 151, 1}) {
+                reader.seek(index);
+                assertTrue(reader.next(puzzle));
+                assertEquals(puzzles.get(index), new String(puzzle));
+                assertEquals(index + 1, reader.getPosition());
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    @Test
+    public void writesSolutionsFromBatchSolver() throws Exception {
+        File file = tempFile();
+        char[] puzzle = new char[81];
+        char[] solution = new char[81];
+        PuzzleCorpusWriter writer = new PuzzleCorpusWriter(file, true);
+
+        new BatchSolver().solveAll(Arrays.asList(EASY, UNSOLVABLE, "123", HARD).iterator(), writer);
+        writer.close();
+
+        PuzzleCorpusReader reader = new PuzzleCorpusReader(file);
+        try {
+            assertEquals(3, reader.getCount());
+            assertTrue(reader.hasSolutions());
+
+            reader.seek(2);
+            assertTrue(reader.next(puzzle));
+            assertEquals(HARD, new String(puzzle));
+            assertTrue(reader.getSolution(solution));
+            assertEquals(HARD_SOLUTION, new String(solution));
+
+            reader.seek(0);
+            assertTrue(reader.next(puzzle));
+            assertTrue(reader.getSolution(solution));
+            assertEquals(EASY_SOLUTION, new String(solution));
+
+            assertTrue(reader.next(puzzle));
+            assertEquals(UNSOLVABLE, new String(puzzle));
+            assertFalse(reader.getSolution(solution));
+        } finally {
+            reader.close();
+        }
+    }
+
+    @Test
+    public void feedsBatchSolver() throws Exception {
+        File file = tempFile();
+        PuzzleCorpusWriter writer = new PuzzleCorpusWriter(file, false);
+
+        writer.add(EASY);
+        writer.add(HARD);
+        writer.close();
+
+        PuzzleCorpusReader reader = new PuzzleCorpusReader(file);
+        try {
+            assertEquals(Arrays.asList(EASY_SOLUTION, HARD_SOLUTION), solveAll(reader));
+        } finally {
+            reader.close();
+        }
+    }
+
+    private static List<String> solveAll(PuzzleCorpusReader reader) {
+        final List<String> solutions = new ArrayList<>();
+
+        new BatchSolver().solveAll(reader.puzzles(), new BatchSolver.SolutionListener() {
+            @Override
+            public void puzzleSolved(long index, String puzzle, String solution) {
+                solutions.add(solution);
+            }
+        });
+
+        return solutions;
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsOtherFiles() throws Exception {
+        File file = tempFile();
+        FileOutputStream out = new FileOutputStream(file);
+
+        try {
+            out.write((EASY + "\n").getBytes("US-ASCII"));
+        } finally {
+            out.close();
+        }
+
+        new PuzzleCorpusReader(file).close();
+    }
+}
@@ -0,0 +1,127 @@
+package me.marcsymonds.sudokusolver.core;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static me.marcsymonds.sudokusolver.core.TestPuzzles.EASY;
+import static me.marcsymonds.sudokusolver.core.TestPuzzles.HARD;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for reading puzzles from a file.
+ */
+public class PuzzleFileReaderTest {
+    private static File writeFile(String contents) throws IOException {
+        File file = File.createTempFile("puzzles", ".txt");
+        FileOutputStream out = new FileOutputStream(file);
+
+        file.deleteOnExit();
+
+        try {
+            out.write(contents.getBytes("US-ASCII"));
+        } finally {
+            out.close();
+        }
+
+        return file;
+    }
+
+    private static List<String> readAll(PuzzleFileReader reader) throws IOException {
+        List<String> puzzles = new ArrayList<>();
+        char[] puzzle = new char[81];
+
+        while (reader.next(puzzle)) {
+            puzzles.add(new String(puzzle));
+        }
+
+        return puzzles;
+    }
+
+    @Test
+    public void readsStandardFormats() throws Exception {
+        String contents = "# A comment\n"
+                + EASY + "\n"
+                + "\n"
+                + HARD.replace('.', '0') + " 10.5\r\n"
+                + "  " + EASY + ";rated\n"
+                + "123\n"
+                + "12345678x" + HARD.substring(9) + "\n"
+                + HARD.substring(0, 80);
+        PuzzleFileReader reader = new PuzzleFileReader(writeFile(contents));
+
+        try {
+            List<String> puzzles = readAll(reader);
+
+            assertEquals(3, puzzles.size());
+            assertEquals(EASY, puzzles.get(0));
+            assertEquals(HARD, puzzles.get(1));
+            assertEquals(EASY, puzzles.get(2));
+            assertEquals(3, reader.getPuzzles());
+            assertEquals(3, reader.getInvalid());
+        } finally {
+            reader.close();
+        }
+    }
+
+    @Test
+    public void readsPuzzlesAcrossMappedPieces() throws Exception {
+        StringBuilder contents = new StringBuilder();
+
+        for (int i = 0; i < 100; i++) {
+            contents.append((i % 2 == 0) ? EASY : HARD).append('\n');
+        }
+
+        // Pieces and chunks that don't line up with the lines.
+        PuzzleFileReader reader = new PuzzleFileReader(writeFile(contents.toString()), 1000, 37);
+
+        try {
+            List<String> puzzles = readAll(reader);
+
+            assertEquals(100, puzzles.size());
+            for (int i = 0; i < 100; i++) {
+                assertEquals((i % 2 == 0) ? EASY : HARD, puzzles.get(i));
+            }
+            assertEquals(0, reader.getInvalid());
+        } finally {
+            reader.close();
+        }
+    }
+
+    @Test
+    public void loadsPuzzlesOnToBoard() throws Exception {
+        PuzzleFileReader reader = new PuzzleFileReader(writeFile(HARD + "\n"));
+        BoardModel board = new BoardModel();
+
+        try {
+            assertTrue(reader.next(board));
+            assertEquals(HARD, board.getPuzzleString());
+            assertFalse(reader.next(board));
+        } finally {
+            reader.close();
+        }
+    }
+
+    @Test
+    public void feedsBatchSolver() throws Exception {
+        PuzzleFileReader reader = new PuzzleFileReader(writeFile(EASY + "\n" + HARD + "\n" + EASY));
+
+        try {
+            Iterator<String> puzzles = reader.puzzles();
+            BatchStats stats = new BatchSolver().solveAll(puzzles, null);
+
+            assertEquals(3, stats.getPuzzles());
+            assertEquals(3, stats.getSolved());
+            assertFalse(puzzles.hasNext());
+        } finally {
+            reader.close();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package me.marcsymonds.sudokusolver.core;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static me.marcsymonds.sudokusolver.core.TestPuzzles.EASY;
+import static me.marcsymonds.sudokusolver.core.TestPuzzles.MEDIUM;
+import static me.marcsymonds.sudokusolver.core.TestPuzzles.HARD;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for creating new puzzles.
+ */
+public class PuzzleGeneratorTest {
+    private static void assertValid(GeneratedPuzzle generated, PuzzleSymmetry symmetry) {
+        String puzzle = generated.getPuzzle();
+        BoardModel board = new BoardModel();
+        BacktrackingSolver solver = new BacktrackingSolver(board);
+
+        board.setPuzzle(puzzle);
+        assertEquals(1, solver.countSolutions(2));
+
+        board.setPuzzle(puzzle);
+        solver.setSolutionLimit(1);
+        assertEquals(SolverState.FINISHED_SUCCESS, solver.solve());
+        assertEquals(generated.getSolution(), board.getPuzzleString());
+
+        for (int cell = 0; cell < BoardModel.CELL_COUNT; cell++) {
+            assertEquals(puzzle.charAt(cell) == '.', puzzle.charAt(symmetry.partnerOf(cell)) == '.');
+        }
+    }
+
+    @Test
+    public void generatesPuzzlesWithOneSolution() throws Exception {
+        PuzzleGenerator generator = new PuzzleGenerator(1234);
+
+        for (PuzzleSymmetry symmetry : PuzzleSymmetry.values()) {
+            for (PuzzleDifficulty difficulty : PuzzleDifficulty.values()) {
+                GeneratedPuzzle puzzle = generator.generate(difficulty, symmetry);
+
+                assertValid(puzzle, symmetry);
+                assertTrue(puzzle.getDifficulty().toInteger() <= difficulty.toInteger());
+                assertEquals(puzzle.getDifficulty(), generator.rate(puzzle.getPuzzle()));
+            }
+        }
+    }
+
+    @Test
+    public void generatesHardPuzzlesWithOneSolution() throws Exception {
+        PuzzleGenerator generator = new PuzzleGenerator(99);
+
+        for (PuzzleSymmetry symmetry : PuzzleSymmetry.values()) {
+            for (int i = 0; i < 20; i++) {
+                assertValid(generator.generate(PuzzleDifficulty.HARD, symmetry), symmetry);
+            }
+        }
+    }
+
+    @Test
+    public void ratesPuzzles() throws Exception {
+        PuzzleGenerator generator = new PuzzleGenerator();
+
+        assertEquals(PuzzleDifficulty.EASY, generator.rate(EASY));
+        assertEquals(PuzzleDifficulty.HARD, generator.rate(HARD));
+        assertEquals(null, generator.rate(".................................................................................."));
+    }
+
+    @Test
+    public void generatesOnSeveralThreads() throws Exception {
+        ParallelPuzzleGenerator generator = new ParallelPuzzleGenerator(3, 42);
+        List<GeneratedPuzzle> puzzles = generator.generate(20, PuzzleDifficulty.MEDIUM, PuzzleSymmetry.ROTATIONAL);
+        Set<String> unique = new HashSet<>();
+        generator.shutdown();
+
+        assertEquals(20, puzzles.size());
+        for (GeneratedPuzzle puzzle : puzzles) {
+            assertValid(puzzle, PuzzleSymmetry.ROTATIONAL);
+            unique.add(puzzle.getPuzzle());
+        }
+        assertEquals(20, unique.size());
+    }
+}
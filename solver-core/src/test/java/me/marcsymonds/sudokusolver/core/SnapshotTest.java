@@ -0,0 +1,98 @@
+package me.marcsymonds.sudokusolver.core;
+
+import org.junit.Test;
+
+import static me.marcsymonds.sudokusolver.core.TestPuzzles.HARD;
+import static me.marcsymonds.sudokusolver.core.TestPuzzles.HARD_SOLUTION;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for saving the board and solver as binary snapshots.
+ */
+public class SnapshotTest {
+    /**
+     * Solves part of the puzzle, takes a snapshot, and checks that a new board and engine carry
+     * on from the snapshot to the solution.
+     */
+    private static void checkCarriesOn(SolverEngine engine, SolverEngine restored) {
+        SnapshotWriter writer = new SnapshotWriter();
+
+        engine.start();
+        assertEquals(SolverState.RUNNING, engine.run(10));
+
+        writer.writeHeader();
+        engine.getBoard().writeSnapshot(writer);
+        engine.writeSnapshot(writer);
+        byte[] snapshot = writer.toByteArray();
+
+        // A few hundred bytes.
+        assertTrue(snapshot.length < 1024);
+
+        SnapshotReader reader = new SnapshotReader(snapshot);
+        assertEquals(SnapshotWriter.VERSION, reader.readHeader());
+        restored.getBoard().readSnapshot(reader);
+        restored.readSnapshot(reader);
+
+        assertEquals(engine.getBoard().getPuzzleString(), restored.getBoard().getPuzzleString());
+        assertEquals(SolverState.FINISHED_SUCCESS, restored.run(0));
+        assertEquals(HARD_SOLUTION, restored.getBoard().getPuzzleString());
+    }
+
+    @Test
+    public void packsValuesInBits() throws Exception {
+        SnapshotWriter writer = new SnapshotWriter(16);
+
+        for (int i = 0; i < 100; i++) {
+            writer.writeBits(i, 7);
+            writer.writeBool(i % 3 == 0);
+            writer.writeBits(-i, 32);
+        }
+
+        byte[] data = writer.toByteArray();
+        assertEquals((100 * 40) / 8, data.length);
+
+        SnapshotReader reader = new SnapshotReader(data);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, reader.readBits(7));
+            assertEquals(i % 3 == 0, reader.readBool());
+            assertEquals(-i, reader.readBits(32));
+        }
+    }
+
+    @Test
+    public void restoresBacktrackingSolver() throws Exception {
+        BoardModel board = new BoardModel();
+        board.setPuzzle(HARD);
+
+        BoardModel restoredBoard = new BoardModel();
+
+        checkCarriesOn(new BacktrackingSolver(board), new BacktrackingSolver(restoredBoard));
+    }
+
+    @Test
+    public void restoresDancingLinksSolver() throws Exception {
+        BoardModel board = new BoardModel();
+        board.setPuzzle(HARD);
+
+        BoardModel restoredBoard = new BoardModel();
+
+        checkCarriesOn(new DancingLinksSolver(board), new DancingLinksSolver(restoredBoard));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsDataThatIsNotASnapshot() throws Exception {
+        new SnapshotReader("1020304#".getBytes("US-ASCII")).readHeader();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void rejectsShortSnapshot() throws Exception {
+        SnapshotWriter writer = new SnapshotWriter();
+        writer.writeHeader();
+        writer.writeBits(5, 4);
+
+        SnapshotReader reader = new SnapshotReader(writer.toByteArray());
+        reader.readHeader();
+        new BoardModel().readSnapshot(reader);
+    }
+}
@@ -0,0 +1,86 @@
+package me.marcsymonds.sudokusolver.core;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static me.marcsymonds.sudokusolver.core.TestPuzzles.EASY;
+import static me.marcsymonds.sudokusolver.core.TestPuzzles.EASY_SOLUTION;
+import static me.marcsymonds.sudokusolver.core.TestPuzzles.HARD;
+import static me.marcsymonds.sudokusolver.core.TestPuzzles.HARD_SOLUTION;
+import static me.marcsymonds.sudokusolver.core.TestPuzzles.UNSOLVABLE;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Tests for looking up the solutions of puzzles that have already been solved.
+ */
+public class SolutionCacheTest {
+    /**
+     * Swaps two numbers throughout a board.
+     */
+    private static String swap(String board, char a, char b) {
+        return board.replace(a, '#').replace(b, a).replace('#', b);
+    }
+
+    @Test
+    public void findsSolvedPuzzles() throws Exception {
+        SolutionCache cache = new SolutionCache(1024 * 1024);
+
+        assertNull(cache.get(EASY));
+        cache.put(EASY, EASY_SOLUTION);
+
+        assertEquals(EASY_SOLUTION, cache.get(EASY));
+        assertNull(cache.get(HARD));
+        assertNull(cache.get(swap(EASY, '1', '2')));
+
+        assertEquals(1, cache.getHits());
+        assertEquals(3, cache.getMisses());
+    }
+
+    @Test
+    public void findsRelabelledPuzzles() throws Exception {
+        SolutionCache cache = new SolutionCache(1024 * 1024);
+        String puzzle = swap(swap(HARD, '8', '1'), '3', '9');
+
+        cache.setRelabelNumbers(true);
+        cache.put(HARD, HARD_SOLUTION);
+
+        assertEquals(HARD_SOLUTION, cache.get(HARD));
+        assertEquals(swap(swap(HARD_SOLUTION, '8', '1'), '3', '9'), cache.get(puzzle));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void dropsLeastRecentlyUsed() throws Exception {
+        SolutionCache cache = new SolutionCache(2 * SolutionCache.ENTRY_BYTES);
+
+        assertEquals(2, cache.getMaxEntries());
+
+        cache.put(EASY, EASY_SOLUTION);
+        cache.put(HARD, HARD_SOLUTION);
+        cache.get(EASY);
+        cache.put(swap(HARD, '1', '2'), swap(HARD_SOLUTION, '1', '2'));
+
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictions());
+        assertEquals(EASY_SOLUTION, cache.get(EASY));
+        assertNull(cache.get(HARD));
+    }
+
+    @Test
+    public void batchSolverUsesCache() throws Exception {
+        SolutionCache cache = new SolutionCache(1024 * 1024);
+        BatchSolver solver = new BatchSolver();
+
+        solver.setSolutionCache(cache);
+
+        List<String> solutions = solver.solveAll(Arrays.asList(EASY, HARD, UNSOLVABLE, HARD, EASY, UNSOLVABLE)).getSolutions();
+
+        assertEquals(Arrays.asList(EASY_SOLUTION, HARD_SOLUTION, null, HARD_SOLUTION, EASY_SOLUTION, null), solutions);
+        assertEquals(2, cache.size());
+        assertEquals(2, cache.getHits());
+        assertEquals(4, solver.getStats().getSolved());
+    }
+}
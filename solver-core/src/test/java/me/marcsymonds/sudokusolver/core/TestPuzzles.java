@@ -0,0 +1,28 @@
+package me.marcsymonds.sudokusolver.core;
+
+/**
+ * Puzzles, and their solutions, used by the tests.
+ */
+final class TestPuzzles {
+    static final String EASY = "53..7....6..195....98....6.8...6...34..8.3..17...2...6.6....28....419..5....8..79";
+    static final String EASY_SOLUTION = "534678912672195348198342567859761423426853791713924856961537284287419635345286179";
+
+    static final String MEDIUM = "......9.7...42.18....7.5.261..9.4....5.....4....5.7..992.1.8....34.59...5.7......";
+    static final String MEDIUM_SOLUTION = "462831957795426183381795426173984265659312748248567319926178534834259671517643892";
+
+    static final String HARD = "8..........36......7..9.2...5...7.......457.....1...3...1....68..85...1..9....4..";
+    static final String HARD_SOLUTION = "812753649943682175675491283154237896369845721287169534521974368438526917796318452";
+
+    // A puzzle with only 17 fixed numbers.
+    static final String MINIMAL = ".......1.4.........2...........5.4.7..8...3....1.9....3..4..2...5.1........8.6...";
+    static final String MINIMAL_SOLUTION = "693784512487512936125963874932651487568247391741398625319475268856129743274836159";
+
+    // Valid, but 9 can't go anywhere in the top row.
+    static final String UNSOLVABLE = ".12345678" + "9........" + "........." + "........." + "........." + "........." + "........." + "........." + ".........";
+
+    // The same number twice in the top row.
+    static final String CONFLICTING = "11......." + "........." + "........." + "........." + "........." + "........." + "........." + "........." + ".........";
+
+    private TestPuzzles() {
+    }
+}